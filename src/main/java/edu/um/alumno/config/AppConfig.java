@@ -1,15 +1,198 @@
 package edu.um.alumno.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Outbound HTTP client for the cátedra backend.
+ * <p>
+ * Every call to {@code professor.api.url} goes through the {@link RestTemplate} defined here. Call sites pass paths
+ * relative to that URL with their variables as uri templates (e.g. {@code /catedra/venta/{id}}), so the
+ * {@code http.client.requests} timers get one series per endpoint instead of one per id.
+ */
 @Configuration
 public class AppConfig {
 
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.build();
+    public RestTemplate restTemplate(
+        RestTemplateBuilder builder,
+        ClientHttpRequestFactory catedraRequestFactory,
+        @Value("${professor.api.url}") String professorApiUrl
+    ) {
+        return builder.rootUri(professorApiUrl).requestFactory(() -> catedraRequestFactory).build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory catedraRequestFactory(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Catedra catedra = applicationProperties.getCatedra();
+        if (catedra.isHttp2()) {
+            return http2RequestFactory(catedra);
+        }
+        return pooledRequestFactory(catedra, meterRegistry);
+    }
+
+    // HTTP/1.1 with a keep-alive connection pool, so concurrent sales reuse connections instead of opening one each.
+    private static ClientHttpRequestFactory pooledRequestFactory(ApplicationProperties.Catedra catedra, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(catedra.getMaxConnections())
+            .setMaxConnPerRoute(catedra.getMaxConnectionsPerRoute())
+            .setDefaultConnectionConfig(
+                ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.of(catedra.getConnectTimeout()))
+                    .setSocketTimeout(Timeout.of(catedra.getReadTimeout()))
+                    .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                    .build()
+            )
+            .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "catedra").bindTo(meterRegistry);
+
+        TimeValue keepAlive = TimeValue.of(catedra.getKeepAlive());
+        HttpClientBuilder httpClientBuilder = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(
+                RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.of(catedra.getConnectionRequestTimeout()))
+                    .setResponseTimeout(Timeout.of(catedra.getReadTimeout()))
+                    .build()
+            )
+            .setKeepAliveStrategy((response, context) -> keepAlive)
+            .setRetryStrategy(new ResponseNotRetriedStrategy())
+            .evictIdleConnections(keepAlive)
+            .evictExpiredConnections();
+        return DeadlineRequestFactory.create(httpClientBuilder, catedra.getTotalTimeout());
+    }
+
+    // The JDK client multiplexes requests over one HTTP/2 connection; it has no per-route limit nor total timeout.
+    private static ClientHttpRequestFactory http2RequestFactory(ApplicationProperties.Catedra catedra) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(catedra.getConnectTimeout())
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(catedra.getReadTimeout());
+        return requestFactory;
+    }
+
+    /**
+     * Retries idempotent requests that failed on I/O, such as a stale pooled connection, but not responses: the default
+     * strategy would resend a sale answered with 503 or 429, which the outbox retries with its own backoff instead.
+     */
+    static class ResponseNotRetriedStrategy extends DefaultHttpRequestRetryStrategy {
+
+        @Override
+        public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+            return false;
+        }
+    }
+
+    /**
+     * Aborts every exchange still running after the total timeout, including one stuck reading a slow response body,
+     * which the connect and read timeouts alone do not bound.
+     * <p>
+     * The deadline of an exchange is cancelled as soon as its response is closed, so the scheduler only holds the
+     * exchanges in flight.
+     */
+    static class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        private final ScheduledThreadPoolExecutor deadlines;
+
+        private DeadlineRequestFactory(CloseableHttpClient httpClient, ScheduledThreadPoolExecutor deadlines) {
+            super(httpClient);
+            this.deadlines = deadlines;
+        }
+
+        static DeadlineRequestFactory create(HttpClientBuilder httpClientBuilder, Duration totalTimeout) {
+            ScheduledThreadPoolExecutor deadlines = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "catedra-deadline");
+                thread.setDaemon(true);
+                return thread;
+            });
+            deadlines.setRemoveOnCancelPolicy(true);
+            if (totalTimeout != null && !totalTimeout.isZero()) {
+                // First in the chain, so the deadline also covers the retries and redirects of the exchange.
+                httpClientBuilder.addExecInterceptorFirst("deadline", (request, scope, chain) ->
+                    executeWithDeadline(request, scope, chain, deadlines, totalTimeout)
+                );
+            }
+            return new DeadlineRequestFactory(httpClientBuilder.build(), deadlines);
+        }
+
+        private static ClassicHttpResponse executeWithDeadline(
+            ClassicHttpRequest request,
+            ExecChain.Scope scope,
+            ExecChain chain,
+            ScheduledExecutorService deadlines,
+            Duration totalTimeout
+        ) throws IOException, HttpException {
+            if (!(scope.originalRequest instanceof Cancellable exchange)) {
+                return chain.proceed(request, scope);
+            }
+            ScheduledFuture<?> deadline = deadlines.schedule(exchange::cancel, totalTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            try {
+                ClassicHttpResponse response = chain.proceed(request, scope);
+                HttpEntity entity = response.getEntity();
+                if (entity == null) {
+                    deadline.cancel(false);
+                } else {
+                    // The body is read after the chain returns: the exchange ends when the response, and so its entity, is closed.
+                    response.setEntity(
+                        new HttpEntityWrapper(entity) {
+                            @Override
+                            public void close() throws IOException {
+                                try {
+                                    super.close();
+                                } finally {
+                                    deadline.cancel(false);
+                                }
+                            }
+                        }
+                    );
+                }
+                return response;
+            } catch (IOException | HttpException | RuntimeException e) {
+                deadline.cancel(false);
+                throw e;
+            }
+        }
+
+        @Override
+        public void destroy() throws Exception {
+            deadlines.shutdownNow();
+            super.destroy();
+        }
     }
 }
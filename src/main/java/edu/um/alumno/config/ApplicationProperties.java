@@ -1,6 +1,11 @@
 package edu.um.alumno.config;
 
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Techmarket.
@@ -13,12 +18,66 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Sync sync = new Sync();
+
+    private final Catedra catedra = new Catedra();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Stats stats = new Stats();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final Batch batch = new Batch();
+
+    private final Export export = new Export();
+
+    private final Cache cache = new Cache();
+
+    private final Metrics metrics = new Metrics();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Sync getSync() {
+        return sync;
+    }
+
+    public Catedra getCatedra() {
+        return catedra;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +92,584 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Sync {
+
+        /**
+         * Whether the catalog sync runs on a schedule. It can still be triggered through the management endpoint.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between the end of a sync and the start of the next one.
+         */
+        private Duration interval = Duration.ofMinutes(15);
+
+        /**
+         * Maximum random delay added to every interval, so several instances do not poll the cátedra at the same time.
+         */
+        private Duration jitter = Duration.ofSeconds(30);
+
+        /**
+         * Delay between application startup and the first sync.
+         */
+        private Duration initialDelay = Duration.ofSeconds(5);
+
+        /**
+         * Number of devices read from the remote catalog before they are handed to the persistence stage.
+         */
+        private int chunkSize = 200;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Duration getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(Duration jitter) {
+            this.jitter = jitter;
+        }
+
+        public Duration getInitialDelay() {
+            return initialDelay;
+        }
+
+        public void setInitialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Catedra {
+
+        /**
+         * Maximum time to establish a TCP connection to the cátedra.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Maximum time without receiving data once the request is sent.
+         */
+        private Duration readTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Maximum wall-clock time of a whole exchange, body included. Only enforced by the pooled HTTP/1.1 client.
+         */
+        private Duration totalTimeout = Duration.ofMinutes(2);
+
+        /**
+         * Maximum time to wait for a free connection when the pool is exhausted.
+         */
+        private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Maximum number of pooled connections.
+         */
+        private int maxConnections = 50;
+
+        /**
+         * Maximum number of pooled connections to a single host.
+         */
+        private int maxConnectionsPerRoute = 20;
+
+        /**
+         * How long an idle connection is kept in the pool.
+         */
+        private Duration keepAlive = Duration.ofSeconds(30);
+
+        /**
+         * Whether to use the JDK client with HTTP/2 instead of the pooled HTTP/1.1 client.
+         */
+        private boolean http2 = false;
+
+        /**
+         * Maximum number of sales looked up by id kept in memory. Sales never change once confirmed, so they do not expire.
+         */
+        private int ventaCacheSize = 10000;
+
+        /**
+         * How long the list of all the sales is reused before it is read again.
+         */
+        private Duration ventasTtl = Duration.ofSeconds(10);
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getTotalTimeout() {
+            return totalTimeout;
+        }
+
+        public void setTotalTimeout(Duration totalTimeout) {
+            this.totalTimeout = totalTimeout;
+        }
+
+        public Duration getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+
+        public int getVentaCacheSize() {
+            return ventaCacheSize;
+        }
+
+        public void setVentaCacheSize(int ventaCacheSize) {
+            this.ventaCacheSize = ventaCacheSize;
+        }
+
+        public Duration getVentasTtl() {
+            return ventasTtl;
+        }
+
+        public void setVentasTtl(Duration ventasTtl) {
+            this.ventasTtl = ventasTtl;
+        }
+    }
+
+    public static class Outbox {
+
+        /**
+         * Whether this instance polls the outbox for due sales. The sales it accepts are still handed to its workers.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of workers forwarding accepted sales to the cátedra.
+         */
+        private int workers = 4;
+
+        /**
+         * Sales waiting for a free worker. When full, new sales are left to the next poll of the outbox.
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * Delay between two polls of the outbox for due sales.
+         */
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        /**
+         * Maximum number of due sales read by one poll.
+         */
+        private int batchSize = 50;
+
+        /**
+         * How long a worker owns a sale it is sending. After that, another worker may retry it. It must be longer than
+         * the time a worker can spend on one sale, see {@link Catedra#getTotalTimeout()}.
+         */
+        private Duration lease = Duration.ofMinutes(5);
+
+        /**
+         * Attempts before a sale is marked as failed.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Delay before the first retry, doubled on each following one.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(2);
+
+        /**
+         * Upper bound of the delay between two retries.
+         */
+        private Duration maxBackoff = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    public static class Stats {
+
+        /**
+         * Time zone of the days and months of the sales rollups. Rebuild the rollups after changing it.
+         */
+        private ZoneId zone = ZoneId.of("America/Argentina/Mendoza");
+
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        public void setZone(ZoneId zone) {
+            this.zone = zone;
+        }
+    }
+
+    public static class Idempotency {
+
+        /**
+         * How long an {@code Idempotency-Key} is remembered after its first use.
+         */
+        private Duration ttl = Duration.ofHours(24);
+
+        /**
+         * How long a key stays owned by an attempt that has not completed, before a retry may take it over.
+         * Must be longer than the slowest call to the cátedra.
+         */
+        private Duration lease = Duration.ofMinutes(5);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+    }
+
+    public static class Batch {
+
+        /**
+         * Maximum number of sales accepted by one request to {@code POST /api/ventas/vender/batch}, and of configurations
+         * quoted by one request to {@code POST /api/dispositivos/cotizar}.
+         */
+        private int maxSize = 500;
+
+        /**
+         * Number of sales of the batches sent to the cátedra at the same time, shared by all the batches. Keep it below
+         * {@link Catedra#getMaxConnectionsPerRoute()}, so single sales still get a connection.
+         */
+        private int parallelism = 10;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class Export {
+
+        /**
+         * How long {@code GET /api/ventas/export} may stream before the request times out. The other async requests keep
+         * the default timeout of the servlet container.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Root directory of the persistent disk tiers. It is wiped when the application build changes, since entries are
+         * stored with Java serialization. It can only be used by one instance at a time. If it cannot be written, the
+         * regions start without their disk tiers.
+         */
+        private String persistenceDirectory;
+
+        /**
+         * Policies of the Ehcache regions, by cache name. Regions not listed here are heap only, with the size and
+         * time-to-live of {@code jhipster.cache.ehcache}.
+         */
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        private final Warmup warmup = new Warmup();
+
+        public String getPersistenceDirectory() {
+            return persistenceDirectory;
+        }
+
+        public void setPersistenceDirectory(String persistenceDirectory) {
+            this.persistenceDirectory = persistenceDirectory;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public Warmup getWarmup() {
+            return warmup;
+        }
+
+        public static class Warmup {
+
+            /**
+             * Whether the catalog regions are loaded at startup, before the instance reports ready.
+             */
+            private boolean enabled = true;
+
+            /**
+             * How long the readiness probe waits for the warmup. Past it, the instance reports ready and the warmup goes on.
+             */
+            private Duration timeout = Duration.ofMinutes(2);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(Duration timeout) {
+                this.timeout = timeout;
+            }
+        }
+
+        public static class Region {
+
+            /**
+             * Entries kept on the Java heap. Defaults to {@code jhipster.cache.ehcache.max-entries}.
+             */
+            private Long heapEntries;
+
+            /**
+             * Size of the off-heap tier, outside the Java heap and the garbage collector. It counts against
+             * {@code -XX:MaxDirectMemorySize}.
+             */
+            private DataSize offHeapSize;
+
+            /**
+             * Size of the disk tier, under {@link Cache#getPersistenceDirectory()}. Must be larger than the off-heap tier.
+             */
+            private DataSize diskSize;
+
+            /**
+             * Whether the disk tier survives restarts.
+             */
+            private boolean diskPersistent = true;
+
+            /**
+             * How long an entry lives after it is written, {@code 0} for ever. Defaults to
+             * {@code jhipster.cache.ehcache.time-to-live-seconds} unless a time-to-idle is set.
+             */
+            private Duration timeToLive;
+
+            /**
+             * How long an entry lives after it is last read, instead of a time-to-live. A region cannot set both.
+             */
+            private Duration timeToIdle;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public DataSize getDiskSize() {
+                return diskSize;
+            }
+
+            public void setDiskSize(DataSize diskSize) {
+                this.diskSize = diskSize;
+            }
+
+            public boolean isDiskPersistent() {
+                return diskPersistent;
+            }
+
+            public void setDiskPersistent(boolean diskPersistent) {
+                this.diskPersistent = diskPersistent;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getTimeToIdle() {
+                return timeToIdle;
+            }
+
+            public void setTimeToIdle(Duration timeToIdle) {
+                this.timeToIdle = timeToIdle;
+            }
+        }
+    }
+
+    public static class Metrics {
+
+        /**
+         * Whether Hibernate collects its statistics, exported as the {@code hibernate_*} meters: sessions, transactions,
+         * queries, statements and second-level cache regions. Collecting them costs a few counter updates per operation.
+         */
+        private boolean hibernateStatistics = false;
+
+        public boolean isHibernateStatistics() {
+            return hibernateStatistics;
+        }
+
+        public void setHibernateStatistics(boolean hibernateStatistics) {
+            this.hibernateStatistics = hibernateStatistics;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -1,9 +1,31 @@
 package edu.um.alumno.config;
 
+import edu.um.alumno.management.EhcacheStatistics;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.spi.serialization.Serializer;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
@@ -12,6 +34,7 @@ import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.*;
+import org.springframework.util.FileSystemUtils;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
@@ -19,12 +42,33 @@ import tech.jhipster.config.cache.PrefixedKeyGenerator;
 @EnableCaching
 public class CacheConfiguration {
 
+    private static final Logger LOG = LoggerFactory.getLogger(CacheConfiguration.class);
+
+    // Entries of the off-heap and disk tiers are stored as bytes; cached entities and DTOs are Serializable.
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static final Class<? extends Serializer<Object>> SERIALIZER = (Class) PlainJavaSerializer.class;
+
+    private static final String BUILD_MARKER = "BUILD";
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    private final javax.cache.configuration.Configuration<Object, Object> ventaCatedraConfiguration;
+
+    private final Map<String, javax.cache.configuration.Configuration<Object, Object>> regionConfigurations = new HashMap<>();
+
+    private final ApplicationProperties.Cache cacheProperties;
+
+    private final JHipsterProperties.Cache.Ehcache ehcacheDefaults;
+
+    private final boolean persistent;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+        this.ehcacheDefaults = ehcache;
+        this.persistent = cacheProperties.getRegions().values().stream().anyMatch(region -> region.getDiskSize() != null);
 
         jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
             CacheConfigurationBuilder.newCacheConfigurationBuilder(
@@ -35,6 +79,119 @@ public class CacheConfiguration {
                 .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
                 .build()
         );
+
+        // Sales confirmed by the cátedra never change: bounded by size only.
+        ventaCatedraConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                Object.class,
+                Object.class,
+                ResourcePoolsBuilder.heap(applicationProperties.getCatedra().getVentaCacheSize())
+            )
+                .withExpiry(ExpiryPolicyBuilder.noExpiration())
+                .build()
+        );
+    }
+
+    private javax.cache.configuration.Configuration<Object, Object> regionConfiguration(
+        String name,
+        ApplicationProperties.Cache.Region region,
+        boolean disk
+    ) {
+        ResourcePoolsBuilder pools = ResourcePoolsBuilder.heap(
+            region.getHeapEntries() != null ? region.getHeapEntries() : ehcacheDefaults.getMaxEntries()
+        );
+        if (region.getOffHeapSize() != null) {
+            pools = pools.offheap(region.getOffHeapSize().toBytes(), MemoryUnit.B);
+        }
+        if (disk && region.getDiskSize() != null) {
+            pools = pools.disk(region.getDiskSize().toBytes(), MemoryUnit.B, region.isDiskPersistent());
+        }
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(
+            Object.class,
+            Object.class,
+            pools
+        ).withExpiry(expiry(name, region, ehcacheDefaults));
+        if (region.getOffHeapSize() != null || (disk && region.getDiskSize() != null)) {
+            builder = builder.withKeySerializer(SERIALIZER).withValueSerializer(SERIALIZER);
+        }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder.build());
+    }
+
+    // Ehcache does not tell the expiry policy when an entry was created, so a time-to-idle cannot be capped by a
+    // time-to-live: a region sets one or the other.
+    private static ExpiryPolicy<Object, Object> expiry(
+        String name,
+        ApplicationProperties.Cache.Region region,
+        JHipsterProperties.Cache.Ehcache defaults
+    ) {
+        if (region.getTimeToIdle() != null && region.getTimeToLive() != null) {
+            throw new IllegalStateException(
+                "application.cache.regions." + name + " sets both time-to-live and time-to-idle, only one of them is supported"
+            );
+        }
+        if (region.getTimeToIdle() != null) {
+            return ExpiryPolicyBuilder.timeToIdleExpiration(region.getTimeToIdle());
+        }
+        Duration timeToLive = region.getTimeToLive() != null ? region.getTimeToLive() : Duration.ofSeconds(defaults.getTimeToLiveSeconds());
+        return timeToLive.isZero() ? ExpiryPolicyBuilder.noExpiration() : ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive);
+    }
+
+    /**
+     * The statistics of the Ehcache manager, read by the cache meters.
+     */
+    @Bean
+    public EhcacheStatistics ehcacheStatistics() {
+        return new EhcacheStatistics();
+    }
+
+    /**
+     * The JCache manager, built here instead of by Spring Boot so it can hold the persistent disk tiers.
+     */
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager jCacheCacheManager(
+        ObjectProvider<JCacheManagerCustomizer> customizers,
+        EhcacheStatistics ehcacheStatistics
+    ) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        ClassLoader classLoader = CacheConfiguration.class.getClassLoader();
+        File directory = persistent ? persistenceDirectory() : null;
+        boolean disk = directory != null;
+        cacheProperties.getRegions().forEach((name, region) -> regionConfigurations.put(name, regionConfiguration(name, region, disk)));
+        DefaultConfiguration configuration = directory != null
+            ? new DefaultConfiguration(classLoader, ehcacheStatistics.configuration(), new DefaultPersistenceConfiguration(directory))
+            : new DefaultConfiguration(classLoader, ehcacheStatistics.configuration());
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), configuration);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+
+        Set<String> unknown = new HashSet<>(regionConfigurations.keySet());
+        cacheManager.getCacheNames().forEach(unknown::remove);
+        if (!unknown.isEmpty()) {
+            LOG.warn("application.cache.regions configures caches that do not exist: {}", unknown);
+        }
+        return cacheManager;
+    }
+
+    // The disk tiers are kept only while the build that wrote them is running, since the serialized classes may change.
+    // A directory that cannot be written only costs the disk tiers: the caches still start with their other tiers.
+    private File persistenceDirectory() {
+        if (cacheProperties.getPersistenceDirectory() == null) {
+            throw new IllegalStateException("application.cache.persistence-directory is required by the disk tiers");
+        }
+        Path directory = Path.of(cacheProperties.getPersistenceDirectory());
+        Path marker = directory.resolve(BUILD_MARKER);
+        String build = buildProperties != null ? buildProperties.getVersion() + "@" + buildProperties.getTime() : "unknown";
+        try {
+            if (Files.exists(directory) && !(Files.exists(marker) && Files.readString(marker, StandardCharsets.UTF_8).equals(build))) {
+                LOG.info("Cache directory {} was written by another build, wiping it", directory);
+                FileSystemUtils.deleteRecursively(directory);
+            }
+            Files.createDirectories(directory);
+            Files.writeString(marker, build, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.warn("Cannot write the cache directory {}, the caches start without their disk tiers", directory, e);
+            return null;
+        }
+        return directory.toFile();
     }
 
     @Bean
@@ -61,17 +218,33 @@ public class CacheConfiguration {
             createCache(cm, edu.um.alumno.domain.Personalizacion.class.getName());
             createCache(cm, edu.um.alumno.domain.Personalizacion.class.getName() + ".opciones");
             createCache(cm, edu.um.alumno.domain.Venta.class.getName());
+            createCache(cm, edu.um.alumno.repository.VentaRepository.RECENT_VENTAS_BY_USER_CACHE);
+            createCache(cm, edu.um.alumno.service.VentaCatedraService.VENTA_CATEDRA_CACHE, ventaCatedraConfiguration);
+            createCache(cm, edu.um.alumno.repository.VentaIdempotenciaRepository.VENTA_IDEMPOTENCIA_CACHE);
+            createCache(cm, edu.um.alumno.repository.DispositivoRepository.DISPOSITIVO_QUERIES_CACHE);
+            createCache(cm, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+            createCache(cm, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME);
             // jhipster-needle-ehcache-add-entry
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration);
+    }
+
+    private void createCache(
+        javax.cache.CacheManager cm,
+        String cacheName,
+        javax.cache.configuration.Configuration<Object, Object> configuration
+    ) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, regionConfigurations.getOrDefault(cacheName, configuration));
         }
+        // Read by the cache meters, see CacheRegionMeterBinder.
+        cm.enableStatistics(cacheName, true);
     }
 
     @Autowired(required = false)
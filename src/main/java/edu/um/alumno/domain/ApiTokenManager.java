@@ -1,10 +1,14 @@
 package edu.um.alumno.domain;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Optional;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -33,12 +37,24 @@ public class ApiTokenManager {
         }
     }
 
+    // Escribe el token en un archivo temporal y lo renombra, así un lector nunca ve un archivo a medio escribir.
     public void saveToken(ApiToken apiToken) {
         JSONObject jsonObject = new JSONObject();
         jsonObject.put("token", apiToken.getToken());
 
-        try (FileWriter file = new FileWriter(TOKEN_FILE)) {
-            file.write(jsonObject.toString());
+        Path target = Paths.get(TOKEN_FILE).toAbsolutePath();
+        try {
+            Path temp = Files.createTempFile(target.getParent(), TOKEN_FILE, ".tmp");
+            try {
+                Files.writeString(temp, jsonObject.toString(), StandardCharsets.UTF_8);
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
         } catch (IOException e) {
             throw new RuntimeException("Failed to save token", e);
         }
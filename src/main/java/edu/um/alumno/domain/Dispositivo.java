@@ -46,6 +46,9 @@ public class Dispositivo implements Serializable {
     @Column(name = "moneda", nullable = false)
     private String moneda;
 
+    @Column(name = "fingerprint")
+    private Long fingerprint;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "dispositivo", cascade = CascadeType.ALL)
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "dispositivo" }, allowSetters = true)
@@ -146,6 +149,19 @@ public class Dispositivo implements Serializable {
         this.moneda = moneda;
     }
 
+    public Long getFingerprint() {
+        return this.fingerprint;
+    }
+
+    public Dispositivo fingerprint(Long fingerprint) {
+        this.setFingerprint(fingerprint);
+        return this;
+    }
+
+    public void setFingerprint(Long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
     public Set<Caracteristica> getCaracteristicas() {
         return this.caracteristicas;
     }
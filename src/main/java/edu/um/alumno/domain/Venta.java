@@ -31,6 +31,9 @@ public class Venta implements Serializable {
     @Column(name = "precio_final", precision = 21, scale = 2)
     private BigDecimal precioFinal;
 
+    @Column(name = "dispositivo_id")
+    private Long dispositivoId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
@@ -75,6 +78,19 @@ public class Venta implements Serializable {
         this.precioFinal = precioFinal;
     }
 
+    public Long getDispositivoId() {
+        return this.dispositivoId;
+    }
+
+    public Venta dispositivoId(Long dispositivoId) {
+        this.setDispositivoId(dispositivoId);
+        return this;
+    }
+
+    public void setDispositivoId(Long dispositivoId) {
+        this.dispositivoId = dispositivoId;
+    }
+
     public User getUser() {
         return this.user;
     }
@@ -114,6 +130,7 @@ public class Venta implements Serializable {
             "id=" + getId() +
             ", fechaVenta='" + getFechaVenta() + "'" +
             ", precioFinal=" + getPrecioFinal() +
+            ", dispositivoId=" + getDispositivoId() +
             "}";
     }
 }
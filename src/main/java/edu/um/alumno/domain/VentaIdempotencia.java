@@ -0,0 +1,152 @@
+package edu.um.alumno.domain;
+
+import edu.um.alumno.domain.enumeration.EstadoVentaIdempotencia;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * The {@code Idempotency-Key} of a sale submitted to the cátedra.
+ * <p>
+ * An {@code IN_PROGRESS} key is owned by the attempt that created it until {@code actualizado} is older than
+ * {@code application.idempotency.lease}; a {@code COMPLETED} key holds the sale it created, returned to every retry; an
+ * {@code UNKNOWN} key holds the error of an attempt that may have sold through the cátedra, returned to every retry.
+ */
+@Entity
+@Table(name = "venta_idempotencia")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class VentaIdempotencia implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Size(max = 128)
+    @Column(name = "clave", length = 128, nullable = false, unique = true)
+    private String clave;
+
+    @NotNull
+    @Size(max = 64)
+    @Column(name = "hash", length = 64, nullable = false)
+    private String hash;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", length = 16, nullable = false)
+    private EstadoVentaIdempotencia estado;
+
+    @Column(name = "venta_id")
+    private Long ventaId;
+
+    @Size(max = 1024)
+    @Column(name = "error", length = 1024)
+    private String error;
+
+    @NotNull
+    @Column(name = "creado", nullable = false)
+    private Instant creado;
+
+    @NotNull
+    @Column(name = "actualizado", nullable = false)
+    private Instant actualizado;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getClave() {
+        return this.clave;
+    }
+
+    public void setClave(String clave) {
+        this.clave = clave;
+    }
+
+    public String getHash() {
+        return this.hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public EstadoVentaIdempotencia getEstado() {
+        return this.estado;
+    }
+
+    public void setEstado(EstadoVentaIdempotencia estado) {
+        this.estado = estado;
+    }
+
+    public Long getVentaId() {
+        return this.ventaId;
+    }
+
+    public void setVentaId(Long ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public String getError() {
+        return this.error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getCreado() {
+        return this.creado;
+    }
+
+    public void setCreado(Instant creado) {
+        this.creado = creado;
+    }
+
+    public Instant getActualizado() {
+        return this.actualizado;
+    }
+
+    public void setActualizado(Instant actualizado) {
+        this.actualizado = actualizado;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VentaIdempotencia)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((VentaIdempotencia) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaIdempotencia{" +
+            "id=" + getId() +
+            ", clave='" + getClave() + "'" +
+            ", estado='" + getEstado() + "'" +
+            ", ventaId=" + getVentaId() +
+            ", error='" + getError() + "'" +
+            ", creado='" + getCreado() + "'" +
+            ", actualizado='" + getActualizado() + "'" +
+            "}";
+    }
+}
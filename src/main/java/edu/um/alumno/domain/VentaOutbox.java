@@ -0,0 +1,168 @@
+package edu.um.alumno.domain;
+
+import edu.um.alumno.domain.enumeration.EstadoVentaOutbox;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A sale accepted locally and waiting to be forwarded to the cátedra backend.
+ * <p>
+ * {@code proximoIntento} is both the time of the next attempt and the lease of the worker sending it: a worker claims
+ * a due entry by moving it forward, so an entry whose worker died is retried once the lease expires.
+ */
+@Entity
+@Table(name = "venta_outbox")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class VentaOutbox implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", length = 16, nullable = false)
+    private EstadoVentaOutbox estado;
+
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "intentos", nullable = false)
+    private int intentos;
+
+    @NotNull
+    @Column(name = "proximo_intento", nullable = false)
+    private Instant proximoIntento;
+
+    @Size(max = 1024)
+    @Column(name = "ultimo_error", length = 1024)
+    private String ultimoError;
+
+    @Column(name = "venta_id")
+    private Long ventaId;
+
+    @NotNull
+    @Column(name = "creado", nullable = false)
+    private Instant creado;
+
+    @Column(name = "actualizado")
+    private Instant actualizado;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private User user;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public EstadoVentaOutbox getEstado() {
+        return this.estado;
+    }
+
+    public void setEstado(EstadoVentaOutbox estado) {
+        this.estado = estado;
+    }
+
+    public String getPayload() {
+        return this.payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public int getIntentos() {
+        return this.intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+
+    public Instant getProximoIntento() {
+        return this.proximoIntento;
+    }
+
+    public void setProximoIntento(Instant proximoIntento) {
+        this.proximoIntento = proximoIntento;
+    }
+
+    public String getUltimoError() {
+        return this.ultimoError;
+    }
+
+    public void setUltimoError(String ultimoError) {
+        this.ultimoError = ultimoError;
+    }
+
+    public Long getVentaId() {
+        return this.ventaId;
+    }
+
+    public void setVentaId(Long ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public Instant getCreado() {
+        return this.creado;
+    }
+
+    public void setCreado(Instant creado) {
+        this.creado = creado;
+    }
+
+    public Instant getActualizado() {
+        return this.actualizado;
+    }
+
+    public void setActualizado(Instant actualizado) {
+        this.actualizado = actualizado;
+    }
+
+    public User getUser() {
+        return this.user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VentaOutbox)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((VentaOutbox) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaOutbox{" +
+            "id=" + getId() +
+            ", estado='" + getEstado() + "'" +
+            ", intentos=" + getIntentos() +
+            ", proximoIntento='" + getProximoIntento() + "'" +
+            ", ventaId=" + getVentaId() +
+            "}";
+    }
+}
@@ -0,0 +1,10 @@
+package edu.um.alumno.domain.enumeration;
+
+/**
+ * The EstadoVentaIdempotencia enumeration.
+ */
+public enum EstadoVentaIdempotencia {
+    IN_PROGRESS,
+    COMPLETED,
+    UNKNOWN,
+}
@@ -0,0 +1,10 @@
+package edu.um.alumno.domain.enumeration;
+
+/**
+ * The EstadoVentaOutbox enumeration.
+ */
+public enum EstadoVentaOutbox {
+    PENDING,
+    CONFIRMED,
+    FAILED,
+}
@@ -0,0 +1,9 @@
+package edu.um.alumno.domain.enumeration;
+
+/**
+ * The Granularidad enumeration, the length of the periods of the sales rollups.
+ */
+public enum Granularidad {
+    DIA,
+    MES,
+}
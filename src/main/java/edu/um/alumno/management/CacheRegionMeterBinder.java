@@ -0,0 +1,118 @@
+package edu.um.alumno.management;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.ehcache.core.statistics.TierStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of every cache region that Spring Boot does not publish for JCache: the entries and bytes held by each tier, and
+ * the average time of gets and puts.
+ * <p>
+ * Hits, misses, puts, evictions and removals are published by Spring Boot as the {@code cache.*} meters, read from the
+ * JCache statistics enabled in {@code CacheConfiguration}. The tier statistics are read from the statistics service of
+ * the Ehcache manager, see {@link EhcacheStatistics}, without adding any work to cache operations.
+ */
+@Component
+public class CacheRegionMeterBinder implements MeterBinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheRegionMeterBinder.class);
+
+    private static final String METRIC_PREFIX = "techmarket.cache.";
+
+    private static final String ON_HEAP_TIER = "OnHeap";
+
+    private final CacheManager cacheManager;
+
+    private final EhcacheStatistics ehcacheStatistics;
+
+    public CacheRegionMeterBinder(CacheManager cacheManager, EhcacheStatistics ehcacheStatistics) {
+        this.cacheManager = cacheManager;
+        this.ehcacheStatistics = ehcacheStatistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache<Object, Object> cache = cacheManager.getCache(name);
+            if (cache == null) {
+                continue;
+            }
+            bindTiers(registry, name);
+
+            ObjectName objectName = statisticsObjectName(name);
+            if (objectName == null || !server.isRegistered(objectName)) {
+                LOG.debug("Statistics of cache {} are not enabled, its latency is not measured", name);
+                continue;
+            }
+            CacheStatisticsMXBean statistics = JMX.newMXBeanProxy(server, objectName, CacheStatisticsMXBean.class);
+            TimeGauge.builder(METRIC_PREFIX + "gets.latency", statistics, TimeUnit.MICROSECONDS, CacheStatisticsMXBean::getAverageGetTime)
+                .description("Average time of the gets of the cache")
+                .tag("cache", name)
+                .strongReference(true)
+                .register(registry);
+            TimeGauge.builder(METRIC_PREFIX + "puts.latency", statistics, TimeUnit.MICROSECONDS, CacheStatisticsMXBean::getAveragePutTime)
+                .description("Average time of the puts of the cache")
+                .tag("cache", name)
+                .strongReference(true)
+                .register(registry);
+        }
+    }
+
+    private void bindTiers(MeterRegistry registry, String name) {
+        Map<String, TierStatistics> tiers;
+        try {
+            tiers = ehcacheStatistics.getCacheStatistics(name).getTierStatistics();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            LOG.debug("Cache {} is not known to the Ehcache statistics, its tiers are not measured", name);
+            return;
+        }
+        tiers.forEach((tier, statistics) -> {
+            Gauge.builder(METRIC_PREFIX + "entries", statistics, TierStatistics::getMappings)
+                .description("Entries held by a tier of the cache")
+                .tags("cache", name, "tier", tier)
+                .strongReference(true)
+                .register(registry);
+            // The heap tier is sized by entries: its bytes are not tracked.
+            if (!ON_HEAP_TIER.equals(tier)) {
+                Gauge.builder(METRIC_PREFIX + "occupied", statistics, TierStatistics::getOccupiedByteSize)
+                    .description("Bytes used by a tier of the cache")
+                    .baseUnit("bytes")
+                    .tags("cache", name, "tier", tier)
+                    .strongReference(true)
+                    .register(registry);
+            }
+        });
+    }
+
+    // Same name as the one registered by Ehcache for the JCache statistics of the cache.
+    private ObjectName statisticsObjectName(String name) {
+        try {
+            return new ObjectName(
+                "javax.cache:type=CacheStatistics,CacheManager=" + sanitize(cacheManager.getURI().toString()) + ",Cache=" + sanitize(name)
+            );
+        } catch (MalformedObjectNameException e) {
+            LOG.warn("Cannot measure the latency of cache {}: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll(",|:|=|\n", ".");
+    }
+}
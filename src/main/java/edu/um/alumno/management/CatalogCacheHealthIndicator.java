@@ -0,0 +1,34 @@
+package edu.um.alumno.management;
+
+import edu.um.alumno.service.CatalogCacheWarmer;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the instance out of service while {@link CatalogCacheWarmer} loads the catalog, exposed as
+ * {@code catalogCache} in the readiness group of {@code /management/health/readiness}.
+ */
+@Component
+public class CatalogCacheHealthIndicator implements HealthIndicator {
+
+    private final CatalogCacheWarmer catalogCacheWarmer;
+
+    public CatalogCacheHealthIndicator(CatalogCacheWarmer catalogCacheWarmer) {
+        this.catalogCacheWarmer = catalogCacheWarmer;
+    }
+
+    @Override
+    public Health health() {
+        CatalogCacheWarmer.Estado estado = catalogCacheWarmer.getEstado();
+        Health.Builder health = switch (estado) {
+            case PENDING, WARMING -> Health.outOfService();
+            case DONE, TIMED_OUT, FAILED, DISABLED -> Health.up();
+        };
+        health.withDetail("warmup", estado);
+        if (catalogCacheWarmer.getDurationMs() >= 0) {
+            health.withDetail("entries", catalogCacheWarmer.getEntries()).withDetail("durationMs", catalogCacheWarmer.getDurationMs());
+        }
+        return health.build();
+    }
+}
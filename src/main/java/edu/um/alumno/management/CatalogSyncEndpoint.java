@@ -0,0 +1,39 @@
+package edu.um.alumno.management;
+
+import edu.um.alumno.service.CatalogSyncScheduler;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint to inspect and manually trigger the catalog sync, exposed at {@code /management/catalogsync}.
+ */
+@Component
+@Endpoint(id = "catalogsync")
+public class CatalogSyncEndpoint {
+
+    private final CatalogSyncScheduler catalogSyncScheduler;
+
+    public CatalogSyncEndpoint(CatalogSyncScheduler catalogSyncScheduler) {
+        this.catalogSyncScheduler = catalogSyncScheduler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", catalogSyncScheduler.isRunning());
+        status.put("lastSuccess", catalogSyncScheduler.getLastSuccess());
+        status.put("nextRun", catalogSyncScheduler.getNextRun());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> trigger() {
+        Map<String, Object> result = status();
+        result.put("triggered", catalogSyncScheduler.triggerNow());
+        return result;
+    }
+}
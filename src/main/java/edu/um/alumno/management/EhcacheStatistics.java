@@ -0,0 +1,88 @@
+package edu.um.alumno.management;
+
+import org.ehcache.core.spi.service.ServiceFactory;
+import org.ehcache.core.spi.service.StatisticsService;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.spi.service.Service;
+import org.ehcache.spi.service.ServiceCreationConfiguration;
+import org.ehcache.spi.service.ServiceDependencies;
+import org.ehcache.spi.service.ServiceProvider;
+
+/**
+ * Gives access to the {@link StatisticsService} of the Ehcache manager behind JCache, which the JCache API does not
+ * expose.
+ * <p>
+ * It is an Ehcache service itself: {@link #configuration()} is passed to the manager, which creates it through
+ * {@link Factory} and hands it the statistics service when it starts.
+ */
+@ServiceDependencies(StatisticsService.class)
+public class EhcacheStatistics implements Service {
+
+    private volatile StatisticsService statisticsService;
+
+    /**
+     * The configuration to create the cache manager with, so this service is started by it.
+     */
+    public ServiceCreationConfiguration<EhcacheStatistics, Void> configuration() {
+        return new Configuration(this);
+    }
+
+    /**
+     * Get the statistics of a cache, including those of each of its tiers.
+     *
+     * @param cacheName the name of the cache.
+     * @return the statistics.
+     * @throws IllegalArgumentException if the cache does not exist.
+     * @throws IllegalStateException if the cache manager is not running.
+     */
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        StatisticsService current = statisticsService;
+        if (current == null) {
+            throw new IllegalStateException("The cache manager is not running");
+        }
+        return current.getCacheStatistics(cacheName);
+    }
+
+    @Override
+    public void start(ServiceProvider<Service> serviceProvider) {
+        statisticsService = serviceProvider.getService(StatisticsService.class);
+    }
+
+    @Override
+    public void stop() {
+        statisticsService = null;
+    }
+
+    private static final class Configuration implements ServiceCreationConfiguration<EhcacheStatistics, Void> {
+
+        private final EhcacheStatistics service;
+
+        private Configuration(EhcacheStatistics service) {
+            this.service = service;
+        }
+
+        @Override
+        public Class<EhcacheStatistics> getServiceType() {
+            return EhcacheStatistics.class;
+        }
+    }
+
+    /**
+     * Registered in {@code META-INF/services}: returns the instance of the configuration instead of a new one.
+     */
+    public static class Factory implements ServiceFactory<EhcacheStatistics> {
+
+        @Override
+        public EhcacheStatistics create(ServiceCreationConfiguration<EhcacheStatistics, ?> configuration) {
+            if (!(configuration instanceof Configuration)) {
+                throw new IllegalArgumentException("EhcacheStatistics is created from EhcacheStatistics#configuration()");
+            }
+            return ((Configuration) configuration).service;
+        }
+
+        @Override
+        public Class<EhcacheStatistics> getServiceType() {
+            return EhcacheStatistics.class;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package edu.um.alumno.management;
+
+import edu.um.alumno.service.VentaResumenService;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint to inspect and rebuild the sales rollups from the sales history, exposed at
+ * {@code /management/ventaresumen}.
+ */
+@Component
+@Endpoint(id = "ventaresumen")
+public class VentaResumenEndpoint {
+
+    private final VentaResumenService ventaResumenService;
+
+    public VentaResumenEndpoint(VentaResumenService ventaResumenService) {
+        this.ventaResumenService = ventaResumenService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", ventaResumenService.isReconstruyendo());
+        status.put("lastRebuild", ventaResumenService.getUltimaReconstruccion());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        OptionalLong ventas = ventaResumenService.reconstruir();
+        Map<String, Object> result = status();
+        result.put("triggered", ventas.isPresent());
+        if (ventas.isPresent()) {
+            result.put("ventas", ventas.getAsLong());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,10 @@
+package edu.um.alumno.repository;
+
+/**
+ * A link between an {@link edu.um.alumno.domain.Adicional} and one of its {@link edu.um.alumno.domain.Dispositivo}s.
+ */
+public interface AdicionalDispositivo {
+    Long getAdicionalId();
+
+    Long getDispositivoId();
+}
@@ -0,0 +1,16 @@
+package edu.um.alumno.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the price of an {@link edu.um.alumno.domain.Adicional} offered with one device.
+ */
+public interface AdicionalPrecio {
+    Long getDispositivoId();
+
+    Long getId();
+
+    BigDecimal getPrecio();
+
+    BigDecimal getPrecioGratis();
+}
@@ -1,7 +1,15 @@
 package edu.um.alumno.repository;
 
 import edu.um.alumno.domain.Adicional;
+import edu.um.alumno.service.dto.AdicionalDTO;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +17,32 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AdicionalRepository extends JpaRepository<Adicional, Long> {}
+public interface AdicionalRepository extends JpaRepository<Adicional, Long> {
+    @Query(
+        "select dispositivo.id as dispositivoId, adicional.id as id, adicional.precio as precio, adicional.precioGratis as precioGratis " +
+        "from Dispositivo dispositivo join dispositivo.adicionales adicional"
+    )
+    List<AdicionalPrecio> findAllPrecios();
+
+    @Query(
+        value = "select new edu.um.alumno.service.dto.AdicionalDTO(adicional.id, adicional.nombre, adicional.descripcion, " +
+        "adicional.precio, adicional.precioGratis) from Adicional adicional",
+        countQuery = "select count(adicional) from Adicional adicional"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Page<AdicionalDTO> findAllAsDto(Pageable pageable);
+
+    @Query(
+        "select new edu.um.alumno.service.dto.AdicionalDTO(adicional.id, adicional.nombre, adicional.descripcion, adicional.precio, " +
+        "adicional.precioGratis) from Adicional adicional " +
+        "where adicional.id > :id order by adicional.id"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<AdicionalDTO> findAllAsDtoAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query(
+        "select adicional.id as adicionalId, dispositivo.id as dispositivoId " +
+        "from Dispositivo dispositivo join dispositivo.adicionales adicional where adicional.id in :ids"
+    )
+    List<AdicionalDispositivo> findAllDispositivoIds(@Param("ids") Collection<Long> ids);
+}
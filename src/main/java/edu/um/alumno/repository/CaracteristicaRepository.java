@@ -1,6 +1,10 @@
 package edu.um.alumno.repository;
 
 import edu.um.alumno.domain.Caracteristica;
+import edu.um.alumno.service.dto.CaracteristicaDTO;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +13,11 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CaracteristicaRepository extends JpaRepository<Caracteristica, Long> {}
+public interface CaracteristicaRepository extends JpaRepository<Caracteristica, Long> {
+    @Query(
+        "select new edu.um.alumno.service.dto.CaracteristicaDTO(caracteristica.id, caracteristica.nombre, " +
+        "caracteristica.descripcion, caracteristica.dispositivo.id) from Caracteristica caracteristica"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<CaracteristicaDTO> findAllAsDto();
+}
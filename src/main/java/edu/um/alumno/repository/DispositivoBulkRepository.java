@@ -0,0 +1,246 @@
+package edu.um.alumno.repository;
+
+import edu.um.alumno.service.dto.AdicionalDTO;
+import edu.um.alumno.service.dto.CaracteristicaDTO;
+import edu.um.alumno.service.dto.DispositivoBulkDeleteResultDTO;
+import edu.um.alumno.service.dto.DispositivoDTO;
+import edu.um.alumno.service.dto.OpcionDTO;
+import edu.um.alumno.service.dto.PersonalizacionDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Set-based JDBC writes for whole {@link edu.um.alumno.domain.Dispositivo} graphs, used by the catalog sync and the
+ * removal of devices.
+ * <p>
+ * Every statement is sent in JDBC batches of {@code hibernate.jdbc.batch_size} and relies on MySQL's
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE} (also understood by H2 in MySQL mode), so there is no select-before-insert
+ * for the assigned ids. These writes bypass Hibernate: callers must run them inside a transaction and evict the
+ * second-level cache for the affected devices.
+ */
+@Repository
+public class DispositivoBulkRepository {
+
+    private static final String UPSERT_DISPOSITIVO =
+        "insert into dispositivo (id, codigo, nombre, descripcion, precio_base, moneda, fingerprint) values (?, ?, ?, ?, ?, ?, ?) " +
+        "on duplicate key update codigo = values(codigo), nombre = values(nombre), descripcion = values(descripcion), " +
+        "precio_base = values(precio_base), moneda = values(moneda), fingerprint = values(fingerprint)";
+
+    private static final String UPSERT_CARACTERISTICA =
+        "insert into caracteristica (id, nombre, descripcion, dispositivo_id) values (?, ?, ?, ?) " +
+        "on duplicate key update nombre = values(nombre), descripcion = values(descripcion), dispositivo_id = values(dispositivo_id)";
+
+    private static final String UPSERT_PERSONALIZACION =
+        "insert into personalizacion (id, nombre, descripcion, dispositivo_id) values (?, ?, ?, ?) " +
+        "on duplicate key update nombre = values(nombre), descripcion = values(descripcion), dispositivo_id = values(dispositivo_id)";
+
+    private static final String UPSERT_OPCION =
+        "insert into opcion (id, codigo, nombre, descripcion, precio_adicional, personalizacion_id) values (?, ?, ?, ?, ?, ?) " +
+        "on duplicate key update codigo = values(codigo), nombre = values(nombre), descripcion = values(descripcion), " +
+        "precio_adicional = values(precio_adicional), personalizacion_id = values(personalizacion_id)";
+
+    private static final String UPSERT_ADICIONAL =
+        "insert into adicional (id, nombre, descripcion, precio, precio_gratis) values (?, ?, ?, ?, ?) " +
+        "on duplicate key update nombre = values(nombre), descripcion = values(descripcion), precio = values(precio), " +
+        "precio_gratis = values(precio_gratis)";
+
+    private static final String INSERT_DISPOSITIVO_ADICIONAL =
+        "insert into rel_dispositivo__adicionales (dispositivo_id, adicionales_id) values (?, ?)";
+
+    private static final String DELETE_OPCIONES =
+        "delete from opcion where personalizacion_id in (select id from personalizacion where dispositivo_id in (:ids))";
+    private static final String DELETE_PERSONALIZACIONES = "delete from personalizacion where dispositivo_id in (:ids)";
+    private static final String DELETE_CARACTERISTICAS = "delete from caracteristica where dispositivo_id in (:ids)";
+    private static final String DELETE_DISPOSITIVO_ADICIONALES = "delete from rel_dispositivo__adicionales where dispositivo_id in (:ids)";
+    private static final String DELETE_DISPOSITIVOS = "delete from dispositivo where id in (:ids)";
+
+    private static final String IDS_PARAMETER = "ids";
+
+    // Devices per delete statement: a few statements remove hundreds of devices, with IN lists of a reasonable size.
+    private static final int DELETE_CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final int batchSize;
+
+    public DispositivoBulkRepository(
+        JdbcTemplate jdbcTemplate,
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Insert or update the given devices with all their children, replacing the children they had before.
+     *
+     * @param dispositivos the devices to write with the fingerprint of their remote content, by id.
+     * @param existingIds the ids of the given devices that already exist locally.
+     */
+    public void upsertAll(Map<Long, Changed> dispositivos, Collection<Long> existingIds) {
+        if (dispositivos.isEmpty()) {
+            return;
+        }
+        deleteChildren(existingIds);
+
+        List<Object[]> dispositivoRows = new ArrayList<>(dispositivos.size());
+        List<Object[]> caracteristicaRows = new ArrayList<>();
+        List<Object[]> personalizacionRows = new ArrayList<>();
+        List<Object[]> opcionRows = new ArrayList<>();
+        Map<Long, Object[]> adicionalRows = new LinkedHashMap<>();
+        List<Object[]> dispositivoAdicionalRows = new ArrayList<>();
+
+        dispositivos.forEach((id, changed) -> {
+            DispositivoDTO dispositivo = changed.dispositivo;
+            dispositivoRows.add(
+                new Object[] {
+                    dispositivo.getId(),
+                    dispositivo.getCodigo(),
+                    dispositivo.getNombre(),
+                    dispositivo.getDescripcion(),
+                    dispositivo.getPrecioBase(),
+                    dispositivo.getMoneda(),
+                    changed.fingerprint,
+                }
+            );
+            for (CaracteristicaDTO caracteristica : orEmpty(dispositivo.getCaracteristicas())) {
+                caracteristicaRows.add(
+                    new Object[] { caracteristica.getId(), caracteristica.getNombre(), caracteristica.getDescripcion(), dispositivo.getId() }
+                );
+            }
+            for (PersonalizacionDTO personalizacion : orEmpty(dispositivo.getPersonalizaciones())) {
+                personalizacionRows.add(
+                    new Object[] { personalizacion.getId(), personalizacion.getNombre(), personalizacion.getDescripcion(), dispositivo.getId() }
+                );
+                for (OpcionDTO opcion : orEmpty(personalizacion.getOpciones())) {
+                    opcionRows.add(
+                        new Object[] {
+                            opcion.getId(),
+                            opcion.getCodigo(),
+                            opcion.getNombre(),
+                            opcion.getDescripcion(),
+                            opcion.getPrecioAdicional(),
+                            personalizacion.getId(),
+                        }
+                    );
+                }
+            }
+            for (AdicionalDTO adicional : orEmpty(dispositivo.getAdicionales())) {
+                adicionalRows.put(
+                    adicional.getId(),
+                    new Object[] { adicional.getId(), adicional.getNombre(), adicional.getDescripcion(), adicional.getPrecio(), adicional.getPrecioGratis() }
+                );
+                dispositivoAdicionalRows.add(new Object[] { dispositivo.getId(), adicional.getId() });
+            }
+        });
+
+        // Parents before children, so the foreign keys are satisfied at every statement.
+        batchUpdate(UPSERT_DISPOSITIVO, dispositivoRows);
+        batchUpdate(UPSERT_ADICIONAL, new ArrayList<>(adicionalRows.values()));
+        batchUpdate(UPSERT_CARACTERISTICA, caracteristicaRows);
+        batchUpdate(UPSERT_PERSONALIZACION, personalizacionRows);
+        batchUpdate(UPSERT_OPCION, opcionRows);
+        batchUpdate(INSERT_DISPOSITIVO_ADICIONAL, dispositivoAdicionalRows);
+    }
+
+    /**
+     * Delete the caracteristicas, personalizaciones, opciones and adicionales links of the given devices.
+     *
+     * @param dispositivoIds the ids of the devices.
+     * @return the number of rows deleted from each table.
+     */
+    public DispositivoBulkDeleteResultDTO deleteChildren(Collection<Long> dispositivoIds) {
+        return delete(dispositivoIds, false);
+    }
+
+    /**
+     * Delete the given devices with all their children, children first. The adicionales are shared between devices:
+     * only the links to them are deleted.
+     *
+     * @param dispositivoIds the ids of the devices; the ids that do not exist are ignored.
+     * @return the number of rows deleted from each table.
+     */
+    public DispositivoBulkDeleteResultDTO deleteAll(Collection<Long> dispositivoIds) {
+        return delete(dispositivoIds, true);
+    }
+
+    private DispositivoBulkDeleteResultDTO delete(Collection<Long> dispositivoIds, boolean withDispositivos) {
+        DispositivoBulkDeleteResultDTO result = new DispositivoBulkDeleteResultDTO();
+        for (List<Long> ids : chunks(dispositivoIds, DELETE_CHUNK_SIZE)) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource(IDS_PARAMETER, ids);
+            int opciones = namedParameterJdbcTemplate.update(DELETE_OPCIONES, parameters);
+            int personalizaciones = namedParameterJdbcTemplate.update(DELETE_PERSONALIZACIONES, parameters);
+            int caracteristicas = namedParameterJdbcTemplate.update(DELETE_CARACTERISTICAS, parameters);
+            int adicionales = namedParameterJdbcTemplate.update(DELETE_DISPOSITIVO_ADICIONALES, parameters);
+            int dispositivos = withDispositivos ? namedParameterJdbcTemplate.update(DELETE_DISPOSITIVOS, parameters) : 0;
+            result = result.add(
+                new DispositivoBulkDeleteResultDTO(dispositivos, caracteristicas, personalizaciones, opciones, adicionales)
+            );
+        }
+        return result;
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows, batchSize, (ps, row) -> {
+                for (int i = 0; i < row.length; i++) {
+                    ps.setObject(i + 1, row[i]);
+                }
+            });
+        }
+    }
+
+    private static List<List<Long>> chunks(Collection<Long> ids, int size) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += size) {
+            chunks.add(all.subList(from, Math.min(from + size, all.size())));
+        }
+        return chunks;
+    }
+
+    private static <T> Set<T> orEmpty(Set<T> set) {
+        return set != null ? set : Collections.emptySet();
+    }
+
+    /**
+     * A device to write, with the fingerprint of its remote content.
+     */
+    public static final class Changed {
+
+        private final DispositivoDTO dispositivo;
+
+        private final long fingerprint;
+
+        public Changed(DispositivoDTO dispositivo, long fingerprint) {
+            this.dispositivo = dispositivo;
+            this.fingerprint = fingerprint;
+        }
+
+        public DispositivoDTO getDispositivo() {
+            return dispositivo;
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package edu.um.alumno.repository;
+
+/**
+ * Projection of the id and content fingerprint of a {@link edu.um.alumno.domain.Dispositivo}.
+ */
+public interface DispositivoFingerprint {
+    Long getId();
+
+    Long getFingerprint();
+}
@@ -0,0 +1,14 @@
+package edu.um.alumno.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the base price of a {@link edu.um.alumno.domain.Dispositivo}.
+ */
+public interface DispositivoPrecio {
+    Long getId();
+
+    BigDecimal getPrecioBase();
+
+    String getMoneda();
+}
@@ -1,8 +1,10 @@
 package edu.um.alumno.repository;
 
 import edu.um.alumno.domain.Dispositivo;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -16,6 +18,28 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface DispositivoRepository extends DispositivoRepositoryWithBagRelationships, JpaRepository<Dispositivo, Long> {
+    /**
+     * Query cache region of the catalog queries. Hibernate invalidates it on entity writes; the JDBC writes of the catalog
+     * sync evict it once per applied catalog, see {@code DispositivoService#evictCatalogQueries()}.
+     */
+    String DISPOSITIVO_QUERIES_CACHE = "dispositivoQueries";
+
+    @Override
+    @QueryHints(
+        value = {
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = DISPOSITIVO_QUERIES_CACHE),
+        },
+        forCounting = true
+    )
+    Page<Dispositivo> findAll(Pageable pageable);
+
+    @Query("select dispositivo.id as id, dispositivo.fingerprint as fingerprint from Dispositivo dispositivo")
+    List<DispositivoFingerprint> findAllFingerprints();
+
+    @Query("select dispositivo.id as id, dispositivo.precioBase as precioBase, dispositivo.moneda as moneda from Dispositivo dispositivo")
+    List<DispositivoPrecio> findAllPrecios();
+
     default Optional<Dispositivo> findOneWithEagerRelationships(Long id) {
         return this.fetchBagRelationships(this.findById(id));
     }
@@ -3,6 +3,7 @@ package edu.um.alumno.repository;
 import edu.um.alumno.domain.Dispositivo;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -13,18 +14,24 @@ import org.springframework.data.domain.PageImpl;
 
 /**
  * Utility repository to load bag relationships based on https://vladmihalcea.com/hibernate-multiplebagfetchexception/
+ * <p>
+ * Every child collection read by {@code DispositivoMapper} is loaded with one query per batch of devices, instead of
+ * one query per device and collection: adicionales, caracteristicas, and personalizaciones together with their
+ * opciones. Each collection has its own query so their rows are never multiplied together.
  */
 public class DispositivoRepositoryWithBagRelationshipsImpl implements DispositivoRepositoryWithBagRelationships {
 
-    private static final String ID_PARAMETER = "id";
     private static final String DISPOSITIVOS_PARAMETER = "dispositivos";
 
+    // Keeps the IN lists of a full catalog load at a reasonable size.
+    private static final int BATCH_SIZE = 500;
+
     @PersistenceContext
     private EntityManager entityManager;
 
     @Override
     public Optional<Dispositivo> fetchBagRelationships(Optional<Dispositivo> dispositivo) {
-        return dispositivo.map(this::fetchAdicionales);
+        return dispositivo.map(result -> fetchBagRelationships(List.of(result)).get(0));
     }
 
     @Override
@@ -38,17 +45,19 @@ public class DispositivoRepositoryWithBagRelationshipsImpl implements Dispositiv
 
     @Override
     public List<Dispositivo> fetchBagRelationships(List<Dispositivo> dispositivos) {
-        return Optional.of(dispositivos).map(this::fetchAdicionales).orElse(Collections.emptyList());
-    }
-
-    Dispositivo fetchAdicionales(Dispositivo result) {
-        return entityManager
-            .createQuery(
-                "select dispositivo from Dispositivo dispositivo left join fetch dispositivo.adicionales where dispositivo.id = :id",
-                Dispositivo.class
-            )
-            .setParameter(ID_PARAMETER, result.getId())
-            .getSingleResult();
+        if (dispositivos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Dispositivo> result = new ArrayList<>(dispositivos.size());
+        for (int from = 0; from < dispositivos.size(); from += BATCH_SIZE) {
+            List<Dispositivo> batch = dispositivos.subList(from, Math.min(from + BATCH_SIZE, dispositivos.size()));
+            // The later queries return the same managed instances, and initialize their collections in place.
+            List<Dispositivo> fetched = fetchAdicionales(batch);
+            fetchCaracteristicas(batch);
+            fetchPersonalizaciones(batch);
+            result.addAll(fetched);
+        }
+        return result;
     }
 
     List<Dispositivo> fetchAdicionales(List<Dispositivo> dispositivos) {
@@ -64,4 +73,26 @@ public class DispositivoRepositoryWithBagRelationshipsImpl implements Dispositiv
         Collections.sort(result, (o1, o2) -> Integer.compare(order.get(o1.getId()), order.get(o2.getId())));
         return result;
     }
+
+    void fetchCaracteristicas(List<Dispositivo> dispositivos) {
+        entityManager
+            .createQuery(
+                "select dispositivo from Dispositivo dispositivo left join fetch dispositivo.caracteristicas " +
+                "where dispositivo in :dispositivos",
+                Dispositivo.class
+            )
+            .setParameter(DISPOSITIVOS_PARAMETER, dispositivos)
+            .getResultList();
+    }
+
+    void fetchPersonalizaciones(List<Dispositivo> dispositivos) {
+        entityManager
+            .createQuery(
+                "select dispositivo from Dispositivo dispositivo left join fetch dispositivo.personalizaciones personalizacion " +
+                "left join fetch personalizacion.opciones where dispositivo in :dispositivos",
+                Dispositivo.class
+            )
+            .setParameter(DISPOSITIVOS_PARAMETER, dispositivos)
+            .getResultList();
+    }
 }
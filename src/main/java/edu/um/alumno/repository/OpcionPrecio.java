@@ -0,0 +1,16 @@
+package edu.um.alumno.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the price of an {@link edu.um.alumno.domain.Opcion}, with the personalización and device it belongs to.
+ */
+public interface OpcionPrecio {
+    Long getDispositivoId();
+
+    Long getPersonalizacionId();
+
+    Long getId();
+
+    BigDecimal getPrecioAdicional();
+}
@@ -1,7 +1,15 @@
 package edu.um.alumno.repository;
 
 import edu.um.alumno.domain.Opcion;
+import edu.um.alumno.service.dto.OpcionDTO;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +17,34 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface OpcionRepository extends JpaRepository<Opcion, Long> {}
+public interface OpcionRepository extends JpaRepository<Opcion, Long> {
+    @Query(
+        "select personalizacion.dispositivo.id as dispositivoId, personalizacion.id as personalizacionId, " +
+        "opcion.id as id, opcion.precioAdicional as precioAdicional " +
+        "from Opcion opcion join opcion.personalizacion personalizacion"
+    )
+    List<OpcionPrecio> findAllPrecios();
+
+    @Query(
+        value = "select new edu.um.alumno.service.dto.OpcionDTO(opcion.id, opcion.codigo, opcion.nombre, opcion.descripcion, " +
+        "opcion.precioAdicional, opcion.personalizacion.id) from Opcion opcion",
+        countQuery = "select count(opcion) from Opcion opcion"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Page<OpcionDTO> findAllAsDto(Pageable pageable);
+
+    @Query(
+        "select new edu.um.alumno.service.dto.OpcionDTO(opcion.id, opcion.codigo, opcion.nombre, opcion.descripcion, " +
+        "opcion.precioAdicional, opcion.personalizacion.id) from Opcion opcion " +
+        "where opcion.id > :id order by opcion.id"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<OpcionDTO> findAllAsDtoAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query(
+        "select new edu.um.alumno.service.dto.OpcionDTO(opcion.id, opcion.codigo, opcion.nombre, opcion.descripcion, " +
+        "opcion.precioAdicional, opcion.personalizacion.id) from Opcion opcion where opcion.personalizacion.id in :personalizacionIds"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<OpcionDTO> findAllAsDtoByPersonalizacionIds(@Param("personalizacionIds") Collection<Long> personalizacionIds);
+}
@@ -1,7 +1,14 @@
 package edu.um.alumno.repository;
 
 import edu.um.alumno.domain.Personalizacion;
+import edu.um.alumno.service.dto.PersonalizacionDTO;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +16,20 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PersonalizacionRepository extends JpaRepository<Personalizacion, Long> {}
+public interface PersonalizacionRepository extends JpaRepository<Personalizacion, Long> {
+    @Query(
+        value = "select new edu.um.alumno.service.dto.PersonalizacionDTO(personalizacion.id, personalizacion.nombre, " +
+        "personalizacion.descripcion, personalizacion.dispositivo.id) from Personalizacion personalizacion",
+        countQuery = "select count(personalizacion) from Personalizacion personalizacion"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Page<PersonalizacionDTO> findAllAsDto(Pageable pageable);
+
+    @Query(
+        "select new edu.um.alumno.service.dto.PersonalizacionDTO(personalizacion.id, personalizacion.nombre, " +
+        "personalizacion.descripcion, personalizacion.dispositivo.id) from Personalizacion personalizacion " +
+        "where personalizacion.id > :id order by personalizacion.id"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<PersonalizacionDTO> findAllAsDtoAfter(@Param("id") Long id, Pageable pageable);
+}
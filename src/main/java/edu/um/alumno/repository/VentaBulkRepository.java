@@ -0,0 +1,69 @@
+package edu.um.alumno.repository;
+
+import edu.um.alumno.domain.Venta;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Set-based JDBC writes of {@link Venta} rows, used to record the sales of a batch.
+ * <p>
+ * Sales have the ids assigned by the cátedra, so Hibernate would select each one before inserting it. Here they are
+ * sent in JDBC batches of {@code hibernate.jdbc.batch_size}, rewritten into multi-row inserts by the MySQL driver. These
+ * writes bypass Hibernate: callers must run them inside a transaction.
+ */
+@Repository
+public class VentaBulkRepository {
+
+    // A sale recorded concurrently is left as it is, so the batch does not fail on it.
+    private static final String INSERT_VENTA =
+        "insert into venta (id, fecha_venta, precio_final, dispositivo_id, user_id) values (?, ?, ?, ?, ?) " +
+        "on duplicate key update id = id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    public VentaBulkRepository(JdbcTemplate jdbcTemplate, @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Insert the given sales, skipping the ids that exist already.
+     *
+     * @param ventas the sales, with their id and user.
+     */
+    public void insertAll(List<Venta> ventas) {
+        if (ventas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(ventas.size());
+        for (Venta venta : ventas) {
+            rows.add(
+                new Object[] {
+                    venta.getId(),
+                    utc(venta.getFechaVenta()),
+                    venta.getPrecioFinal(),
+                    venta.getDispositivoId(),
+                    venta.getUser() == null ? null : venta.getUser().getId(),
+                }
+            );
+        }
+        jdbcTemplate.batchUpdate(INSERT_VENTA, rows, batchSize, (ps, row) -> {
+            for (int i = 0; i < row.length; i++) {
+                ps.setObject(i + 1, row[i]);
+            }
+        });
+    }
+
+    // Written as Hibernate does with hibernate.jdbc.time_zone UTC.
+    private static LocalDateTime utc(ZonedDateTime fecha) {
+        return fecha == null ? null : fecha.withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+}
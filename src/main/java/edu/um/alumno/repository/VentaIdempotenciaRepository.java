@@ -0,0 +1,44 @@
+package edu.um.alumno.repository;
+
+import edu.um.alumno.domain.VentaIdempotencia;
+import edu.um.alumno.domain.enumeration.EstadoVentaIdempotencia;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the VentaIdempotencia entity.
+ */
+@Repository
+public interface VentaIdempotenciaRepository extends JpaRepository<VentaIdempotencia, Long> {
+    String VENTA_IDEMPOTENCIA_CACHE = "ventaIdempotencia";
+
+    Optional<VentaIdempotencia> findOneByClave(String clave);
+
+    /**
+     * Take over a key whose attempt stopped renewing it, e.g. because its instance died.
+     *
+     * @return {@code 1} if the key was taken over, {@code 0} if it completed or its attempt is still running.
+     */
+    @Modifying
+    @Query(
+        "update VentaIdempotencia ventaIdempotencia set ventaIdempotencia.actualizado = :now " +
+        "where ventaIdempotencia.clave = :clave and ventaIdempotencia.estado = :estado and ventaIdempotencia.actualizado < :expired"
+    )
+    int takeOver(
+        @Param("clave") String clave,
+        @Param("estado") EstadoVentaIdempotencia estado,
+        @Param("now") Instant now,
+        @Param("expired") Instant expired
+    );
+
+    @Modifying
+    @Query("delete from VentaIdempotencia ventaIdempotencia where ventaIdempotencia.clave = :clave and ventaIdempotencia.estado = :estado")
+    int deleteByClaveAndEstado(@Param("clave") String clave, @Param("estado") EstadoVentaIdempotencia estado);
+
+    @Modifying
+    @Query("delete from VentaIdempotencia ventaIdempotencia where ventaIdempotencia.creado < :before")
+    int deleteAllCreatedBefore(@Param("before") Instant before);
+}
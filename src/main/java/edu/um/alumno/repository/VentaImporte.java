@@ -0,0 +1,17 @@
+package edu.um.alumno.repository;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/**
+ * Projection of what the sales rollups count of a {@link edu.um.alumno.domain.Venta}.
+ */
+public interface VentaImporte {
+    Long getId();
+
+    ZonedDateTime getFechaVenta();
+
+    BigDecimal getPrecioFinal();
+
+    Long getDispositivoId();
+}
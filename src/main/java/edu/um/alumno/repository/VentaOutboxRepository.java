@@ -0,0 +1,39 @@
+package edu.um.alumno.repository;
+
+import edu.um.alumno.domain.VentaOutbox;
+import edu.um.alumno.domain.enumeration.EstadoVentaOutbox;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the VentaOutbox entity.
+ */
+@Repository
+public interface VentaOutboxRepository extends JpaRepository<VentaOutbox, Long> {
+    @Query(
+        "select ventaOutbox.id from VentaOutbox ventaOutbox " +
+        "where ventaOutbox.estado = :estado and ventaOutbox.proximoIntento <= :now order by ventaOutbox.proximoIntento"
+    )
+    List<Long> findDueIds(@Param("estado") EstadoVentaOutbox estado, @Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Claim a due entry for one worker, by moving its next attempt to the end of the lease.
+     *
+     * @return {@code 1} if the entry was claimed, {@code 0} if it is not due or another worker claimed it first.
+     */
+    @Modifying
+    @Query(
+        "update VentaOutbox ventaOutbox set ventaOutbox.proximoIntento = :leaseUntil " +
+        "where ventaOutbox.id = :id and ventaOutbox.estado = :estado and ventaOutbox.proximoIntento <= :now"
+    )
+    int claim(
+        @Param("id") Long id,
+        @Param("estado") EstadoVentaOutbox estado,
+        @Param("now") Instant now,
+        @Param("leaseUntil") Instant leaseUntil
+    );
+}
@@ -1,8 +1,19 @@
 package edu.um.alumno.repository;
 
 import edu.um.alumno.domain.Venta;
+import edu.um.alumno.service.dto.VentaDTO;
+import jakarta.persistence.QueryHint;
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,8 +22,131 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface VentaRepository extends JpaRepository<Venta, Long> {
+    String RECENT_VENTAS_BY_USER_CACHE = "recentVentasByUser";
+
+    /**
+     * Rows read per round trip by the export cursors.
+     */
+    int EXPORT_FETCH_SIZE = 1000;
+
     //    @Query("select venta from Venta venta where venta.user.login = ?#{authentication.name}")
     //    List<Venta> findByUserIsCurrentUser();
 
     List<Venta> findByUserId(Long userId);
+
+    @Query("select venta from Venta venta left join fetch venta.user where venta.id = :id")
+    Optional<Venta> findOneWithUserById(@Param("id") Long id);
+
+    @Query(
+        value = "select new edu.um.alumno.service.dto.VentaDTO(" +
+        "venta.id, venta.fechaVenta, venta.precioFinal, venta.dispositivoId, venta.user.id) " +
+        "from Venta venta",
+        countQuery = "select count(venta) from Venta venta"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Page<VentaDTO> findAllAsDto(Pageable pageable);
+
+    @Query(
+        "select new edu.um.alumno.service.dto.VentaDTO(" +
+        "venta.id, venta.fechaVenta, venta.precioFinal, venta.dispositivoId, venta.user.id) " +
+        "from Venta venta order by venta.fechaVenta desc, venta.id desc"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<VentaDTO> findLatestAsDto(Pageable pageable);
+
+    @Query(
+        "select new edu.um.alumno.service.dto.VentaDTO(" +
+        "venta.id, venta.fechaVenta, venta.precioFinal, venta.dispositivoId, venta.user.id) " +
+        "from Venta venta where venta.fechaVenta < :fechaVenta or (venta.fechaVenta = :fechaVenta and venta.id < :id) " +
+        "order by venta.fechaVenta desc, venta.id desc"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<VentaDTO> findAllAsDtoBefore(@Param("fechaVenta") ZonedDateTime fechaVenta, @Param("id") Long id, Pageable pageable);
+
+    @Query(
+        "select new edu.um.alumno.service.dto.VentaDTO(" +
+        "venta.id, venta.fechaVenta, venta.precioFinal, venta.dispositivoId, venta.user.id) " +
+        "from Venta venta where venta.user.id = :userId and venta.fechaVenta >= :desde and venta.fechaVenta < :hasta " +
+        "order by venta.fechaVenta desc, venta.id desc"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<VentaDTO> findLatestAsDtoByUser(
+        @Param("userId") Long userId,
+        @Param("desde") ZonedDateTime desde,
+        @Param("hasta") ZonedDateTime hasta,
+        Pageable pageable
+    );
+
+    @Query(
+        "select new edu.um.alumno.service.dto.VentaDTO(" +
+        "venta.id, venta.fechaVenta, venta.precioFinal, venta.dispositivoId, venta.user.id) " +
+        "from Venta venta where venta.user.id = :userId and venta.fechaVenta >= :desde " +
+        "and (venta.fechaVenta < :fechaVenta or (venta.fechaVenta = :fechaVenta and venta.id < :id)) " +
+        "order by venta.fechaVenta desc, venta.id desc"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<VentaDTO> findAllAsDtoByUserBefore(
+        @Param("userId") Long userId,
+        @Param("desde") ZonedDateTime desde,
+        @Param("fechaVenta") ZonedDateTime fechaVenta,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    @Query("select min(venta.fechaVenta) from Venta venta")
+    Optional<ZonedDateTime> findPrimeraFechaVenta();
+
+    @Query("select max(venta.fechaVenta) from Venta venta")
+    Optional<ZonedDateTime> findUltimaFechaVenta();
+
+    @Query(
+        "select venta.id as id, venta.fechaVenta as fechaVenta, venta.precioFinal as precioFinal, " +
+        "venta.dispositivoId as dispositivoId from Venta venta where venta.fechaVenta < :hasta " +
+        "and (venta.fechaVenta > :fechaVenta or (venta.fechaVenta = :fechaVenta and venta.id > :id)) " +
+        "order by venta.fechaVenta, venta.id"
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<VentaImporte> findAllImportesAfter(
+        @Param("fechaVenta") ZonedDateTime fechaVenta,
+        @Param("id") Long id,
+        @Param("hasta") ZonedDateTime hasta,
+        Pageable pageable
+    );
+
+    @Query(
+        "select new edu.um.alumno.service.dto.VentaDTO(" +
+        "venta.id, venta.fechaVenta, venta.precioFinal, venta.dispositivoId, venta.user.id) " +
+        "from Venta venta where venta.fechaVenta >= :desde and venta.fechaVenta < :hasta " +
+        "order by venta.fechaVenta, venta.id"
+    )
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false"),
+        }
+    )
+    Stream<VentaDTO> streamAllAsDto(@Param("desde") ZonedDateTime desde, @Param("hasta") ZonedDateTime hasta);
+
+    @Query(
+        "select new edu.um.alumno.service.dto.VentaDTO(" +
+        "venta.id, venta.fechaVenta, venta.precioFinal, venta.dispositivoId, venta.user.id) " +
+        "from Venta venta where venta.user.id = :userId and venta.fechaVenta >= :desde and venta.fechaVenta < :hasta " +
+        "order by venta.fechaVenta, venta.id"
+    )
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false"),
+        }
+    )
+    Stream<VentaDTO> streamAllAsDtoByUser(
+        @Param("userId") Long userId,
+        @Param("desde") ZonedDateTime desde,
+        @Param("hasta") ZonedDateTime hasta
+    );
+
+    @Query("select venta.id from Venta venta where venta.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
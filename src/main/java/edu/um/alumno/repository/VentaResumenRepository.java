@@ -0,0 +1,216 @@
+package edu.um.alumno.repository;
+
+import edu.um.alumno.domain.enumeration.Granularidad;
+import edu.um.alumno.service.dto.VentaResumenDTO;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JDBC repository for the sales rollups, the {@code venta_resumen} table.
+ * <p>
+ * A row holds the number and amount of the sales of one day or month, either of one device or, with
+ * {@link #TODOS_LOS_DISPOSITIVOS}, of all of them. Rows are only ever incremented, with MySQL's
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE} (also understood by H2 in MySQL mode), so concurrent sales of the same
+ * period never read-modify-write the same row.
+ */
+@Repository
+public class VentaResumenRepository {
+
+    /**
+     * The {@code dispositivo_id} of the rows that add up the sales of every device.
+     */
+    public static final long TODOS_LOS_DISPOSITIVOS = 0L;
+
+    private static final String INCREMENTAR =
+        "insert into venta_resumen (granularidad, periodo, dispositivo_id, cantidad, total) values (?, ?, ?, ?, ?) " +
+        "on duplicate key update cantidad = cantidad + values(cantidad), total = total + values(total)";
+
+    private static final String SELECT_PERIODOS =
+        "select periodo, dispositivo_id, cantidad, total from venta_resumen " +
+        "where granularidad = ? and periodo >= ? and periodo < ? and cantidad <> 0 order by periodo, dispositivo_id";
+
+    // Rows are always written in the same order, so two transactions upserting the same periods cannot deadlock.
+    private static final Comparator<Clave> ORDEN = Comparator
+        .comparing((Clave clave) -> clave.granularidad)
+        .thenComparing(clave -> clave.periodo)
+        .thenComparingLong(clave -> clave.dispositivoId);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    public VentaResumenRepository(
+        JdbcTemplate jdbcTemplate,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Add the given amounts to their rollups, creating the rows that do not exist yet.
+     *
+     * @param incrementos the amounts to add, by rollup; negative amounts subtract.
+     */
+    public void incrementar(Map<Clave, Importe> incrementos) {
+        if (incrementos.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(incrementos.size());
+        incrementos
+            .entrySet()
+            .stream()
+            .sorted(Map.Entry.comparingByKey(ORDEN))
+            .forEach(entry -> {
+                Clave clave = entry.getKey();
+                Importe importe = entry.getValue();
+                rows.add(
+                    new Object[] { clave.granularidad.name(), clave.periodo, clave.dispositivoId, importe.cantidad, importe.total }
+                );
+            });
+        jdbcTemplate.batchUpdate(INCREMENTAR, rows, batchSize, (ps, row) -> {
+            for (int i = 0; i < row.length; i++) {
+                ps.setObject(i + 1, row[i]);
+            }
+        });
+    }
+
+    /**
+     * Get the rollups of the periods in a range, with their per-device counts.
+     *
+     * @param granularidad the length of the periods.
+     * @param desde the first day of the range, inclusive.
+     * @param hasta the last day of the range, exclusive.
+     * @return the periods that had sales, oldest first.
+     */
+    public List<VentaResumenDTO> findAll(Granularidad granularidad, LocalDate desde, LocalDate hasta) {
+        List<VentaResumenDTO> periodos = new ArrayList<>();
+        jdbcTemplate.query(
+            SELECT_PERIODOS,
+            rs -> {
+                LocalDate periodo = rs.getObject(1, LocalDate.class);
+                VentaResumenDTO actual = periodos.isEmpty() ? null : periodos.get(periodos.size() - 1);
+                if (actual == null || !actual.getPeriodo().equals(periodo)) {
+                    actual = new VentaResumenDTO(periodo);
+                    periodos.add(actual);
+                }
+                long dispositivoId = rs.getLong(2);
+                if (dispositivoId == TODOS_LOS_DISPOSITIVOS) {
+                    actual.setCantidad(rs.getLong(3));
+                    actual.setTotal(rs.getBigDecimal(4));
+                } else {
+                    actual.getCantidadPorDispositivo().put(dispositivoId, rs.getLong(3));
+                }
+            },
+            granularidad.name(),
+            desde,
+            hasta
+        );
+        return periodos;
+    }
+
+    public boolean isEmpty() {
+        return Boolean.FALSE.equals(jdbcTemplate.queryForObject("select exists (select 1 from venta_resumen)", Boolean.class));
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("delete from venta_resumen");
+    }
+
+    /**
+     * Delete the rollups of both granularities whose period starts in a range.
+     *
+     * @param desde the first day of the range, inclusive.
+     * @param hasta the last day of the range, exclusive.
+     */
+    public void deleteAll(LocalDate desde, LocalDate hasta) {
+        jdbcTemplate.update("delete from venta_resumen where periodo >= ? and periodo < ?", desde, hasta);
+    }
+
+    /**
+     * Delete the rollups of both granularities whose period starts outside a range.
+     *
+     * @param desde the first day of the range, inclusive.
+     * @param hasta the last day of the range, exclusive.
+     */
+    public void deleteAllOutside(LocalDate desde, LocalDate hasta) {
+        jdbcTemplate.update("delete from venta_resumen where periodo < ? or periodo >= ?", desde, hasta);
+    }
+
+    /**
+     * The period of a rollup row.
+     */
+    public static final class Clave {
+
+        private final Granularidad granularidad;
+
+        private final LocalDate periodo;
+
+        private final long dispositivoId;
+
+        public Clave(Granularidad granularidad, LocalDate periodo, long dispositivoId) {
+            this.granularidad = granularidad;
+            this.periodo = periodo;
+            this.dispositivoId = dispositivoId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Clave)) {
+                return false;
+            }
+            Clave clave = (Clave) o;
+            return granularidad == clave.granularidad && periodo.equals(clave.periodo) && dispositivoId == clave.dispositivoId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(granularidad, periodo, dispositivoId);
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Clave{" +
+                "granularidad=" + granularidad +
+                ", periodo='" + periodo + "'" +
+                ", dispositivoId=" + dispositivoId +
+                "}";
+        }
+    }
+
+    /**
+     * The amounts to add to a rollup row.
+     */
+    public static final class Importe {
+
+        private long cantidad;
+
+        private BigDecimal total = BigDecimal.ZERO;
+
+        public void sumar(long cantidad, BigDecimal total) {
+            this.cantidad += cantidad;
+            this.total = this.total.add(total);
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Importe{" +
+                "cantidad=" + cantidad +
+                ", total=" + total +
+                "}";
+        }
+    }
+}
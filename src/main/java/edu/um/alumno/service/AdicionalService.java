@@ -1,14 +1,22 @@
 package edu.um.alumno.service;
 
 import edu.um.alumno.domain.Adicional;
+import edu.um.alumno.repository.AdicionalDispositivo;
 import edu.um.alumno.repository.AdicionalRepository;
 import edu.um.alumno.service.dto.AdicionalDTO;
+import edu.um.alumno.service.dto.DispositivoDTO;
 import edu.um.alumno.service.mapper.AdicionalMapper;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,9 +33,16 @@ public class AdicionalService {
 
     private final AdicionalMapper adicionalMapper;
 
-    public AdicionalService(AdicionalRepository adicionalRepository, AdicionalMapper adicionalMapper) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public AdicionalService(
+        AdicionalRepository adicionalRepository,
+        AdicionalMapper adicionalMapper,
+        ApplicationEventPublisher applicationEventPublisher
+    ) {
         this.adicionalRepository = adicionalRepository;
         this.adicionalMapper = adicionalMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
@@ -40,6 +55,7 @@ public class AdicionalService {
         LOG.debug("Request to save Adicional : {}", adicionalDTO);
         Adicional adicional = adicionalMapper.toEntity(adicionalDTO);
         adicional = adicionalRepository.save(adicional);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
         return adicionalMapper.toDto(adicional);
     }
 
@@ -53,6 +69,7 @@ public class AdicionalService {
         LOG.debug("Request to update Adicional : {}", adicionalDTO);
         Adicional adicional = adicionalMapper.toEntity(adicionalDTO);
         adicional = adicionalRepository.save(adicional);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
         return adicionalMapper.toDto(adicional);
     }
 
@@ -69,6 +86,7 @@ public class AdicionalService {
             .findById(adicionalDTO.getId())
             .map(existingAdicional -> {
                 adicionalMapper.partialUpdate(existingAdicional, adicionalDTO);
+                applicationEventPublisher.publishEvent(new CatalogChangedEvent());
 
                 return existingAdicional;
             })
@@ -78,6 +96,8 @@ public class AdicionalService {
 
     /**
      * Get all the adicionals.
+     * <p>
+     * The page is selected into DTOs, and the ids of their dispositivos are read with one more query for the whole page.
      *
      * @param pageable the pagination information.
      * @return the list of entities.
@@ -85,7 +105,37 @@ public class AdicionalService {
     @Transactional(readOnly = true)
     public Page<AdicionalDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Adicionals");
-        return adicionalRepository.findAll(pageable).map(adicionalMapper::toDto);
+        Page<AdicionalDTO> page = adicionalRepository.findAllAsDto(pageable);
+        fetchDispositivos(page.getContent());
+        return page;
+    }
+
+    /**
+     * Get the adicionals that follow a given id, ordered by id, without counting them.
+     *
+     * @param id the last id of the previous page, or {@code null} for the first page.
+     * @param size the number of rows of the page.
+     * @return the slice of DTOs.
+     */
+    @Transactional(readOnly = true)
+    public Slice<AdicionalDTO> findAllAfter(Long id, int size) {
+        LOG.debug("Request to get Adicionals after : {}", id);
+        List<AdicionalDTO> rows = adicionalRepository.findAllAsDtoAfter(id == null ? Long.MIN_VALUE : id, KeysetSlices.probe(size));
+        Slice<AdicionalDTO> slice = KeysetSlices.of(rows, size);
+        fetchDispositivos(slice.getContent());
+        return slice;
+    }
+
+    private void fetchDispositivos(List<AdicionalDTO> adicionalDTOs) {
+        if (adicionalDTOs.isEmpty()) {
+            return;
+        }
+        Map<Long, AdicionalDTO> byId = adicionalDTOs.stream().collect(Collectors.toMap(AdicionalDTO::getId, Function.identity()));
+        for (AdicionalDispositivo link : adicionalRepository.findAllDispositivoIds(byId.keySet())) {
+            DispositivoDTO dispositivoDTO = new DispositivoDTO();
+            dispositivoDTO.setId(link.getDispositivoId());
+            byId.get(link.getAdicionalId()).getDispositivos().add(dispositivoDTO);
+        }
     }
 
     /**
@@ -108,5 +158,6 @@ public class AdicionalService {
     public void delete(Long id) {
         LOG.debug("Request to delete Adicional : {}", id);
         adicionalRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
     }
 }
@@ -1,28 +1,37 @@
 package edu.um.alumno.service;
 
-import edu.um.alumno.domain.ApiToken;
-import edu.um.alumno.domain.ApiTokenManager;
-import edu.um.alumno.domain.AuthResponse;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import edu.um.alumno.config.ApplicationProperties;
+import edu.um.alumno.service.dto.DispositivoBulkDeleteResultDTO;
 import edu.um.alumno.service.dto.DispositivoDTO;
-import java.io.FileWriter;
+import edu.um.alumno.service.dto.DispositivoSyncResultDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import org.json.JSONObject;
+import java.util.Set;
+import java.util.function.BiFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
@@ -30,100 +39,121 @@ import org.springframework.web.client.RestTemplate;
 @Service
 public class ApiSyncService {
 
-    private static final Logger LOG = LoggerFactory.getLogger(AdicionalService.class);
+    private static final Logger LOG = LoggerFactory.getLogger(ApiSyncService.class);
 
-    private final ApiTokenManager apiTokenManager;
-    private final RestTemplate restTemplate;
-
-    @Value("${professor.api.url}")
-    private String PROFESSOR_API_URL;
+    private static final String SYNC_RUNS_METRIC = "techmarket.sync.runs";
 
-    @Value("${professor.api.username}")
-    private String USERNAME;
+    private final ApiTokenService apiTokenService;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationProperties applicationProperties;
+    private final Counter appliedSyncs;
+    private final Counter skippedSyncs;
 
-    @Value("${professor.api.password}")
-    private String PASSWORD;
+    // Versión del catálogo remoto aplicada en la última sincronización exitosa.
+    private volatile String lastETag;
+    private volatile long lastModified = -1;
+    private volatile String lastBodyHash;
+    private volatile DispositivoSyncResultDTO lastResult;
 
-    private String AUTH_URL;
-    private String DEVICES_URL;
+    // Relativa a professor.api.url, que el RestTemplate de AppConfig usa como raíz.
+    private static final String DEVICES_URL = "/catedra/dispositivos";
 
     @Autowired
     DispositivoService dispositivoService;
 
     @Autowired
-    public ApiSyncService(ApiTokenManager apiTokenManager, RestTemplate restTemplate) {
-        this.apiTokenManager = apiTokenManager;
+    public ApiSyncService(
+        ApiTokenService apiTokenService,
+        RestTemplate restTemplate,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.apiTokenService = apiTokenService;
         this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.applicationProperties = applicationProperties;
+        this.appliedSyncs = Counter.builder(SYNC_RUNS_METRIC)
+            .description("Catalog syncs by outcome")
+            .tag("outcome", "applied")
+            .register(meterRegistry);
+        this.skippedSyncs = Counter.builder(SYNC_RUNS_METRIC)
+            .description("Catalog syncs by outcome")
+            .tag("outcome", "skipped")
+            .register(meterRegistry);
     }
 
-    // Evento que se ejecuta cuando la aplicación está lista, inicializa las URLs y arranca la sincronización.
-    @EventListener(ApplicationReadyEvent.class)
+    // Las ejecuciones de la sincronización las programa CatalogSyncScheduler.
+    @PostConstruct
     public void initialize() {
-        this.AUTH_URL = PROFESSOR_API_URL + "/authenticate";
-        this.DEVICES_URL = PROFESSOR_API_URL + "/catedra/dispositivos";
         LOG.info("Inicializando ApiSyncService");
-        syncDataWithRetry(); // Sincronización de datos con reintentos.
-        startScheduledSync(); // Comienza la sincronización programada.
+    }
+
+    // Resultado de la última sincronización que aplicó cambios, o null si todavía no hubo ninguna.
+    DispositivoSyncResultDTO getLastResult() {
+        return lastResult;
     }
 
     // Método que maneja la sincronización de datos con reintentos en caso de fallo.
+    // El token se lee de memoria; si la cátedra lo rechaza se descarta y se reintenta una vez con uno renovado.
+    // Si también rechaza el renovado la ejecución falla, así el scheduler no la cuenta como exitosa.
     void syncDataWithRetry() {
         LOG.info("Iniciando sincronización de datos con reintentos");
-        Optional<ApiToken> optionalToken = apiTokenManager.loadToken();
-        if (optionalToken.isPresent()) {
-            ApiToken token = optionalToken.get();
-            try {
-                if (!syncData(token.getToken())) {
-                    LOG.warn("Token expirado, renovando token");
-                    token = renewToken();
-                    syncData(token.getToken());
-                }
-            } catch (HttpClientErrorException.Unauthorized e) {
-                LOG.error("Error no autorizado: {}", e.getMessage());
-                // Si el token está expirado, intenta renovarlo.
-                System.err.println("Error no autorizado: " + e.getMessage());
-                token = renewToken();
-                syncData(token.getToken());
+        String token = apiTokenService.getToken();
+        if (!syncData(token)) {
+            LOG.warn("Token expirado, renovando token");
+            apiTokenService.invalidate(token);
+            if (!syncData(apiTokenService.getToken())) {
+                throw new IllegalStateException("La cátedra rechazó el token renovado");
             }
-        } else {
-            LOG.warn("No se encontró un token, renovando token");
-            ApiToken token = renewToken();
-            syncData(token.getToken());
         }
     }
 
     // Método que realiza la sincronización de datos con el servidor remoto utilizando un token JWT.
+    // La respuesta se lee en streaming y los dispositivos se persisten en bloques de tamaño fijo (application.sync.chunk-size),
+    // así la memoria usada por la sincronización depende del tamaño del bloque y no del tamaño del catálogo.
+    // La petición es condicional (If-None-Match / If-Modified-Since): si el catálogo no cambió desde la última sincronización
+    // exitosa (304 o mismo hash del cuerpo) no se deserializa nada ni se toca la base de datos.
     protected boolean syncData(String jwtToken) {
         LOG.info("Sincronizando datos con el token: {}", jwtToken);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(jwtToken);
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-
         try {
-            ResponseEntity<List<DispositivoDTO>> response = restTemplate.exchange(
+            Optional<DispositivoSyncResultDTO> result = restTemplate.execute(
                 DEVICES_URL,
                 HttpMethod.GET,
-                entity,
-                new ParameterizedTypeReference<List<DispositivoDTO>>() {}
+                request -> {
+                    request.getHeaders().setBearerAuth(jwtToken);
+                    request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+                    if (lastETag != null) {
+                        request.getHeaders().setIfNoneMatch(lastETag);
+                    }
+                    if (lastModified > 0) {
+                        request.getHeaders().setIfModifiedSince(lastModified);
+                    }
+                },
+                this::readCatalogResponse
             );
 
-            if (response == null || response.getBody() == null) {
+            if (result == null) {
                 LOG.error("La respuesta o el cuerpo de la respuesta son nulos");
                 throw new RuntimeException("Error al sincronizar datos: la respuesta o el cuerpo de la respuesta son nulos");
             }
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                List<DispositivoDTO> devices = response.getBody();
-                LOG.info("Sincronización de datos exitosa, se recuperaron {} dispositivos", devices.size());
-                updateLocalDatabase(devices); // Actualiza la base de datos local con los dispositivos obtenidos.
+            if (result.isEmpty()) {
+                skippedSyncs.increment();
+                LOG.info("El catálogo remoto no cambió desde la última sincronización, no se aplican cambios");
                 return true;
-            } else if (response.getStatusCode() == HttpStatus.UNAUTHORIZED) {
-                LOG.warn("Acceso no autorizado, el token puede estar expirado");
-                return false;
-            } else {
-                LOG.error("Error al sincronizar los datos, código de estado: {}", response.getStatusCode());
-                throw new RuntimeException("Error al sincronizar los datos");
             }
+            appliedSyncs.increment();
+            DispositivoSyncResultDTO applied = result.orElseThrow();
+            lastResult = applied;
+            LOG.info(
+                "Sincronización de datos exitosa: {} insertados, {} actualizados, {} sin cambios, {} borrados",
+                applied.getInserted(),
+                applied.getUpdated(),
+                applied.getUnchanged(),
+                applied.getDeleted()
+            );
+            return true;
         } catch (HttpClientErrorException e) {
             if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
                 LOG.warn("Acceso no autorizado, el token puede estar expirado");
@@ -135,74 +165,125 @@ public class ApiSyncService {
         }
     }
 
-    // Método que renueva el token utilizando las credenciales configuradas.
-    ApiToken renewToken() {
-        LOG.info("Renovando token");
-        Map<String, Object> authRequest = new HashMap<>();
-        authRequest.put("username", USERNAME);
-        authRequest.put("password", PASSWORD);
-        authRequest.put("rememberMe", false);
-
-        ResponseEntity<AuthResponse> response = restTemplate.postForEntity(AUTH_URL, authRequest, AuthResponse.class);
-
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            String newToken = response.getBody().getId_token();
-            LOG.info("Token renovado exitosamente: {}", newToken);
-
-            System.out.println(newToken);
-            ApiToken apiToken = new ApiToken();
-            apiToken.setToken(newToken);
-            apiTokenManager.saveToken(apiToken);
-            updateTokenFile(newToken); // Actualiza el archivo con el nuevo token.
-
-            return apiToken;
-        } else {
-            LOG.error("Error al renovar el token, código de estado: {}", response.getStatusCode());
-            throw new RuntimeException("Error al renovar el token");
+    // Procesa la respuesta del catálogo: vacío si no hubo cambios, o el resultado de aplicar los dispositivos recibidos.
+    // El cuerpo se copia a un archivo temporal mientras se calcula su hash, para poder descartarlo sin deserializarlo.
+    private Optional<DispositivoSyncResultDTO> readCatalogResponse(ClientHttpResponse response) throws IOException {
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return Optional.empty();
+        }
+        if (response.getStatusCode() != HttpStatus.OK) {
+            LOG.error("Error al sincronizar los datos, código de estado: {}", response.getStatusCode());
+            throw new RuntimeException("Error al sincronizar los datos");
         }
-    }
 
-    // Método que actualiza el archivo local con el nuevo token.
-    void updateTokenFile(String newToken) {
-        LOG.info("Actualizando el archivo del token con el nuevo token");
-        JSONObject jsonObject = new JSONObject();
-        jsonObject.put("token", newToken);
-
-        try (FileWriter file = new FileWriter("apitoken.json")) {
-            file.write(jsonObject.toString());
-            LOG.info("Archivo del token actualizado exitosamente");
-        } catch (IOException e) {
-            LOG.error("Error al actualizar el archivo del token", e);
-            throw new RuntimeException("Error al actualizar el archivo del token", e);
+        Path bodyFile = Files.createTempFile("catalogo-", ".json");
+        try {
+            MessageDigest digest = newBodyDigest();
+            try (InputStream body = new DigestInputStream(response.getBody(), digest)) {
+                Files.copy(body, bodyFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String bodyHash = HexFormat.of().formatHex(digest.digest());
+            String eTag = response.getHeaders().getETag();
+            long modified = response.getHeaders().getLastModified();
+
+            if (bodyHash.equals(lastBodyHash)) {
+                rememberCatalogVersion(eTag, modified, bodyHash);
+                return Optional.empty();
+            }
+            DispositivoSyncResultDTO result = null;
+            try (InputStream body = Files.newInputStream(bodyFile)) {
+                result = readDevicesInChunks(body, this::updateLocalDatabase);
+            } finally {
+                // Las consultas cacheadas se invalidan una sola vez por catálogo aplicado, no por bloque; también si falló
+                // un bloque, porque los anteriores ya quedaron confirmados.
+                if (result == null || result.hasChanges()) {
+                    dispositivoService.evictCatalogQueries();
+                }
+            }
+            // Sólo se recuerda la versión una vez aplicada por completo, así un fallo a mitad de camino se reintenta entero.
+            rememberCatalogVersion(eTag, modified, bodyHash);
+            return Optional.of(result);
+        } finally {
+            Files.deleteIfExists(bodyFile);
         }
     }
 
-    // Método que inicia la sincronización de datos de manera programada cada 15 minutos.
-    private void startScheduledSync() {
-        LOG.info("Iniciando sincronización programada de datos");
-        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-        scheduler.scheduleAtFixedRate(this::syncDataWithRetry, 0, 15, TimeUnit.MINUTES);
+    private void rememberCatalogVersion(String eTag, long modified, String bodyHash) {
+        this.lastETag = eTag;
+        this.lastModified = modified;
+        this.lastBodyHash = bodyHash;
     }
 
-    // Método que actualiza la base de datos local con los dispositivos obtenidos del servidor.
-    void updateLocalDatabase(List<DispositivoDTO> devices) {
-        LOG.info("Actualizando la base de datos local con {} dispositivos", devices.size());
-        List<DispositivoDTO> localDevices = dispositivoService.findAllNoPag();
+    private static MessageDigest newBodyDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-        // Crear un mapa de dispositivos locales para una búsqueda rápida
-        Map<Long, DispositivoDTO> localDeviceMap = localDevices
-            .stream()
-            .collect(Collectors.toMap(DispositivoDTO::getId, dispositivo -> dispositivo));
-
-        for (DispositivoDTO remoteDevice : devices) {
-            DispositivoDTO localDevice = localDeviceMap.get(remoteDevice.getId());
-            if (localDevice == null || !localDevice.equals(remoteDevice)) {
-                // Si el dispositivo no existe localmente o ha cambiado, actualizarlo
-                dispositivoService.save(remoteDevice);
-                LOG.info("Dispositivo actualizado: {}", remoteDevice.getId());
+    // Lee un arreglo JSON de dispositivos elemento por elemento y entrega cada bloque a la etapa de persistencia.
+    DispositivoSyncResultDTO readDevicesInChunks(
+        InputStream body,
+        BiFunction<List<DispositivoDTO>, Map<Long, Long>, DispositivoSyncResultDTO> persist
+    ) throws IOException {
+        int chunkSize = Math.max(1, applicationProperties.getSync().getChunkSize());
+        Map<Long, Long> localFingerprints = dispositivoService.findFingerprints();
+        ObjectReader reader = objectMapper.readerFor(DispositivoDTO.class);
+        DispositivoSyncResultDTO result = new DispositivoSyncResultDTO();
+        Set<Long> remoteIds = new HashSet<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Se esperaba un arreglo JSON de dispositivos");
+            }
+            List<DispositivoDTO> chunk = new ArrayList<>(chunkSize);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                DispositivoDTO dispositivo = reader.readValue(parser);
+                remoteIds.add(dispositivo.getId());
+                chunk.add(dispositivo);
+                if (chunk.size() == chunkSize) {
+                    result = result.add(persist.apply(chunk, localFingerprints));
+                    chunk = new ArrayList<>(chunkSize);
+                }
             }
+            // Un cuerpo truncado o con algo que no es un dispositivo corta el ciclo antes del final del arreglo: en ese caso no
+            // se sabe qué dispositivos publica la cátedra y no se borra ninguno.
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Arreglo JSON de dispositivos incompleto o con elementos inválidos");
+            }
+            if (!chunk.isEmpty()) {
+                result = result.add(persist.apply(chunk, localFingerprints));
+            }
+        }
+        // Sólo se llega acá con el arreglo leído completo.
+        return result.add(removeDroppedDevices(localFingerprints, remoteIds));
+    }
+
+    // Borra, con unas pocas sentencias por lotes, los dispositivos sincronizados que la cátedra ya no publica.
+    // Los creados localmente (sin huella) se conservan, y un catálogo vacío se toma como un error de la cátedra.
+    DispositivoSyncResultDTO removeDroppedDevices(Map<Long, Long> localFingerprints, Set<Long> remoteIds) {
+        if (remoteIds.isEmpty()) {
+            return new DispositivoSyncResultDTO();
+        }
+        List<Long> dropped = localFingerprints
+            .entrySet()
+            .stream()
+            .filter(local -> local.getValue() != null && !remoteIds.contains(local.getKey()))
+            .map(Map.Entry::getKey)
+            .toList();
+        if (dropped.isEmpty()) {
+            return new DispositivoSyncResultDTO();
         }
+        LOG.info("Borrando {} dispositivos que ya no están en el catálogo remoto", dropped.size());
+        DispositivoBulkDeleteResultDTO deleted = dispositivoService.deleteSynced(dropped);
+        return new DispositivoSyncResultDTO(0, 0, 0, deleted.getDispositivos());
+    }
 
-        LOG.info("Base de datos local actualizada exitosamente");
+    // Método que actualiza la base de datos local con un bloque de dispositivos obtenidos del servidor.
+    // Sólo se reescriben los dispositivos cuya huella (fingerprint) cambió, en una transacción con escrituras JDBC por lotes.
+    DispositivoSyncResultDTO updateLocalDatabase(List<DispositivoDTO> devices, Map<Long, Long> localFingerprints) {
+        LOG.debug("Actualizando la base de datos local con un bloque de {} dispositivos", devices.size());
+        return dispositivoService.upsertSynced(devices, localFingerprints);
     }
 }
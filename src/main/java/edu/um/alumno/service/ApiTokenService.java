@@ -0,0 +1,243 @@
+package edu.um.alumno.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.um.alumno.domain.ApiToken;
+import edu.um.alumno.domain.ApiTokenManager;
+import edu.um.alumno.domain.AuthResponse;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Holds the JWT used to call the cátedra backend.
+ * <p>
+ * The token lives in memory together with its {@code exp} claim, so reading it is a volatile read with no I/O. It is
+ * renewed in the background shortly before it expires, and renewed synchronously when it is missing, expired or
+ * rejected by the cátedra. Concurrent callers share a single in-flight {@code /authenticate} call, and a failed background
+ * renewal is logged and only retried after {@link #RENEW_RETRY_DELAY}, while the current token is still valid. The file
+ * {@code apitoken.json} is only read once at startup and rewritten asynchronously after each renewal.
+ */
+@Service
+public class ApiTokenService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ApiTokenService.class);
+
+    /**
+     * How long before its expiry a token is renewed in the background.
+     */
+    private static final Duration RENEW_BEFORE = Duration.ofMinutes(5);
+
+    /**
+     * How long after a failed renewal the next background renewal is attempted.
+     */
+    private static final Duration RENEW_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final ApiTokenManager apiTokenManager;
+
+    private final RestTemplate restTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Executor taskExecutor;
+
+    private final AtomicReference<CachedToken> current = new AtomicReference<>();
+
+    private final AtomicReference<CompletableFuture<CachedToken>> renewal = new AtomicReference<>();
+
+    private volatile Instant nextRenewalAttempt = Instant.MIN;
+
+    @Value("${professor.api.username}")
+    private String username;
+
+    @Value("${professor.api.password}")
+    private String password;
+
+    public ApiTokenService(
+        ApiTokenManager apiTokenManager,
+        RestTemplate restTemplate,
+        ObjectMapper objectMapper,
+        @Qualifier("taskExecutor") Executor taskExecutor
+    ) {
+        this.apiTokenManager = apiTokenManager;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @PostConstruct
+    public void loadPersistedToken() {
+        apiTokenManager
+            .loadToken()
+            .map(apiToken -> new CachedToken(apiToken.getToken(), decodeExpiry(apiToken.getToken())))
+            .ifPresent(token -> {
+                LOG.debug("Loaded cátedra token from disk, expires at {}", token.expiresAt);
+                current.set(token);
+            });
+    }
+
+    /**
+     * Get a valid token for the cátedra backend.
+     *
+     * @return the current token, renewed first if it is missing or expired.
+     */
+    public String getToken() {
+        CachedToken token = current.get();
+        Instant now = Instant.now();
+        if (token == null || token.isExpiredAt(now)) {
+            return awaitRenewal();
+        }
+        if (token.isExpiredAt(now.plus(RENEW_BEFORE))) {
+            renewInBackground(now);
+        }
+        return token.value;
+    }
+
+    /**
+     * Discard a token rejected by the cátedra, so the next {@link #getToken()} renews it.
+     *
+     * @param rejectedToken the token that got a 401.
+     */
+    public void invalidate(String rejectedToken) {
+        CachedToken token = current.get();
+        if (token != null && token.value.equals(rejectedToken)) {
+            current.compareAndSet(token, null);
+        }
+    }
+
+    private String awaitRenewal() {
+        try {
+            return renew().join().value;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void renewInBackground(Instant now) {
+        if (renewal.get() != null || now.isBefore(nextRenewalAttempt)) {
+            return;
+        }
+        taskExecutor.execute(() -> {
+            // Callers racing the check above queue a renewal each; those after a failed one wait out the delay.
+            if (Instant.now().isBefore(nextRenewalAttempt)) {
+                return;
+            }
+            renew()
+                .exceptionally(e -> {
+                    LOG.warn("Background renewal of the cátedra token failed, retrying after {}", nextRenewalAttempt, e);
+                    return null;
+                });
+        });
+    }
+
+    // Single flight: the first caller authenticates, the others wait on its future.
+    private CompletableFuture<CachedToken> renew() {
+        CompletableFuture<CachedToken> inFlight = renewal.get();
+        if (inFlight != null) {
+            return inFlight;
+        }
+        CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+        if (!renewal.compareAndSet(null, mine)) {
+            CompletableFuture<CachedToken> other = renewal.get();
+            return other != null ? other : renew();
+        }
+        try {
+            CachedToken token = authenticate();
+            current.set(token);
+            mine.complete(token);
+            persistInBackground(token.value);
+        } catch (RuntimeException e) {
+            // Set before the future completes, so the callers it wakes up already see it.
+            nextRenewalAttempt = Instant.now().plus(RENEW_RETRY_DELAY);
+            mine.completeExceptionally(e);
+        } finally {
+            renewal.set(null);
+        }
+        return mine;
+    }
+
+    private CachedToken authenticate() {
+        LOG.info("Renovando token");
+        Map<String, Object> authRequest = new HashMap<>();
+        authRequest.put("username", username);
+        authRequest.put("password", password);
+        authRequest.put("rememberMe", false);
+
+        ResponseEntity<AuthResponse> response = restTemplate.postForEntity(
+            "/authenticate",
+            authRequest,
+            AuthResponse.class
+        );
+        if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+            LOG.error("Error al renovar el token, código de estado: {}", response.getStatusCode());
+            throw new RuntimeException("Error al renovar el token");
+        }
+        String newToken = response.getBody().getId_token();
+        CachedToken token = new CachedToken(newToken, decodeExpiry(newToken));
+        LOG.info("Token renovado exitosamente, expira en {}", token.expiresAt);
+        return token;
+    }
+
+    private void persistInBackground(String token) {
+        taskExecutor.execute(() -> {
+            try {
+                ApiToken apiToken = new ApiToken();
+                apiToken.setToken(token);
+                apiTokenManager.saveToken(apiToken);
+                LOG.debug("Archivo del token actualizado exitosamente");
+            } catch (RuntimeException e) {
+                LOG.warn("Error al actualizar el archivo del token", e);
+            }
+        });
+    }
+
+    // Reads the exp claim of the JWT payload; the signature is checked by the cátedra, not here.
+    private Instant decodeExpiry(String jwt) {
+        try {
+            String[] parts = jwt.split("\\.");
+            if (parts.length < 2) {
+                return Instant.MAX;
+            }
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            JsonNode exp = claims.get("exp");
+            return exp != null && exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : Instant.MAX;
+        } catch (Exception e) {
+            LOG.warn("Could not decode the expiry of the cátedra token", e);
+            return Instant.MAX;
+        }
+    }
+
+    private static final class CachedToken {
+
+        private final String value;
+
+        private final Instant expiresAt;
+
+        private CachedToken(String value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpiredAt(Instant instant) {
+            return !expiresAt.isAfter(instant);
+        }
+    }
+}
@@ -4,10 +4,8 @@ import edu.um.alumno.domain.Caracteristica;
 import edu.um.alumno.repository.CaracteristicaRepository;
 import edu.um.alumno.service.dto.CaracteristicaDTO;
 import edu.um.alumno.service.mapper.CaracteristicaMapper;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -81,17 +79,15 @@ public class CaracteristicaService {
 
     /**
      * Get all the caracteristicas.
+     * <p>
+     * Only the id of the dispositivo is selected, so it is not loaded.
      *
      * @return the list of entities.
      */
     @Transactional(readOnly = true)
     public List<CaracteristicaDTO> findAll() {
         LOG.debug("Request to get all Caracteristicas");
-        return caracteristicaRepository
-            .findAll()
-            .stream()
-            .map(caracteristicaMapper::toDto)
-            .collect(Collectors.toCollection(LinkedList::new));
+        return caracteristicaRepository.findAllAsDto();
     }
 
     /**
@@ -0,0 +1,172 @@
+package edu.um.alumno.service;
+
+import edu.um.alumno.config.ApplicationProperties;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Loads the device catalog into the Hibernate second-level cache at startup, so the first requests after a deploy do not
+ * read every entity and collection from the database one by one.
+ * <p>
+ * Each collection of the catalog is read with one set-based join fetch, and the queries run in parallel, each in its own
+ * read-only transaction. Until they finish, or {@code application.cache.warmup.timeout} passes, the instance reports
+ * itself out of service on the readiness probe, see {@code CatalogCacheHealthIndicator}. A warmup that fails or times
+ * out only leaves the cache cold: it never keeps the instance out of service.
+ */
+@Service
+public class CatalogCacheWarmer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogCacheWarmer.class);
+
+    private static final List<String> QUERIES = List.of(
+        "select dispositivo from Dispositivo dispositivo left join fetch dispositivo.caracteristicas",
+        "select dispositivo from Dispositivo dispositivo left join fetch dispositivo.personalizaciones",
+        "select dispositivo from Dispositivo dispositivo left join fetch dispositivo.adicionales",
+        "select personalizacion from Personalizacion personalizacion left join fetch personalizacion.opciones",
+        "select adicional from Adicional adicional left join fetch adicional.dispositivos"
+    );
+
+    /**
+     * The state of the warmup.
+     */
+    public enum Estado {
+        /**
+         * The application has not started yet.
+         */
+        PENDING,
+        /**
+         * The catalog is being loaded.
+         */
+        WARMING,
+        /**
+         * The catalog was loaded.
+         */
+        DONE,
+        /**
+         * The catalog took longer than the timeout; it is still being loaded.
+         */
+        TIMED_OUT,
+        /**
+         * Loading the catalog failed; the regions fill as the catalog is read.
+         */
+        FAILED,
+        /**
+         * The warmup is disabled.
+         */
+        DISABLED,
+    }
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ApplicationProperties.Cache.Warmup properties;
+
+    private final ThreadPoolTaskExecutor workers;
+
+    private volatile Estado estado = Estado.PENDING;
+
+    private final AtomicLong loaded = new AtomicLong();
+
+    private volatile long entries = -1;
+
+    private volatile long durationMs = -1;
+
+    public CatalogCacheWarmer(
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = applicationProperties.getCache().getWarmup();
+
+        // One thread per query, idle once the warmup is over.
+        this.workers = new ThreadPoolTaskExecutor();
+        this.workers.setCorePoolSize(QUERIES.size());
+        this.workers.setMaxPoolSize(QUERIES.size());
+        this.workers.setAllowCoreThreadTimeOut(true);
+        this.workers.setKeepAliveSeconds(10);
+        this.workers.setThreadNamePrefix("catalog-warmup-");
+        this.workers.initialize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled()) {
+            estado = Estado.DISABLED;
+            return;
+        }
+        estado = Estado.WARMING;
+        long start = System.nanoTime();
+        LOG.info("Warming up the catalog cache regions");
+        CompletableFuture<?>[] loads = QUERIES.stream()
+            .map(query -> CompletableFuture.runAsync(() -> load(query), workers))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(loads)
+            .orTimeout(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((result, error) -> {
+                durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                entries = loaded.get();
+                if (error == null) {
+                    estado = Estado.DONE;
+                    LOG.info("Warmed up the catalog cache regions in {} ms, {} entries loaded", durationMs, entries);
+                } else if (error instanceof TimeoutException) {
+                    estado = Estado.TIMED_OUT;
+                    LOG.warn("Catalog cache warmup still running after {} ms, {} entries loaded so far", durationMs, entries);
+                } else {
+                    estado = Estado.FAILED;
+                    LOG.warn("Catalog cache warmup failed after {} ms, {} entries loaded: {}", durationMs, entries, error.getMessage());
+                }
+            });
+    }
+
+    // Counts what the query put in the cache regions, without reading the regions back: the entities of the session, and
+    // the collection fetched for each root.
+    private void load(String query) {
+        Long count = readOnlyTransaction.execute(status -> {
+            List<?> roots = entityManager.createQuery(query).getResultList();
+            return (long) entityManager.unwrap(Session.class).getStatistics().getEntityCount() + roots.size();
+        });
+        loaded.addAndGet(count == null ? 0 : count);
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    /**
+     * The entities and collections loaded by the queries that finished before the warmup did or timed out, or {@code -1}
+     * before. An entity read by several queries is counted once per query.
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * How long the warmup took until it finished or timed out, or {@code -1} before.
+     */
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,11 @@
+package edu.um.alumno.service;
+
+/**
+ * Published inside the transaction of any write to the device catalog (devices, personalizaciones, opciones and
+ * adicionales), by the entity services and by the catalog sync when it applies a change.
+ * <p>
+ * Listeners that keep a view of the catalog in memory should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener} with {@code fallbackExecution = true}, so
+ * they rebuild it only once the change is committed.
+ */
+public final class CatalogChangedEvent {}
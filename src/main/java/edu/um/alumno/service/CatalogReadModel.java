@@ -0,0 +1,237 @@
+package edu.um.alumno.service;
+
+import edu.um.alumno.domain.Dispositivo;
+import edu.um.alumno.repository.DispositivoRepository;
+import edu.um.alumno.service.dto.AdicionalDTO;
+import edu.um.alumno.service.dto.DispositivoDTO;
+import edu.um.alumno.service.dto.PersonalizacionDTO;
+import edu.um.alumno.service.mapper.DispositivoMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fully materialized, immutable copy of the device catalog, used to serve catalog reads without database round trips.
+ * <p>
+ * A {@link Snapshot} holds every {@link DispositivoDTO} with all its relationships and the ids in order, for paging.
+ * It is rebuilt in the background after every committed {@link CatalogChangedEvent} and swapped in one volatile write,
+ * so readers always see one consistent version, at most one rebuild behind the database.
+ */
+@Service
+public class CatalogReadModel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogReadModel.class);
+
+    private static final String ID_PROPERTY = "id";
+
+    private final DispositivoRepository dispositivoRepository;
+
+    private final DispositivoMapper dispositivoMapper;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final CoalescingRebuilder rebuilder;
+
+    private volatile Snapshot snapshot;
+
+    public CatalogReadModel(
+        DispositivoRepository dispositivoRepository,
+        DispositivoMapper dispositivoMapper,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor
+    ) {
+        this.dispositivoRepository = dispositivoRepository;
+        this.dispositivoMapper = dispositivoMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuilder = new CoalescingRebuilder(taskExecutor, this::rebuild);
+    }
+
+    /**
+     * Get the current version of the catalog, built on first use if needed.
+     *
+     * @return the current snapshot.
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuilder.rebuildNow();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * Whether a page can be served from the read model, which only keeps the devices ordered by id.
+     *
+     * @param pageable the pagination information.
+     * @return {@code true} if the page is unsorted or sorted by id only.
+     */
+    public static boolean supports(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted()) {
+            return true;
+        }
+        List<Sort.Order> orders = sort.toList();
+        return orders.size() == 1 && ID_PROPERTY.equals(orders.get(0).getProperty());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuilder.request();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        rebuilder.request();
+    }
+
+    // Run by the rebuilder, one at a time, so each snapshot is exactly one version after the previous one.
+    private void rebuild() {
+        long start = System.nanoTime();
+        Map<Long, DispositivoDTO> byId = readOnlyTransaction.execute(status -> load());
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(previous == null ? 1 : previous.version + 1, byId);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        LOG.debug("Built catalog read model version {} with {} dispositivos in {} ms", snapshot.version, byId.size(), millis);
+    }
+
+    private Map<Long, DispositivoDTO> load() {
+        Map<Long, DispositivoDTO> byId = new HashMap<>();
+        for (Dispositivo dispositivo : dispositivoRepository.findAllWithEagerRelationships()) {
+            DispositivoDTO dispositivoDTO = dispositivoMapper.toDto(dispositivo);
+            if (dispositivoDTO != null) {
+                byId.put(dispositivoDTO.getId(), freeze(dispositivoDTO));
+            }
+        }
+        return Map.copyOf(byId);
+    }
+
+    // The DTOs are shared by every reader, so their collections are made read-only.
+    private static DispositivoDTO freeze(DispositivoDTO dispositivoDTO) {
+        dispositivoDTO.setCaracteristicas(readOnly(dispositivoDTO.getCaracteristicas()));
+        dispositivoDTO.setAdicionales(readOnly(dispositivoDTO.getAdicionales()));
+        dispositivoDTO.setPersonalizaciones(readOnly(dispositivoDTO.getPersonalizaciones()));
+        for (PersonalizacionDTO personalizacionDTO : dispositivoDTO.getPersonalizaciones()) {
+            personalizacionDTO.setOpciones(readOnly(personalizacionDTO.getOpciones()));
+        }
+        for (AdicionalDTO adicionalDTO : dispositivoDTO.getAdicionales()) {
+            adicionalDTO.setDispositivos(readOnly(adicionalDTO.getDispositivos()));
+        }
+        return dispositivoDTO;
+    }
+
+    private static <T> Set<T> readOnly(Set<T> set) {
+        return set == null ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * One version of the catalog. Its DTOs are shared and must not be modified.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+
+        private final Map<Long, DispositivoDTO> byId;
+
+        private final long[] ids;
+
+        private Snapshot(long version, Map<Long, DispositivoDTO> byId) {
+            this.version = version;
+            this.byId = byId;
+            this.ids = byId.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+
+        /**
+         * A number that grows with every rebuild of the read model.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public Optional<DispositivoDTO> findOne(Long id) {
+            return Optional.ofNullable(byId.get(id));
+        }
+
+        /**
+         * Get a page of devices ordered by id.
+         *
+         * @param pageable the pagination information, see {@link CatalogReadModel#supports(Pageable)}.
+         * @return the page.
+         */
+        public Page<DispositivoDTO> findAll(Pageable pageable) {
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(slice(0, ids.length, isDescending(pageable)), pageable, ids.length);
+            }
+            long offset = Math.min(pageable.getOffset(), ids.length);
+            int from = (int) offset;
+            int to = (int) Math.min(offset + pageable.getPageSize(), ids.length);
+            return new PageImpl<>(slice(from, to, isDescending(pageable)), pageable, ids.length);
+        }
+
+        /**
+         * Get the devices that follow a given id, ordered by id.
+         *
+         * @param id the last id of the previous page, or {@code null} for the first page.
+         * @param size the number of devices of the page.
+         * @return the slice.
+         */
+        public Slice<DispositivoDTO> findAfter(Long id, int size) {
+            int from = 0;
+            if (id != null) {
+                int index = Arrays.binarySearch(ids, id);
+                from = index >= 0 ? index + 1 : -index - 1;
+            }
+            int to = (int) Math.min((long) from + size, ids.length);
+            return new SliceImpl<>(slice(from, to, false), PageRequest.ofSize(size), to < ids.length);
+        }
+
+        private List<DispositivoDTO> slice(int from, int to, boolean descending) {
+            List<DispositivoDTO> content = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                content.add(byId.get(ids[descending ? ids.length - 1 - i : i]));
+            }
+            return content;
+        }
+
+        private static boolean isDescending(Pageable pageable) {
+            Sort.Order order = pageable.getSort().getOrderFor(ID_PROPERTY);
+            return order != null && order.isDescending();
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                "version=" + version +
+                ", size=" + ids.length +
+                "}";
+        }
+    }
+}
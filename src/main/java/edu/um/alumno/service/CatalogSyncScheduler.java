@@ -0,0 +1,183 @@
+package edu.um.alumno.service;
+
+import edu.um.alumno.config.ApplicationProperties;
+import edu.um.alumno.service.dto.DispositivoSyncResultDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Schedules the catalog sync of {@link ApiSyncService}.
+ * <p>
+ * Runs never overlap: a run requested while another one is in progress (scheduled or manual) is skipped. The next
+ * scheduled run starts {@code application.sync.interval} plus a random jitter after the previous one ends, and the
+ * first one starts {@code application.sync.initial-delay} after startup, so startup never waits on the cátedra.
+ */
+@Component
+public class CatalogSyncScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogSyncScheduler.class);
+
+    private static final String METRIC_PREFIX = "techmarket.sync.";
+
+    private final ApiSyncService apiSyncService;
+
+    private final ApplicationProperties.Sync properties;
+
+    private final ThreadPoolTaskScheduler taskScheduler;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong lastSuccessEpochSeconds = new AtomicLong();
+
+    private final Timer successTimer;
+
+    private final Timer failureTimer;
+
+    private volatile boolean shuttingDown;
+
+    private volatile Instant nextRun;
+
+    public CatalogSyncScheduler(ApiSyncService apiSyncService, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.apiSyncService = apiSyncService;
+        this.properties = applicationProperties.getSync();
+
+        this.taskScheduler = new ThreadPoolTaskScheduler();
+        this.taskScheduler.setPoolSize(1);
+        this.taskScheduler.setThreadNamePrefix("catalog-sync-");
+        // On shutdown, let a running sync finish but drop the pending scheduled one.
+        this.taskScheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.taskScheduler.setWaitForTasksToCompleteOnShutdown(true);
+        this.taskScheduler.setAwaitTerminationSeconds(30);
+        this.taskScheduler.initialize();
+
+        this.successTimer = Timer.builder(METRIC_PREFIX + "duration")
+            .description("Duration of the catalog sync runs")
+            .tag("outcome", "success")
+            .register(meterRegistry);
+        this.failureTimer = Timer.builder(METRIC_PREFIX + "duration")
+            .description("Duration of the catalog sync runs")
+            .tag("outcome", "failure")
+            .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "last.success", lastSuccessEpochSeconds, AtomicLong::get)
+            .description("Epoch second of the last successful catalog sync")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        registerDevicesGauge(meterRegistry, "inserted");
+        registerDevicesGauge(meterRegistry, "updated");
+        registerDevicesGauge(meterRegistry, "unchanged");
+        registerDevicesGauge(meterRegistry, "deleted");
+    }
+
+    private void registerDevicesGauge(MeterRegistry meterRegistry, String state) {
+        Gauge.builder(METRIC_PREFIX + "devices", this, scheduler -> scheduler.lastDeviceCount(state))
+            .description("Devices written or deleted by the last catalog sync that applied changes")
+            .tag("state", state)
+            .register(meterRegistry);
+    }
+
+    private double lastDeviceCount(String state) {
+        DispositivoSyncResultDTO result = apiSyncService.getLastResult();
+        if (result == null) {
+            return 0;
+        }
+        return switch (state) {
+            case "inserted" -> result.getInserted();
+            case "updated" -> result.getUpdated();
+            case "deleted" -> result.getDeleted();
+            default -> result.getUnchanged();
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            LOG.info("Scheduled catalog sync is disabled");
+            return;
+        }
+        LOG.info("Scheduling catalog sync every {} (jitter {})", properties.getInterval(), properties.getJitter());
+        scheduleNext(properties.getInitialDelay());
+    }
+
+    /**
+     * Start a sync now, in the background, unless one is already running.
+     *
+     * @return {@code true} if a run was started, {@code false} if one was already in progress.
+     */
+    public boolean triggerNow() {
+        if (shuttingDown || running.get()) {
+            return false;
+        }
+        taskScheduler.execute(this::runOnce);
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Instant getLastSuccess() {
+        long epochSeconds = lastSuccessEpochSeconds.get();
+        return epochSeconds == 0 ? null : Instant.ofEpochSecond(epochSeconds);
+    }
+
+    public Instant getNextRun() {
+        return nextRun;
+    }
+
+    private void runScheduled() {
+        try {
+            runOnce();
+        } finally {
+            scheduleNext(properties.getInterval());
+        }
+    }
+
+    private void runOnce() {
+        if (!running.compareAndSet(false, true)) {
+            LOG.info("Catalog sync already in progress, skipping this run");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            apiSyncService.syncDataWithRetry();
+            successTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            lastSuccessEpochSeconds.set(Instant.now().getEpochSecond());
+        } catch (RuntimeException e) {
+            failureTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            LOG.error("Catalog sync failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void scheduleNext(Duration delay) {
+        if (shuttingDown) {
+            return;
+        }
+        long jitterMillis = properties.getJitter().toMillis();
+        long extraMillis = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0;
+        nextRun = Instant.now().plus(delay).plusMillis(extraMillis);
+        taskScheduler.schedule(this::runScheduled, nextRun);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        LOG.info("Stopping catalog sync scheduler");
+        shuttingDown = true;
+        nextRun = null;
+        taskScheduler.shutdown();
+    }
+}
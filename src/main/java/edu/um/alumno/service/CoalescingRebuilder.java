@@ -0,0 +1,44 @@
+package edu.um.alumno.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the rebuild of an in-memory copy of the catalog in the background, once per burst of requests.
+ * <p>
+ * A request made while another one is still waiting to start is merged into it, so the events of one sync (one per
+ * chunk) cause as few rebuilds as possible. Rebuilds never run concurrently, so one that started earlier, on older data,
+ * never overwrites a newer one.
+ */
+final class CoalescingRebuilder {
+
+    private final Executor executor;
+
+    private final Runnable rebuild;
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    CoalescingRebuilder(Executor executor, Runnable rebuild) {
+        this.executor = executor;
+        this.rebuild = rebuild;
+    }
+
+    /**
+     * Rebuild in the background, unless a rebuild is already waiting to start.
+     */
+    void request() {
+        if (pending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                pending.set(false);
+                rebuildNow();
+            });
+        }
+    }
+
+    /**
+     * Rebuild in the calling thread, once the rebuild in progress, if any, is over.
+     */
+    synchronized void rebuildNow() {
+        rebuild.run();
+    }
+}
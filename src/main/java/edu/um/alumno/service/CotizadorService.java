@@ -0,0 +1,348 @@
+package edu.um.alumno.service;
+
+import edu.um.alumno.config.ApplicationProperties;
+import edu.um.alumno.repository.AdicionalPrecio;
+import edu.um.alumno.repository.AdicionalRepository;
+import edu.um.alumno.repository.DispositivoPrecio;
+import edu.um.alumno.repository.DispositivoRepository;
+import edu.um.alumno.repository.OpcionPrecio;
+import edu.um.alumno.repository.OpcionRepository;
+import edu.um.alumno.service.dto.CotizacionDTO;
+import edu.um.alumno.service.dto.CotizacionRequestDTO;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Prices configurations of a {@link edu.um.alumno.domain.Dispositivo} from an in-memory copy of the catalog prices.
+ * <p>
+ * Every device is compiled into an immutable {@link TablaPrecios} of sorted id arrays and prices in cents, so a quote
+ * is a few binary searches and long additions, without touching the database. The whole set of tables is rebuilt in
+ * the background and swapped in one write after every {@link CatalogChangedEvent}; quotes keep reading the previous
+ * tables meanwhile.
+ * <p>
+ * Price rules: the final price is the base price, plus the precioAdicional of each selected opción (at most one per
+ * personalización), plus the precio of each selected adicional. An adicional is free when its precioGratis is not
+ * negative and the base price plus the opciones exceeds it.
+ */
+@Service
+public class CotizadorService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CotizadorService.class);
+
+    private static final String ENTITY_NAME = "dispositivo";
+
+    private static final long NUNCA_GRATIS = -1;
+
+    private final DispositivoRepository dispositivoRepository;
+
+    private final OpcionRepository opcionRepository;
+
+    private final AdicionalRepository adicionalRepository;
+
+    private final ApplicationProperties.Batch batchProperties;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final CoalescingRebuilder rebuilder;
+
+    private volatile Map<Long, TablaPrecios> tablas;
+
+    public CotizadorService(
+        DispositivoRepository dispositivoRepository,
+        OpcionRepository opcionRepository,
+        AdicionalRepository adicionalRepository,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor
+    ) {
+        this.dispositivoRepository = dispositivoRepository;
+        this.opcionRepository = opcionRepository;
+        this.adicionalRepository = adicionalRepository;
+        this.batchProperties = applicationProperties.getBatch();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuilder = new CoalescingRebuilder(taskExecutor, this::rebuild);
+    }
+
+    /**
+     * Price one configuration of a device.
+     *
+     * @param dispositivoId the id of the device.
+     * @param cotizacionRequestDTO the selected opciones and adicionales.
+     * @return the quote, or empty if the device does not exist.
+     * @throws InvalidRequestException if an opción or adicional does not belong to the device, or two opciones belong
+     * to the same personalización.
+     */
+    public Optional<CotizacionDTO> cotizar(Long dispositivoId, CotizacionRequestDTO cotizacionRequestDTO) {
+        TablaPrecios tabla = getTablas().get(dispositivoId);
+        return tabla == null ? Optional.empty() : Optional.of(tabla.cotizar(cotizacionRequestDTO));
+    }
+
+    /**
+     * Price several configurations, each with its own {@code dispositivoId}, against the same version of the prices.
+     *
+     * @param cotizacionRequestDTOs the configurations, at most {@code application.batch.max-size}.
+     * @return the quotes, in the same order.
+     * @throws InvalidRequestException if the batch is empty or too large, a device does not exist or a configuration is
+     * not valid.
+     */
+    public List<CotizacionDTO> cotizar(List<CotizacionRequestDTO> cotizacionRequestDTOs) {
+        int maxSize = batchProperties.getMaxSize();
+        if (cotizacionRequestDTOs == null || cotizacionRequestDTOs.isEmpty() || cotizacionRequestDTOs.size() > maxSize) {
+            throw new InvalidRequestException(
+                "A batch must have between 1 and " + maxSize + " configurations",
+                ENTITY_NAME,
+                "batchsizeinvalid"
+            );
+        }
+        Map<Long, TablaPrecios> snapshot = getTablas();
+        List<CotizacionDTO> result = new ArrayList<>(cotizacionRequestDTOs.size());
+        for (CotizacionRequestDTO cotizacionRequestDTO : cotizacionRequestDTOs) {
+            Long dispositivoId = cotizacionRequestDTO.getDispositivoId();
+            TablaPrecios tabla = dispositivoId == null ? null : snapshot.get(dispositivoId);
+            if (tabla == null) {
+                throw new InvalidRequestException("Device not found: " + dispositivoId, ENTITY_NAME, "idnotfound");
+            }
+            result.add(tabla.cotizar(cotizacionRequestDTO));
+        }
+        return result;
+    }
+
+    private Map<Long, TablaPrecios> getTablas() {
+        Map<Long, TablaPrecios> current = tablas;
+        if (current == null) {
+            rebuilder.rebuildNow();
+            current = tablas;
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuilder.request();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        rebuilder.request();
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        Map<Long, TablaPrecios> nuevas = readOnlyTransaction.execute(status -> compilar());
+        tablas = nuevas;
+        LOG.debug("Compiled the price tables of {} dispositivos in {} ms", nuevas.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Map<Long, TablaPrecios> compilar() {
+        Map<Long, TablaBuilder> builders = new HashMap<>();
+        for (DispositivoPrecio dispositivo : dispositivoRepository.findAllPrecios()) {
+            long precioBase = centavos(dispositivo.getPrecioBase());
+            builders.put(dispositivo.getId(), new TablaBuilder(dispositivo.getId(), dispositivo.getMoneda(), precioBase));
+        }
+        for (OpcionPrecio opcion : opcionRepository.findAllPrecios()) {
+            TablaBuilder builder = builders.get(opcion.getDispositivoId());
+            if (builder != null) {
+                builder.opciones.add(new long[] { opcion.getId(), centavos(opcion.getPrecioAdicional()), opcion.getPersonalizacionId() });
+            }
+        }
+        for (AdicionalPrecio adicional : adicionalRepository.findAllPrecios()) {
+            TablaBuilder builder = builders.get(adicional.getDispositivoId());
+            if (builder != null) {
+                long umbral = adicional.getPrecioGratis() == null || adicional.getPrecioGratis().signum() < 0
+                    ? NUNCA_GRATIS
+                    : centavos(adicional.getPrecioGratis());
+                builder.adicionales.add(new long[] { adicional.getId(), centavos(adicional.getPrecio()), umbral });
+            }
+        }
+        Map<Long, TablaPrecios> result = new HashMap<>(builders.size() * 2);
+        builders.forEach((id, builder) -> result.put(id, builder.build()));
+        return Map.copyOf(result);
+    }
+
+    private static long centavos(BigDecimal precio) {
+        return precio == null ? 0 : precio.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal desdeCentavos(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    private static final class TablaBuilder {
+
+        private final long dispositivoId;
+
+        private final String moneda;
+
+        private final long precioBase;
+
+        // Filas {id, precio, personalización} y {id, precio, umbral de gratuidad}.
+        private final List<long[]> opciones = new ArrayList<>();
+
+        private final List<long[]> adicionales = new ArrayList<>();
+
+        private TablaBuilder(long dispositivoId, String moneda, long precioBase) {
+            this.dispositivoId = dispositivoId;
+            this.moneda = moneda;
+            this.precioBase = precioBase;
+        }
+
+        private TablaPrecios build() {
+            opciones.sort((a, b) -> Long.compare(a[0], b[0]));
+            adicionales.sort((a, b) -> Long.compare(a[0], b[0]));
+
+            long[] opcionIds = new long[opciones.size()];
+            long[] opcionPrecios = new long[opciones.size()];
+            int[] opcionGrupos = new int[opciones.size()];
+            Map<Long, Integer> grupos = new HashMap<>();
+            for (int i = 0; i < opciones.size(); i++) {
+                long[] opcion = opciones.get(i);
+                opcionIds[i] = opcion[0];
+                opcionPrecios[i] = opcion[1];
+                opcionGrupos[i] = grupos.computeIfAbsent(opcion[2], personalizacionId -> grupos.size());
+            }
+
+            long[] adicionalIds = new long[adicionales.size()];
+            long[] adicionalPrecios = new long[adicionales.size()];
+            long[] adicionalUmbrales = new long[adicionales.size()];
+            for (int i = 0; i < adicionales.size(); i++) {
+                long[] adicional = adicionales.get(i);
+                adicionalIds[i] = adicional[0];
+                adicionalPrecios[i] = adicional[1];
+                adicionalUmbrales[i] = adicional[2];
+            }
+            return new TablaPrecios(
+                dispositivoId,
+                moneda,
+                precioBase,
+                opcionIds,
+                opcionPrecios,
+                opcionGrupos,
+                grupos.size(),
+                adicionalIds,
+                adicionalPrecios,
+                adicionalUmbrales
+            );
+        }
+    }
+
+    /**
+     * The prices of one device, in cents. Arrays are sorted by id and never modified after construction.
+     */
+    private static final class TablaPrecios {
+
+        private final long dispositivoId;
+
+        private final String moneda;
+
+        private final long precioBase;
+
+        private final long[] opcionIds;
+
+        private final long[] opcionPrecios;
+
+        // Índice de la personalización de cada opción, entre 0 y cantidadGrupos - 1.
+        private final int[] opcionGrupos;
+
+        private final int cantidadGrupos;
+
+        private final long[] adicionalIds;
+
+        private final long[] adicionalPrecios;
+
+        // precioGratis de cada adicional, o NUNCA_GRATIS.
+        private final long[] adicionalUmbrales;
+
+        private TablaPrecios(
+            long dispositivoId,
+            String moneda,
+            long precioBase,
+            long[] opcionIds,
+            long[] opcionPrecios,
+            int[] opcionGrupos,
+            int cantidadGrupos,
+            long[] adicionalIds,
+            long[] adicionalPrecios,
+            long[] adicionalUmbrales
+        ) {
+            this.dispositivoId = dispositivoId;
+            this.moneda = moneda;
+            this.precioBase = precioBase;
+            this.opcionIds = opcionIds;
+            this.opcionPrecios = opcionPrecios;
+            this.opcionGrupos = opcionGrupos;
+            this.cantidadGrupos = cantidadGrupos;
+            this.adicionalIds = adicionalIds;
+            this.adicionalPrecios = adicionalPrecios;
+            this.adicionalUmbrales = adicionalUmbrales;
+        }
+
+        private CotizacionDTO cotizar(CotizacionRequestDTO cotizacionRequestDTO) {
+            List<Long> opciones = cotizacionRequestDTO.getOpciones() != null ? cotizacionRequestDTO.getOpciones() : List.of();
+            List<Long> adicionales = cotizacionRequestDTO.getAdicionales() != null ? cotizacionRequestDTO.getAdicionales() : List.of();
+
+            long precioOpciones = 0;
+            boolean[] gruposElegidos = new boolean[cantidadGrupos];
+            for (Long opcionId : opciones) {
+                int index = opcionId == null ? -1 : Arrays.binarySearch(opcionIds, opcionId);
+                if (index < 0) {
+                    throw new InvalidRequestException(
+                        "Invalid opcion for device " + dispositivoId + ": " + opcionId,
+                        ENTITY_NAME,
+                        "opcioninvalid"
+                    );
+                }
+                int grupo = opcionGrupos[index];
+                if (gruposElegidos[grupo]) {
+                    throw new InvalidRequestException("Only one opcion per personalizacion: " + opcionId, ENTITY_NAME, "opcionrepetida");
+                }
+                gruposElegidos[grupo] = true;
+                precioOpciones += opcionPrecios[index];
+            }
+
+            long subtotal = precioBase + precioOpciones;
+            long precioAdicionales = 0;
+            boolean[] adicionalesElegidos = new boolean[adicionalIds.length];
+            for (Long adicionalId : adicionales) {
+                int index = adicionalId == null ? -1 : Arrays.binarySearch(adicionalIds, adicionalId);
+                if (index < 0 || adicionalesElegidos[index]) {
+                    throw new InvalidRequestException(
+                        "Invalid adicional for device " + dispositivoId + ": " + adicionalId,
+                        ENTITY_NAME,
+                        "adicionalinvalid"
+                    );
+                }
+                adicionalesElegidos[index] = true;
+                long umbral = adicionalUmbrales[index];
+                if (umbral == NUNCA_GRATIS || subtotal <= umbral) {
+                    precioAdicionales += adicionalPrecios[index];
+                }
+            }
+
+            CotizacionDTO cotizacionDTO = new CotizacionDTO();
+            cotizacionDTO.setDispositivoId(dispositivoId);
+            cotizacionDTO.setMoneda(moneda);
+            cotizacionDTO.setPrecioBase(desdeCentavos(precioBase));
+            cotizacionDTO.setPrecioOpciones(desdeCentavos(precioOpciones));
+            cotizacionDTO.setPrecioAdicionales(desdeCentavos(precioAdicionales));
+            cotizacionDTO.setPrecioFinal(desdeCentavos(subtotal + precioAdicionales));
+            return cotizacionDTO;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package edu.um.alumno.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.um.alumno.service.dto.DispositivoDTO;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes a compact content fingerprint for a {@link DispositivoDTO} received from the cátedra catalog.
+ * <p>
+ * The DTO is rendered as canonical JSON (object keys sorted, collections sorted, decimals without trailing zeros)
+ * and hashed with 64-bit FNV-1a, so two devices with the same content always get the same fingerprint regardless
+ * of the order in which the remote API returns their caracteristicas, personalizaciones, opciones or adicionales.
+ */
+@Component
+public class DispositivoFingerprinter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ObjectMapper objectMapper;
+
+    public DispositivoFingerprinter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Fingerprint of a device.
+     *
+     * @param dispositivoDTO the device as received from the remote catalog.
+     * @return the 64-bit fingerprint of its canonical JSON.
+     */
+    public long fingerprint(DispositivoDTO dispositivoDTO) {
+        StringBuilder canonical = new StringBuilder(512);
+        appendCanonical(objectMapper.valueToTree(dispositivoDTO), canonical);
+        return fnv1a64(canonical.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendCanonical(JsonNode node, StringBuilder out) {
+        if (node.isObject()) {
+            Map<String, JsonNode> sorted = new TreeMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+                Map.Entry<String, JsonNode> field = it.next();
+                sorted.put(field.getKey(), field.getValue());
+            }
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, JsonNode> field : sorted.entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                out.append('"').append(field.getKey()).append("\":");
+                appendCanonical(field.getValue(), out);
+            }
+            out.append('}');
+        } else if (node.isArray()) {
+            // The catalog collections are sets, so their order carries no meaning.
+            List<String> elements = new ArrayList<>(node.size());
+            for (JsonNode element : node) {
+                StringBuilder elementOut = new StringBuilder();
+                appendCanonical(element, elementOut);
+                elements.add(elementOut.toString());
+            }
+            elements.sort(null);
+            out.append('[').append(String.join(",", elements)).append(']');
+        } else if (node.isNumber()) {
+            out.append(node.decimalValue().stripTrailingZeros().toPlainString());
+        } else {
+            out.append(node.toString());
+        }
+    }
+
+    private static long fnv1a64(byte[] bytes) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : bytes) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
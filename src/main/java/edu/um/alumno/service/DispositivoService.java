@@ -1,18 +1,39 @@
 package edu.um.alumno.service;
 
+import edu.um.alumno.domain.Adicional;
+import edu.um.alumno.domain.Caracteristica;
 import edu.um.alumno.domain.Dispositivo;
+import edu.um.alumno.domain.Opcion;
+import edu.um.alumno.domain.Personalizacion;
+import edu.um.alumno.repository.DispositivoBulkRepository;
+import edu.um.alumno.repository.DispositivoFingerprint;
 import edu.um.alumno.repository.DispositivoRepository;
+import edu.um.alumno.service.dto.DispositivoBulkDeleteResultDTO;
 import edu.um.alumno.service.dto.DispositivoDTO;
+import edu.um.alumno.service.dto.DispositivoSyncResultDTO;
 import edu.um.alumno.service.mapper.DispositivoMapper;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service Implementation for managing {@link edu.um.alumno.domain.Dispositivo}.
@@ -27,9 +48,32 @@ public class DispositivoService {
 
     private final DispositivoMapper dispositivoMapper;
 
-    public DispositivoService(DispositivoRepository dispositivoRepository, DispositivoMapper dispositivoMapper) {
+    private final DispositivoBulkRepository dispositivoBulkRepository;
+
+    private final DispositivoFingerprinter dispositivoFingerprinter;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final CatalogReadModel catalogReadModel;
+
+    public DispositivoService(
+        DispositivoRepository dispositivoRepository,
+        DispositivoMapper dispositivoMapper,
+        DispositivoBulkRepository dispositivoBulkRepository,
+        DispositivoFingerprinter dispositivoFingerprinter,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationEventPublisher applicationEventPublisher,
+        CatalogReadModel catalogReadModel
+    ) {
         this.dispositivoRepository = dispositivoRepository;
         this.dispositivoMapper = dispositivoMapper;
+        this.dispositivoBulkRepository = dispositivoBulkRepository;
+        this.dispositivoFingerprinter = dispositivoFingerprinter;
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.catalogReadModel = catalogReadModel;
     }
 
     /**
@@ -44,6 +88,7 @@ public class DispositivoService {
             Dispositivo dispositivo = dispositivoMapper.toEntity(dispositivoDTO);
             dispositivo = dispositivoRepository.save(dispositivo);
             LOG.info("Dispositivo saved with ID: {}", dispositivo.getId());
+            applicationEventPublisher.publishEvent(new CatalogChangedEvent());
             return dispositivoMapper.toDto(dispositivo);
         } catch (Exception e) {
             LOG.error("Error saving Dispositivo with ID: {}", dispositivoDTO.getId());
@@ -51,6 +96,151 @@ public class DispositivoService {
         }
     }
 
+    /**
+     * Insert or update, in one transaction and with JDBC batches, the dispositivos received from the remote catalog.
+     * <p>
+     * Only the devices whose content fingerprint differs from the local one are written, together with all their
+     * children. A device repeated in the list is written once, as its last occurrence. The second-level cache of the
+     * written devices is evicted once the transaction commits.
+     *
+     * @param dispositivoDTOs the devices as received from the remote catalog.
+     * @param localFingerprints the current local fingerprints by id, as returned by {@link #findFingerprints()}; updated
+     * with the written ones, so a device repeated in a later chunk of the same catalog is not inserted twice.
+     * @return the counts of inserted, updated and unchanged devices.
+     */
+    public DispositivoSyncResultDTO upsertSynced(List<DispositivoDTO> dispositivoDTOs, Map<Long, Long> localFingerprints) {
+        LOG.debug("Request to upsert {} synced Dispositivos", dispositivoDTOs.size());
+        Map<Long, DispositivoDTO> received = new LinkedHashMap<>();
+        for (DispositivoDTO dispositivoDTO : dispositivoDTOs) {
+            if (received.put(dispositivoDTO.getId(), dispositivoDTO) != null) {
+                LOG.warn("Dispositivo {} is repeated in the remote catalog, the last one is kept", dispositivoDTO.getId());
+            }
+        }
+
+        Map<Long, DispositivoBulkRepository.Changed> changed = new LinkedHashMap<>();
+        List<Long> existingIds = new ArrayList<>();
+        int unchanged = 0;
+        for (DispositivoDTO dispositivoDTO : received.values()) {
+            long fingerprint = dispositivoFingerprinter.fingerprint(dispositivoDTO);
+            Long localFingerprint = localFingerprints.get(dispositivoDTO.getId());
+            if (localFingerprint != null && localFingerprint == fingerprint) {
+                unchanged++;
+                continue;
+            }
+            if (localFingerprints.containsKey(dispositivoDTO.getId())) {
+                existingIds.add(dispositivoDTO.getId());
+            }
+            changed.put(dispositivoDTO.getId(), new DispositivoBulkRepository.Changed(dispositivoDTO, fingerprint));
+        }
+
+        dispositivoBulkRepository.upsertAll(changed, existingIds);
+        changed.forEach((id, dispositivo) -> localFingerprints.put(id, dispositivo.getFingerprint()));
+        List<Long> changedIds = new ArrayList<>(changed.keySet());
+        evictCatalogCacheAfterCommit(changedIds, false);
+        if (!changedIds.isEmpty()) {
+            applicationEventPublisher.publishEvent(new CatalogChangedEvent());
+        }
+
+        DispositivoSyncResultDTO result = new DispositivoSyncResultDTO(changed.size() - existingIds.size(), existingIds.size(), unchanged);
+        LOG.info("Synced Dispositivos upserted: {}", result);
+        return result;
+    }
+
+    /**
+     * Same as {@link #upsertSynced(List, Map)}, reading the local fingerprints first.
+     *
+     * @param dispositivoDTOs the devices as received from the remote catalog.
+     * @return the counts of inserted, updated and unchanged devices.
+     */
+    public DispositivoSyncResultDTO upsertSynced(List<DispositivoDTO> dispositivoDTOs) {
+        return upsertSynced(dispositivoDTOs, findFingerprints());
+    }
+
+    /**
+     * Delete the given dispositivos and their children with a few set-based statements, without loading them.
+     * <p>
+     * The second-level cache of the catalog and the cached catalog queries are evicted once the transaction commits.
+     *
+     * @param ids the ids of the devices; the ids that do not exist are ignored.
+     * @return the number of rows deleted from each table.
+     */
+    public DispositivoBulkDeleteResultDTO deleteAll(Collection<Long> ids) {
+        return deleteAll(ids, true);
+    }
+
+    /**
+     * Same as {@link #deleteAll(Collection)} for the devices dropped from the remote catalog, leaving the cached catalog
+     * queries to the caller, see {@link #evictCatalogQueries()}.
+     *
+     * @param ids the ids of the devices.
+     * @return the number of rows deleted from each table.
+     */
+    public DispositivoBulkDeleteResultDTO deleteSynced(Collection<Long> ids) {
+        return deleteAll(ids, false);
+    }
+
+    private DispositivoBulkDeleteResultDTO deleteAll(Collection<Long> ids, boolean evictQueries) {
+        LOG.debug("Request to delete {} Dispositivos", ids.size());
+        if (ids.isEmpty()) {
+            return new DispositivoBulkDeleteResultDTO();
+        }
+        DispositivoBulkDeleteResultDTO result = dispositivoBulkRepository.deleteAll(ids);
+        evictCatalogCacheAfterCommit(new ArrayList<>(ids), evictQueries);
+        if (result.getDispositivos() > 0) {
+            applicationEventPublisher.publishEvent(new CatalogChangedEvent());
+        }
+        LOG.info("Dispositivos deleted: {}", result);
+        return result;
+    }
+
+    private void evictCatalogCacheAfterCommit(List<Long> dispositivoIds, boolean evictQueries) {
+        if (dispositivoIds.isEmpty()) {
+            return;
+        }
+        Runnable evict = () -> {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            if (evictQueries) {
+                cache.evictQueryRegion(DispositivoRepository.DISPOSITIVO_QUERIES_CACHE);
+            }
+            for (Long id : dispositivoIds) {
+                cache.evictEntityData(Dispositivo.class, id);
+                cache.evictCollectionData(Dispositivo.class.getName() + ".caracteristicas", id);
+                cache.evictCollectionData(Dispositivo.class.getName() + ".personalizaciones", id);
+                cache.evictCollectionData(Dispositivo.class.getName() + ".adicionales", id);
+            }
+            cache.evictEntityData(Caracteristica.class);
+            cache.evictEntityData(Personalizacion.class);
+            cache.evictCollectionData(Personalizacion.class.getName() + ".opciones");
+            cache.evictEntityData(Opcion.class);
+            cache.evictEntityData(Adicional.class);
+            cache.evictCollectionData(Adicional.class.getName() + ".dispositivos");
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evict.run();
+                    }
+                }
+            );
+        } else {
+            evict.run();
+        }
+    }
+
+    /**
+     * Evict the cached catalog queries, once the JDBC writes of a catalog sync are committed.
+     * <p>
+     * Hibernate invalidates them on its own writes only. The sync calls this once per applied catalog rather than per
+     * chunk: until then, the cached queries may miss the devices it inserted.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void evictCatalogQueries() {
+        LOG.debug("Request to evict the cached Dispositivo queries");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(DispositivoRepository.DISPOSITIVO_QUERIES_CACHE);
+    }
+
     /**
      * Update a dispositivo.
      *
@@ -63,6 +253,7 @@ public class DispositivoService {
             Dispositivo dispositivo = dispositivoMapper.toEntity(dispositivoDTO);
             dispositivo = dispositivoRepository.save(dispositivo);
             LOG.info("Dispositivo updated with ID: {}", dispositivo.getId());
+            applicationEventPublisher.publishEvent(new CatalogChangedEvent());
             return dispositivoMapper.toDto(dispositivo);
         } catch (Exception e) {
             LOG.error("Error updating Dispositivo with ID: {}", dispositivoDTO.getId());
@@ -84,6 +275,7 @@ public class DispositivoService {
             .map(existingDispositivo -> {
                 dispositivoMapper.partialUpdate(existingDispositivo, dispositivoDTO);
                 LOG.info("Dispositivo partially updated with ID: {}", existingDispositivo.getId());
+                applicationEventPublisher.publishEvent(new CatalogChangedEvent());
 
                 return existingDispositivo;
             })
@@ -93,6 +285,8 @@ public class DispositivoService {
 
     /**
      * Get all the dispositivos.
+     * <p>
+     * Pages sorted by id (or unsorted) are served from the {@link CatalogReadModel}.
      *
      * @param pageable the pagination information.
      * @return the list of entities.
@@ -101,13 +295,31 @@ public class DispositivoService {
     @Transactional(readOnly = true)
     public Page<DispositivoDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Dispositivos");
-        return dispositivoRepository.findAll(pageable).map(dispositivoMapper::toDto);
+        if (CatalogReadModel.supports(pageable)) {
+            return catalogReadModel.getSnapshot().findAll(pageable);
+        }
+        // The mapper reads every child collection, so they are fetched with the page instead of one device at a time.
+        return dispositivoRepository.findAllWithEagerRelationships(pageable).map(dispositivoMapper::toDto);
     }
 
     @Transactional(readOnly = true)
     public List<DispositivoDTO> findAllNoPag() {
         LOG.debug("Request to get all Dispositivos without pagination");
-        return dispositivoRepository.findAll().stream().map(dispositivoMapper::toDto).collect(Collectors.toList());
+        return catalogReadModel.getSnapshot().findAll(Pageable.unpaged()).getContent();
+    }
+
+    /**
+     * Get the content fingerprint of every dispositivo, without loading the entities.
+     *
+     * @return the fingerprints by dispositivo id, with {@code null} for devices that were never synced.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Long> findFingerprints() {
+        LOG.debug("Request to get all Dispositivo fingerprints");
+        List<DispositivoFingerprint> fingerprints = dispositivoRepository.findAllFingerprints();
+        Map<Long, Long> result = new HashMap<>(fingerprints.size() * 2);
+        fingerprints.forEach(fingerprint -> result.put(fingerprint.getId(), fingerprint.getFingerprint()));
+        return result;
     }
 
     /**
@@ -116,11 +328,14 @@ public class DispositivoService {
      * @return the list of entities.
      */
     public Page<DispositivoDTO> findAllWithEagerRelationships(Pageable pageable) {
+        if (CatalogReadModel.supports(pageable)) {
+            return catalogReadModel.getSnapshot().findAll(pageable);
+        }
         return dispositivoRepository.findAllWithEagerRelationships(pageable).map(dispositivoMapper::toDto);
     }
 
     /**
-     * Get one dispositivo by id.
+     * Get one dispositivo by id, from the {@link CatalogReadModel}.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -129,7 +344,7 @@ public class DispositivoService {
     public Optional<DispositivoDTO> findOne(Long id) {
         try {
             LOG.debug("Request to get Dispositivo : {}", id);
-            return dispositivoRepository.findOneWithEagerRelationships(id).map(dispositivoMapper::toDto);
+            return catalogReadModel.getSnapshot().findOne(id);
         } catch (Exception e) {
             LOG.error("Error getting Dispositivo with ID: {}", id);
             return null;
@@ -144,10 +359,11 @@ public class DispositivoService {
     public void delete(Long id) {
         try {
             LOG.debug("Request to delete Dispositivo : {}", id);
-            dispositivoRepository.deleteById(id);
-            LOG.info("Dispositivo deleted with ID: {}", id);
+            deleteAll(List.of(id));
         } catch (Exception e) {
             LOG.error("Error deleting Dispositivo with ID: {}", id);
+            // The statements run before the failure are already sent: none of them may commit.
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
         }
     }
 
@@ -156,6 +372,7 @@ public class DispositivoService {
         List<Dispositivo> dispositivos = dispositivoDTOs.stream().map(dispositivoMapper::toEntity).collect(Collectors.toList());
         dispositivos = dispositivoRepository.saveAll(dispositivos);
         LOG.info("List of Dispositivos saved successfully");
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
         return null;
     }
 }
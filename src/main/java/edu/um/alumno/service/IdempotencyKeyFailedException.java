@@ -0,0 +1,17 @@
+package edu.um.alumno.service;
+
+/**
+ * Thrown when a sale is retried with an {@code Idempotency-Key} whose first attempt failed after the sale may have
+ * reached the cátedra, e.g. on a read timeout. Selling again could sell twice, so the key keeps the error of that
+ * attempt until the sale is reconciled by hand or the key expires.
+ * <p>
+ * The web layer answers it with {@code 502 (Bad Gateway)}.
+ */
+public class IdempotencyKeyFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyFailedException(String error) {
+        super("The sale with this Idempotency-Key may have been recorded by the cátedra: " + error);
+    }
+}
@@ -0,0 +1,15 @@
+package edu.um.alumno.service;
+
+/**
+ * Thrown when a sale is submitted with an {@code Idempotency-Key} that another instance is still processing.
+ * <p>
+ * The web layer answers it with {@code 409 (Conflict)}: the client can retry the same request later.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyInProgressException() {
+        super("A sale with this Idempotency-Key is in progress");
+    }
+}
@@ -0,0 +1,30 @@
+package edu.um.alumno.service;
+
+/**
+ * Thrown by the services when a request is not valid, e.g. a sale without a buyer.
+ * <p>
+ * The web layer answers it with {@code 400 (Bad Request)}, using the entity name and error key for the alert headers and
+ * the i18n message, as for a {@code BadRequestAlertException}.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entityName;
+
+    private final String errorKey;
+
+    public InvalidRequestException(String message, String entityName, String errorKey) {
+        super(message);
+        this.entityName = entityName;
+        this.errorKey = errorKey;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public String getErrorKey() {
+        return errorKey;
+    }
+}
@@ -0,0 +1,39 @@
+package edu.um.alumno.service;
+
+import java.util.List;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * Helpers for the keyset pages of the services, which read one row more than they return to know if there is a next
+ * page, instead of counting.
+ */
+final class KeysetSlices {
+
+    private KeysetSlices() {}
+
+    /**
+     * The page to ask the repository for.
+     *
+     * @param size the number of rows of the page.
+     * @return a first page of {@code size + 1} rows; the repository query applies the key and the order itself.
+     */
+    static Pageable probe(int size) {
+        return PageRequest.ofSize(size + 1);
+    }
+
+    /**
+     * Turn the rows read with {@link #probe(int)} into a slice.
+     *
+     * @param rows the rows, at most {@code size + 1}.
+     * @param size the number of rows of the page.
+     * @return the slice, which has a next page when the extra row was found.
+     */
+    static <T> Slice<T> of(List<T> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+    }
+}
@@ -7,8 +7,10 @@ import edu.um.alumno.service.mapper.OpcionMapper;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,9 +27,16 @@ public class OpcionService {
 
     private final OpcionMapper opcionMapper;
 
-    public OpcionService(OpcionRepository opcionRepository, OpcionMapper opcionMapper) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public OpcionService(
+        OpcionRepository opcionRepository,
+        OpcionMapper opcionMapper,
+        ApplicationEventPublisher applicationEventPublisher
+    ) {
         this.opcionRepository = opcionRepository;
         this.opcionMapper = opcionMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
@@ -40,6 +49,7 @@ public class OpcionService {
         LOG.debug("Request to save Opcion : {}", opcionDTO);
         Opcion opcion = opcionMapper.toEntity(opcionDTO);
         opcion = opcionRepository.save(opcion);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
         LOG.info("Opcion saved with ID: {}", opcion.getId());
         return opcionMapper.toDto(opcion);
     }
@@ -54,6 +64,7 @@ public class OpcionService {
         LOG.debug("Request to update Opcion : {}", opcionDTO);
         Opcion opcion = opcionMapper.toEntity(opcionDTO);
         opcion = opcionRepository.save(opcion);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
         LOG.info("Opcion updated with ID: {}", opcion.getId());
 
         return opcionMapper.toDto(opcion);
@@ -72,6 +83,7 @@ public class OpcionService {
             .findById(opcionDTO.getId())
             .map(existingOpcion -> {
                 opcionMapper.partialUpdate(existingOpcion, opcionDTO);
+                applicationEventPublisher.publishEvent(new CatalogChangedEvent());
                 LOG.info("Opcion partially updated with ID: {}", existingOpcion.getId());
                 return existingOpcion;
             })
@@ -81,6 +93,8 @@ public class OpcionService {
 
     /**
      * Get all the opcions.
+     * <p>
+     * Only the id of the personalización is selected, so it is not loaded.
      *
      * @param pageable the pagination information.
      * @return the list of entities.
@@ -88,7 +102,20 @@ public class OpcionService {
     @Transactional(readOnly = true)
     public Page<OpcionDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Opcions");
-        return opcionRepository.findAll(pageable).map(opcionMapper::toDto);
+        return opcionRepository.findAllAsDto(pageable);
+    }
+
+    /**
+     * Get the opcions that follow a given id, ordered by id, without counting them.
+     *
+     * @param id the last id of the previous page, or {@code null} for the first page.
+     * @param size the number of rows of the page.
+     * @return the slice of DTOs.
+     */
+    @Transactional(readOnly = true)
+    public Slice<OpcionDTO> findAllAfter(Long id, int size) {
+        LOG.debug("Request to get Opcions after : {}", id);
+        return KeysetSlices.of(opcionRepository.findAllAsDtoAfter(id == null ? Long.MIN_VALUE : id, KeysetSlices.probe(size)), size);
     }
 
     /**
@@ -111,6 +138,7 @@ public class OpcionService {
     public void delete(Long id) {
         LOG.debug("Request to delete Opcion : {}", id);
         opcionRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
         LOG.info("Opcion deleted with ID: {}", id);
     }
 }
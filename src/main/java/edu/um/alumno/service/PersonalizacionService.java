@@ -1,14 +1,23 @@
 package edu.um.alumno.service;
 
 import edu.um.alumno.domain.Personalizacion;
+import edu.um.alumno.repository.OpcionRepository;
 import edu.um.alumno.repository.PersonalizacionRepository;
+import edu.um.alumno.service.dto.OpcionDTO;
 import edu.um.alumno.service.dto.PersonalizacionDTO;
 import edu.um.alumno.service.mapper.PersonalizacionMapper;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,9 +34,20 @@ public class PersonalizacionService {
 
     private final PersonalizacionMapper personalizacionMapper;
 
-    public PersonalizacionService(PersonalizacionRepository personalizacionRepository, PersonalizacionMapper personalizacionMapper) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final OpcionRepository opcionRepository;
+
+    public PersonalizacionService(
+        PersonalizacionRepository personalizacionRepository,
+        PersonalizacionMapper personalizacionMapper,
+        ApplicationEventPublisher applicationEventPublisher,
+        OpcionRepository opcionRepository
+    ) {
         this.personalizacionRepository = personalizacionRepository;
         this.personalizacionMapper = personalizacionMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.opcionRepository = opcionRepository;
     }
 
     /**
@@ -40,6 +60,7 @@ public class PersonalizacionService {
         LOG.debug("Request to save Personalizacion : {}", personalizacionDTO);
         Personalizacion personalizacion = personalizacionMapper.toEntity(personalizacionDTO);
         personalizacion = personalizacionRepository.save(personalizacion);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
         return personalizacionMapper.toDto(personalizacion);
     }
 
@@ -53,6 +74,7 @@ public class PersonalizacionService {
         LOG.debug("Request to update Personalizacion : {}", personalizacionDTO);
         Personalizacion personalizacion = personalizacionMapper.toEntity(personalizacionDTO);
         personalizacion = personalizacionRepository.save(personalizacion);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
         return personalizacionMapper.toDto(personalizacion);
     }
 
@@ -69,6 +91,7 @@ public class PersonalizacionService {
             .findById(personalizacionDTO.getId())
             .map(existingPersonalizacion -> {
                 personalizacionMapper.partialUpdate(existingPersonalizacion, personalizacionDTO);
+                applicationEventPublisher.publishEvent(new CatalogChangedEvent());
 
                 return existingPersonalizacion;
             })
@@ -78,6 +101,8 @@ public class PersonalizacionService {
 
     /**
      * Get all the personalizacions.
+     * <p>
+     * The page is selected into DTOs, and the opciones of all of them are read with one more query.
      *
      * @param pageable the pagination information.
      * @return the list of entities.
@@ -85,7 +110,41 @@ public class PersonalizacionService {
     @Transactional(readOnly = true)
     public Page<PersonalizacionDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Personalizacions");
-        return personalizacionRepository.findAll(pageable).map(personalizacionMapper::toDto);
+        Page<PersonalizacionDTO> page = personalizacionRepository.findAllAsDto(pageable);
+        fetchOpciones(page.getContent());
+        return page;
+    }
+
+    /**
+     * Get the personalizacions that follow a given id, ordered by id, without counting them.
+     *
+     * @param id the last id of the previous page, or {@code null} for the first page.
+     * @param size the number of rows of the page.
+     * @return the slice of DTOs.
+     */
+    @Transactional(readOnly = true)
+    public Slice<PersonalizacionDTO> findAllAfter(Long id, int size) {
+        LOG.debug("Request to get Personalizacions after : {}", id);
+        List<PersonalizacionDTO> rows = personalizacionRepository.findAllAsDtoAfter(
+            id == null ? Long.MIN_VALUE : id,
+            KeysetSlices.probe(size)
+        );
+        Slice<PersonalizacionDTO> slice = KeysetSlices.of(rows, size);
+        fetchOpciones(slice.getContent());
+        return slice;
+    }
+
+    private void fetchOpciones(List<PersonalizacionDTO> personalizacionDTOs) {
+        if (personalizacionDTOs.isEmpty()) {
+            return;
+        }
+        Map<Long, PersonalizacionDTO> byId = personalizacionDTOs
+            .stream()
+            .collect(Collectors.toMap(PersonalizacionDTO::getId, Function.identity()));
+        byId.values().forEach(personalizacionDTO -> personalizacionDTO.setOpciones(new HashSet<>()));
+        for (OpcionDTO opcionDTO : opcionRepository.findAllAsDtoByPersonalizacionIds(byId.keySet())) {
+            byId.get(opcionDTO.getPersonalizacion().getId()).getOpciones().add(opcionDTO);
+        }
     }
 
     /**
@@ -108,5 +167,6 @@ public class PersonalizacionService {
     public void delete(Long id) {
         LOG.debug("Request to delete Personalizacion : {}", id);
         personalizacionRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent());
     }
 }
@@ -0,0 +1,204 @@
+package edu.um.alumno.service;
+
+import edu.um.alumno.config.ApplicationProperties;
+import edu.um.alumno.domain.User;
+import edu.um.alumno.domain.Venta;
+import edu.um.alumno.repository.UserRepository;
+import edu.um.alumno.service.dto.VentaBatchResultDTO;
+import edu.um.alumno.service.dto.VentaBatchResultDTO.Estado;
+import edu.um.alumno.service.dto.VentaRequestDTO;
+import edu.um.alumno.service.dto.VentaResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Processes the sales of {@code POST /api/ventas/vender/batch}, replayed in bursts by kiosks that queued them offline.
+ * <p>
+ * The buyers of the whole batch are read with one query. The sales are sent to the cátedra by a pool of
+ * {@code application.batch.parallelism} workers shared by all the batches, and the accepted ones are recorded together
+ * with JDBC batches, see {@link VentaService#registrarVentas}. Every sale gets its own result: a rejected or failed
+ * sale does not stop the others.
+ */
+@Service
+public class VentaBatchService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaBatchService.class);
+
+    private static final String ENTITY_NAME = "venta";
+
+    private static final String METRIC_PREFIX = "techmarket.ventas.batch.";
+
+    private final VentaService ventaService;
+
+    private final VentaCatedraService ventaCatedraService;
+
+    private final UserRepository userRepository;
+
+    private final ApplicationProperties.Batch properties;
+
+    private final ThreadPoolTaskExecutor workers;
+
+    private final Map<Estado, Counter> outcomes;
+
+    public VentaBatchService(
+        VentaService ventaService,
+        VentaCatedraService ventaCatedraService,
+        UserRepository userRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.ventaService = ventaService;
+        this.ventaCatedraService = ventaCatedraService;
+        this.userRepository = userRepository;
+        this.properties = applicationProperties.getBatch();
+
+        // Unbounded queue: the size of each batch is bounded instead, and callers wait for their own sales.
+        this.workers = new ThreadPoolTaskExecutor();
+        this.workers.setCorePoolSize(properties.getParallelism());
+        this.workers.setMaxPoolSize(properties.getParallelism());
+        this.workers.setThreadNamePrefix("venta-batch-");
+        this.workers.initialize();
+
+        this.outcomes = Arrays.stream(Estado.values())
+            .collect(
+                Collectors.toMap(Function.identity(), estado ->
+                    Counter.builder(METRIC_PREFIX + "items")
+                        .description("Sales of the batches, by outcome")
+                        .tag("outcome", estado.name().toLowerCase())
+                        .register(meterRegistry)
+                )
+            );
+    }
+
+    /**
+     * Sell every sale of a batch through the cátedra and record the accepted ones.
+     *
+     * @param ventas the sales, at most {@code application.batch.max-size}.
+     * @return the outcome of each sale, in the order of the request.
+     * @throws InvalidRequestException if the batch is empty or too large.
+     */
+    public List<VentaBatchResultDTO> vender(List<VentaRequestDTO> ventas) {
+        if (ventas == null || ventas.isEmpty() || ventas.size() > properties.getMaxSize()) {
+            throw new InvalidRequestException(
+                "A batch must have between 1 and " + properties.getMaxSize() + " sales",
+                ENTITY_NAME,
+                "batchsizeinvalid"
+            );
+        }
+        long start = System.nanoTime();
+        VentaBatchResultDTO[] results = new VentaBatchResultDTO[ventas.size()];
+
+        List<Long> userIds = ventas
+            .stream()
+            .filter(Objects::nonNull)
+            .map(VentaRequestDTO::getUserId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        Map<Long, User> users = userRepository.findAllById(userIds).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<CompletableFuture<VentaResponseDTO>> envios = new ArrayList<>(ventas.size());
+        for (int i = 0; i < ventas.size(); i++) {
+            VentaRequestDTO venta = ventas.get(i);
+            String invalida = validar(venta, users);
+            if (invalida != null) {
+                results[i] = new VentaBatchResultDTO(i, Estado.REJECTED, null, invalida);
+                envios.add(null);
+            } else {
+                envios.add(CompletableFuture.supplyAsync(() -> ventaCatedraService.enviarVenta(venta), workers));
+            }
+        }
+
+        List<Venta> aceptadas = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < envios.size(); i++) {
+            if (envios.get(i) == null) {
+                continue;
+            }
+            try {
+                VentaResponseDTO response = envios.get(i).join();
+                if (response == null || response.getIdVenta() == null) {
+                    results[i] = new VentaBatchResultDTO(i, Estado.FAILED, null, "La cátedra no devolvió el id de la venta");
+                    continue;
+                }
+                aceptadas.add(toVenta(ventas.get(i), response.getIdVenta(), users));
+                indices.add(i);
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                LOG.warn("Venta {} of the batch was not accepted by the cátedra: {}", i, cause.getMessage());
+                results[i] = new VentaBatchResultDTO(i, Estado.FAILED, null, cause.getMessage());
+            }
+        }
+
+        try {
+            ventaService.registrarVentas(aceptadas);
+            for (int j = 0; j < aceptadas.size(); j++) {
+                results[indices.get(j)] = new VentaBatchResultDTO(indices.get(j), Estado.CREATED, aceptadas.get(j).getId(), null);
+            }
+        } catch (RuntimeException e) {
+            // The cátedra has these sales: sending them again would sell twice, so they need a manual look instead.
+            LOG.error("{} ventas were accepted by the cátedra but could not be saved: {}", aceptadas.size(), ids(aceptadas), e);
+            for (int j = 0; j < aceptadas.size(); j++) {
+                Long idVenta = aceptadas.get(j).getId();
+                String error = "Accepted by the cátedra with ID " + idVenta + ": " + e.getMessage();
+                results[indices.get(j)] = new VentaBatchResultDTO(indices.get(j), Estado.FAILED, idVenta, error);
+            }
+        }
+
+        List<VentaBatchResultDTO> resultados = Arrays.asList(results);
+        resultados.forEach(result -> outcomes.get(result.getEstado()).increment());
+        LOG.info(
+            "Processed a batch of {} ventas in {} ms, {} accepted by the cátedra",
+            ventas.size(),
+            (System.nanoTime() - start) / 1_000_000,
+            aceptadas.size()
+        );
+        return resultados;
+    }
+
+    private static String validar(VentaRequestDTO venta, Map<Long, User> users) {
+        if (venta == null) {
+            return "Empty sale";
+        }
+        if (venta.getUserId() == null || !users.containsKey(venta.getUserId())) {
+            return "User not found";
+        }
+        if (venta.getFechaVenta() == null) {
+            return "fechaVenta is required";
+        }
+        return null;
+    }
+
+    private static Venta toVenta(VentaRequestDTO ventaRequestDTO, Long idVenta, Map<Long, User> users) {
+        Venta venta = new Venta();
+        venta.setId(idVenta);
+        venta.setFechaVenta(ventaRequestDTO.getFechaVenta());
+        venta.setPrecioFinal(ventaRequestDTO.getPrecioFinal());
+        venta.setDispositivoId(ventaRequestDTO.getIdDispositivo());
+        venta.setUser(users.get(ventaRequestDTO.getUserId()));
+        return venta;
+    }
+
+    private static List<Long> ids(List<Venta> ventas) {
+        return ventas.stream().map(Venta::getId).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,317 @@
+package edu.um.alumno.service;
+
+import edu.um.alumno.config.ApplicationProperties;
+import edu.um.alumno.service.dto.VentaRequestDTO;
+import edu.um.alumno.service.dto.VentaResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.cache.processor.EntryProcessorException;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Access to the sales of the cátedra backend: sends the new ones, and reads the confirmed ones through a cache.
+ * <p>
+ * A sale looked up by id is confirmed and never changes, so it is kept in the bounded {@link #VENTA_CATEDRA_CACHE}
+ * without expiry; concurrent misses on the same id wait for a single upstream call. The list of all the sales is
+ * reused for {@code application.catedra.ventas-ttl}, and concurrent callers of an expired list share one upstream
+ * call.
+ */
+@Service
+public class VentaCatedraService {
+
+    public static final String VENTA_CATEDRA_CACHE = "ventaCatedra";
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaCatedraService.class);
+
+    private static final String METRIC_PREFIX = "techmarket.ventas.catedra.";
+
+    private static final ParameterizedTypeReference<VentaResponseDTO> VENTA = new ParameterizedTypeReference<>() {};
+
+    private static final ParameterizedTypeReference<List<VentaResponseDTO>> VENTAS = new ParameterizedTypeReference<>() {};
+
+    private final ApiTokenService apiTokenService;
+
+    // Cliente compartido de AppConfig, con raíz en professor.api.url.
+    private final RestTemplate restTemplate;
+
+    private final Cache ventaCache;
+
+    private final Duration ventasTtl;
+
+    private final AtomicReference<CachedVentas> ventas = new AtomicReference<>();
+
+    private final AtomicReference<CompletableFuture<CachedVentas>> ventasRefresh = new AtomicReference<>();
+
+    private final Counter ventaHits;
+
+    private final Counter ventaMisses;
+
+    private final Counter ventasHits;
+
+    private final Counter ventasMisses;
+
+    private final Counter ventasCoalesced;
+
+    private final Timer ventaRequests;
+
+    private final Timer ventasRequests;
+
+    public VentaCatedraService(
+        ApiTokenService apiTokenService,
+        RestTemplate restTemplate,
+        CacheManager cacheManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.apiTokenService = apiTokenService;
+        this.restTemplate = restTemplate;
+        this.ventaCache = Objects.requireNonNull(cacheManager.getCache(VENTA_CATEDRA_CACHE));
+        this.ventasTtl = applicationProperties.getCatedra().getVentasTtl();
+
+        this.ventaHits = lookupCounter(meterRegistry, "venta", "hit");
+        this.ventaMisses = lookupCounter(meterRegistry, "venta", "miss");
+        this.ventasHits = lookupCounter(meterRegistry, "ventas", "hit");
+        this.ventasMisses = lookupCounter(meterRegistry, "ventas", "miss");
+        this.ventasCoalesced = lookupCounter(meterRegistry, "ventas", "coalesced");
+        this.ventaRequests = requestTimer(meterRegistry, "venta");
+        this.ventasRequests = requestTimer(meterRegistry, "ventas");
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String cache, String result) {
+        return Counter.builder(METRIC_PREFIX + "lookups")
+            .description("Lookups of cátedra sales, by cache and result")
+            .tag("cache", cache)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private static Timer requestTimer(MeterRegistry meterRegistry, String cache) {
+        return Timer.builder(METRIC_PREFIX + "requests")
+            .description("Calls to the cátedra to read sales, by cache")
+            .tag("cache", cache)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Send a sale to the cátedra backend. If the cátedra rejects the token, it is renewed and the sale sent once more.
+     * <p>
+     * Call it outside of any transaction, so no database connection is held while the cátedra answers.
+     *
+     * @param ventaRequestDTO the sale to send.
+     * @return the cátedra response, with the id it assigned to the sale.
+     */
+    public VentaResponseDTO enviarVenta(VentaRequestDTO ventaRequestDTO) {
+        String token = token();
+        try {
+            return postVenta(ventaRequestDTO, token);
+        } catch (HttpClientErrorException.Unauthorized e) {
+            LOG.warn("Token rechazado por la cátedra, renovando token");
+            apiTokenService.invalidate(token);
+            return postVenta(ventaRequestDTO, token());
+        }
+    }
+
+    // Without a token the sale is not sent at all.
+    private String token() {
+        try {
+            return apiTokenService.getToken();
+        } catch (RuntimeException e) {
+            throw new VentaNoEnviadaException("Could not authenticate with the cátedra", e);
+        }
+    }
+
+    /**
+     * Whether a failure of {@link #enviarVenta} means the cátedra certainly did not record the sale: it rejected it with a
+     * client error, or could not be reached. After any other failure, such as a read timeout or a server error, the sale
+     * may have been recorded.
+     *
+     * @param e the failure of {@link #enviarVenta}.
+     * @return {@code true} if sending the same sale again cannot sell it twice.
+     */
+    public static boolean isNoRecibida(Throwable e) {
+        for (Throwable cause : ExceptionUtils.getThrowableList(e)) {
+            if (
+                cause instanceof VentaNoEnviadaException ||
+                cause instanceof HttpClientErrorException ||
+                cause instanceof ConnectException ||
+                cause instanceof UnknownHostException ||
+                cause instanceof ConnectTimeoutException ||
+                cause instanceof ConnectionRequestTimeoutException ||
+                cause instanceof HttpConnectTimeoutException
+            ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private VentaResponseDTO postVenta(VentaRequestDTO ventaRequestDTO, String token) {
+        // Crear los headers y agregar el token JWT
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+
+        // Crear la entidad HTTP con los headers y el cuerpo de la solicitud
+        HttpEntity<VentaRequestDTO> entity = new HttpEntity<>(ventaRequestDTO, headers);
+
+        // Enviar solicitud al backend del profesor
+        ResponseEntity<VentaResponseDTO> response = restTemplate.exchange(
+            "/catedra/vender",
+            HttpMethod.POST,
+            entity,
+            VentaResponseDTO.class
+        );
+        LOG.info("Venta processed with response: {}", response.getBody());
+
+        if (response.getBody() == null || response.getBody().getIdVenta() == null) {
+            throw new IllegalStateException("La cátedra no devolvió el id de la venta");
+        }
+        return response.getBody();
+    }
+
+    /**
+     * Get a sale of the cátedra.
+     *
+     * @param id the id assigned by the cátedra.
+     * @return the sale, or empty if the cátedra does not know it.
+     */
+    public Optional<VentaResponseDTO> findOne(Long id) {
+        LOG.debug("Request to get Venta from the cátedra : {}", id);
+        AtomicBoolean loaded = new AtomicBoolean();
+        try {
+            VentaResponseDTO venta = ventaCache.get(id, () -> {
+                loaded.set(true);
+                VentaResponseDTO body = ventaRequests.record(() -> get("/catedra/venta/{id}", VENTA, id));
+                if (body == null) {
+                    throw new IllegalStateException("La cátedra no devolvió la venta " + id);
+                }
+                return body;
+            });
+            (loaded.get() ? ventaMisses : ventaHits).increment();
+            return Optional.ofNullable(venta);
+        } catch (Cache.ValueRetrievalException e) {
+            ventaMisses.increment();
+            Throwable cause = e.getCause();
+            while (cause instanceof EntryProcessorException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            // Unknown ids are not cached: the sale may still be confirmed later.
+            if (cause instanceof HttpClientErrorException.NotFound) {
+                return Optional.empty();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Get all the sales of the cátedra.
+     *
+     * @return the sales, at most {@code application.catedra.ventas-ttl} old.
+     */
+    public List<VentaResponseDTO> findAll() {
+        LOG.debug("Request to get all Ventas from the cátedra");
+        CachedVentas cached = ventas.get();
+        if (cached != null && cached.isFreshAt(Instant.now())) {
+            ventasHits.increment();
+            return cached.value;
+        }
+        try {
+            return refresh().join().value;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Single flight: the first caller reads the list, the others wait on its future.
+    private CompletableFuture<CachedVentas> refresh() {
+        CompletableFuture<CachedVentas> inFlight = ventasRefresh.get();
+        if (inFlight != null) {
+            ventasCoalesced.increment();
+            return inFlight;
+        }
+        CompletableFuture<CachedVentas> mine = new CompletableFuture<>();
+        if (!ventasRefresh.compareAndSet(null, mine)) {
+            CompletableFuture<CachedVentas> other = ventasRefresh.get();
+            return other != null ? other : refresh();
+        }
+        ventasMisses.increment();
+        try {
+            List<VentaResponseDTO> body = ventasRequests.record(() -> get("/catedra/ventas", VENTAS));
+            CachedVentas fresh = new CachedVentas(body == null ? List.of() : List.copyOf(body), Instant.now().plus(ventasTtl));
+            ventas.set(fresh);
+            LOG.info("Read {} ventas from the cátedra", fresh.value.size());
+            mine.complete(fresh);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+        } finally {
+            ventasRefresh.set(null);
+        }
+        return mine;
+    }
+
+    // If the cátedra rejects the token, it is renewed and the request sent once more.
+    private <T> T get(String uri, ParameterizedTypeReference<T> type, Object... uriVariables) {
+        String token = apiTokenService.getToken();
+        try {
+            return exchange(uri, type, token, uriVariables);
+        } catch (HttpClientErrorException.Unauthorized e) {
+            LOG.warn("Token rechazado por la cátedra, renovando token");
+            apiTokenService.invalidate(token);
+            return exchange(uri, type, apiTokenService.getToken(), uriVariables);
+        }
+    }
+
+    private <T> T exchange(String uri, ParameterizedTypeReference<T> type, String token, Object... uriVariables) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), type, uriVariables).getBody();
+    }
+
+    private static final class CachedVentas {
+
+        private final List<VentaResponseDTO> value;
+
+        private final Instant expiresAt;
+
+        private CachedVentas(List<VentaResponseDTO> value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isFreshAt(Instant instant) {
+            return expiresAt.isAfter(instant);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package edu.um.alumno.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.um.alumno.repository.VentaRepository;
+import edu.um.alumno.service.dto.VentaDTO;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes the sales of a date range as NDJSON or CSV, for the accounting export.
+ * <p>
+ * The sales are read through a forward-only cursor of {@link VentaRepository#EXPORT_FETCH_SIZE} rows and written as
+ * they are read, so the memory used does not depend on the number of sales. On MySQL the cursor needs
+ * {@code useCursorFetch=true} in the JDBC URL, otherwise the driver reads the whole result before returning the first
+ * row.
+ */
+@Service
+@Transactional(readOnly = true)
+public class VentaExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaExportService.class);
+
+    // Bounds used when a date filter is not given.
+    private static final ZonedDateTime SIN_DESDE = ZonedDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+
+    private static final ZonedDateTime SIN_HASTA = ZonedDateTime.of(9999, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final String CSV_HEADER = "id,fechaVenta,precioFinal,dispositivoId,userId";
+
+    /**
+     * The formats of the export.
+     */
+    public enum Formato {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType mediaType;
+
+        private final String extension;
+
+        Formato(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final VentaRepository ventaRepository;
+
+    private final ObjectWriter ndjsonWriter;
+
+    public VentaExportService(VentaRepository ventaRepository, ObjectMapper objectMapper) {
+        this.ventaRepository = ventaRepository;
+        this.ndjsonWriter = objectMapper
+            .writerFor(VentaDTO.class)
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .withRootValueSeparator("\n");
+    }
+
+    /**
+     * Write the sales of a date range, oldest first.
+     *
+     * @param formato the format to write.
+     * @param desde the earliest date of the sales, inclusive, or {@code null}.
+     * @param hasta the latest date of the sales, exclusive, or {@code null}.
+     * @param userId the buyer of the sales, or {@code null} for all the buyers.
+     * @param out where to write; it is flushed but not closed.
+     * @return the number of sales written.
+     */
+    public long exportar(Formato formato, ZonedDateTime desde, ZonedDateTime hasta, Long userId, OutputStream out) {
+        LOG.debug("Request to export the Ventas of user {} between {} and {} as {}", userId, desde, hasta, formato);
+        long start = System.nanoTime();
+        ZonedDateTime from = desde == null ? SIN_DESDE : desde;
+        ZonedDateTime to = hasta == null ? SIN_HASTA : hasta;
+        long ventas;
+        try (
+            Stream<VentaDTO> stream = userId == null
+                ? ventaRepository.streamAllAsDto(from, to)
+                : ventaRepository.streamAllAsDtoByUser(userId, from, to)
+        ) {
+            ventas = formato == Formato.CSV ? writeCsv(stream.iterator(), out) : writeNdjson(stream.iterator(), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LOG.info("Exported {} ventas as {} in {} ms", ventas, formato, (System.nanoTime() - start) / 1_000_000);
+        return ventas;
+    }
+
+    private long writeNdjson(Iterator<VentaDTO> ventas, OutputStream out) throws IOException {
+        long count = 0;
+        try (SequenceWriter writer = ndjsonWriter.writeValues(out)) {
+            while (ventas.hasNext()) {
+                writer.write(ventas.next());
+                count++;
+            }
+        }
+        out.write('\n');
+        out.flush();
+        return count;
+    }
+
+    private static long writeCsv(Iterator<VentaDTO> ventas, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (ventas.hasNext()) {
+            VentaDTO venta = ventas.next();
+            writer.write(String.valueOf(venta.getId()));
+            writer.write(',');
+            writer.write(venta.getFechaVenta() == null ? "" : DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(venta.getFechaVenta()));
+            writer.write(',');
+            writer.write(venta.getPrecioFinal() == null ? "" : venta.getPrecioFinal().toPlainString());
+            writer.write(',');
+            writer.write(venta.getDispositivoId() == null ? "" : venta.getDispositivoId().toString());
+            writer.write(',');
+            writer.write(venta.getUser() == null || venta.getUser().getId() == null ? "" : venta.getUser().getId().toString());
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+}
@@ -0,0 +1,337 @@
+package edu.um.alumno.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.um.alumno.config.ApplicationProperties;
+import edu.um.alumno.domain.Venta;
+import edu.um.alumno.domain.VentaIdempotencia;
+import edu.um.alumno.domain.enumeration.EstadoVentaIdempotencia;
+import edu.um.alumno.repository.VentaIdempotenciaRepository;
+import edu.um.alumno.repository.VentaRepository;
+import edu.um.alumno.service.dto.VentaRequestDTO;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Processes each sale submitted with an {@code Idempotency-Key} at most once.
+ * <p>
+ * Keys are checked in three places, cheapest first: the {@link VentaIdempotenciaRepository#VENTA_IDEMPOTENCIA_CACHE}
+ * of completed keys, the attempts in flight on this instance, which concurrent duplicates wait on, and the
+ * {@link VentaIdempotencia} table shared by every instance. A completed key is stored in the same transaction as the
+ * sale it created, so a retry either finds the sale or runs the sale again, never both. A key whose attempt failed is
+ * released only when the cátedra certainly did not record the sale, see {@link VentaNoEnviadaException}; after any other
+ * failure, e.g. a read timeout or a local save failing once the cátedra accepted the sale, the key is kept as
+ * {@code UNKNOWN} with its error, and every retry gets that error instead of selling again.
+ */
+@Service
+public class VentaIdempotenciaService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaIdempotenciaService.class);
+
+    private static final String ENTITY_NAME = "venta";
+
+    private static final int MAX_CLAVE_LENGTH = 128;
+
+    private final VentaIdempotenciaRepository ventaIdempotenciaRepository;
+
+    private final VentaRepository ventaRepository;
+
+    private final VentaService ventaService;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transaction;
+
+    private final ApplicationProperties.Idempotency properties;
+
+    private final Cache completadas;
+
+    private final ConcurrentMap<String, Intento> enCurso = new ConcurrentHashMap<>();
+
+    public VentaIdempotenciaService(
+        VentaIdempotenciaRepository ventaIdempotenciaRepository,
+        VentaRepository ventaRepository,
+        VentaService ventaService,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        CacheManager cacheManager
+    ) {
+        this.ventaIdempotenciaRepository = ventaIdempotenciaRepository;
+        this.ventaRepository = ventaRepository;
+        this.ventaService = ventaService;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getIdempotency();
+        this.completadas = Objects.requireNonNull(cacheManager.getCache(VentaIdempotenciaRepository.VENTA_IDEMPOTENCIA_CACHE));
+    }
+
+    /**
+     * Process a sale, unless a sale with the same key was already processed.
+     *
+     * @param clave the {@code Idempotency-Key} sent by the client.
+     * @param ventaRequestDTO the sale.
+     * @return the sale, created now or by an earlier request with the same key.
+     * @throws InvalidRequestException if the key is not valid, or was used for a different sale.
+     * @throws IdempotencyKeyInProgressException if another instance is processing the key.
+     * @throws IdempotencyKeyFailedException if an earlier attempt with the key failed after the sale may have been sent.
+     */
+    public Resultado vender(String clave, VentaRequestDTO ventaRequestDTO) {
+        if (StringUtils.isBlank(clave) || clave.length() > MAX_CLAVE_LENGTH) {
+            throw new InvalidRequestException("Invalid Idempotency-Key", ENTITY_NAME, "idempotencykeyinvalid");
+        }
+        String hash = hash(ventaRequestDTO);
+
+        Completada completada = completadas.get(clave, Completada.class);
+        if (completada != null) {
+            verificar(completada.hash, hash);
+            LOG.debug("Idempotency-Key {} already completed with Venta {}", clave, completada.ventaId);
+            return new Resultado(cargar(completada.ventaId), true);
+        }
+
+        Intento mio = new Intento(hash);
+        Intento otro = enCurso.putIfAbsent(clave, mio);
+        if (otro != null) {
+            verificar(otro.hash, hash);
+            LOG.debug("Idempotency-Key {} is in flight, waiting for it", clave);
+            return new Resultado(cargar(esperar(otro.ventaId)), true);
+        }
+        try {
+            return ejecutar(clave, hash, ventaRequestDTO, mio);
+        } finally {
+            enCurso.remove(clave, mio);
+        }
+    }
+
+    private Resultado ejecutar(String clave, String hash, VentaRequestDTO ventaRequestDTO, Intento mio) {
+        try {
+            Optional<Completada> previa;
+            try {
+                previa = transaction.execute(status -> reclamar(clave, hash));
+            } catch (DataIntegrityViolationException e) {
+                // Another instance inserted the key between our read and our insert.
+                throw enCursoEnOtraInstancia(clave);
+            }
+            if (previa != null && previa.isPresent()) {
+                Completada completada = previa.orElseThrow();
+                completadas.put(clave, completada);
+                mio.ventaId.complete(completada.ventaId);
+                return new Resultado(cargar(completada.ventaId), true);
+            }
+            Venta venta;
+            try {
+                venta = ventaService.procesarVenta(ventaRequestDTO, procesada -> completar(clave, procesada.getId()));
+            } catch (RuntimeException e) {
+                if (ExceptionUtils.indexOfType(e, VentaNoEnviadaException.class) >= 0) {
+                    liberar(clave);
+                } else {
+                    marcarDesconocida(clave, e);
+                }
+                throw e;
+            }
+            completadas.put(clave, new Completada(hash, venta.getId()));
+            mio.ventaId.complete(venta.getId());
+            return new Resultado(venta, false);
+        } catch (RuntimeException e) {
+            mio.ventaId.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Optional<Completada> reclamar(String clave, String hash) {
+        Instant now = Instant.now();
+        Optional<VentaIdempotencia> existente = ventaIdempotenciaRepository.findOneByClave(clave);
+        if (existente.isPresent()) {
+            VentaIdempotencia ventaIdempotencia = existente.orElseThrow();
+            verificar(ventaIdempotencia.getHash(), hash);
+            if (ventaIdempotencia.getEstado() == EstadoVentaIdempotencia.COMPLETED) {
+                return Optional.of(new Completada(ventaIdempotencia.getHash(), ventaIdempotencia.getVentaId()));
+            }
+            if (ventaIdempotencia.getEstado() == EstadoVentaIdempotencia.UNKNOWN) {
+                LOG.debug("Idempotency-Key {} failed with an unknown outcome, not selling again", clave);
+                throw new IdempotencyKeyFailedException(ventaIdempotencia.getError());
+            }
+            Instant expired = now.minus(properties.getLease());
+            if (ventaIdempotenciaRepository.takeOver(clave, EstadoVentaIdempotencia.IN_PROGRESS, now, expired) == 0) {
+                throw enCursoEnOtraInstancia(clave);
+            }
+            // The upstream may have accepted the abandoned attempt: that sale cannot be known from here.
+            LOG.warn("Idempotency-Key {} abandoned since {}, taking it over", clave, ventaIdempotencia.getActualizado());
+            return Optional.empty();
+        }
+        VentaIdempotencia ventaIdempotencia = new VentaIdempotencia();
+        ventaIdempotencia.setClave(clave);
+        ventaIdempotencia.setHash(hash);
+        ventaIdempotencia.setEstado(EstadoVentaIdempotencia.IN_PROGRESS);
+        ventaIdempotencia.setCreado(now);
+        ventaIdempotencia.setActualizado(now);
+        ventaIdempotenciaRepository.saveAndFlush(ventaIdempotencia);
+        return Optional.empty();
+    }
+
+    private void completar(String clave, Long ventaId) {
+        VentaIdempotencia ventaIdempotencia = ventaIdempotenciaRepository.findOneByClave(clave).orElseThrow();
+        ventaIdempotencia.setEstado(EstadoVentaIdempotencia.COMPLETED);
+        ventaIdempotencia.setVentaId(ventaId);
+        ventaIdempotencia.setActualizado(Instant.now());
+        LOG.info("Idempotency-Key {} completed with Venta {}", clave, ventaId);
+    }
+
+    private void liberar(String clave) {
+        try {
+            transaction.executeWithoutResult(status ->
+                ventaIdempotenciaRepository.deleteByClaveAndEstado(clave, EstadoVentaIdempotencia.IN_PROGRESS)
+            );
+        } catch (RuntimeException e) {
+            // The key stays owned until its lease expires.
+            LOG.warn("Could not release Idempotency-Key {}", clave, e);
+        }
+    }
+
+    private void marcarDesconocida(String clave, RuntimeException e) {
+        String error = StringUtils.abbreviate(ExceptionUtils.getRootCauseMessage(e), 1024);
+        LOG.error("Idempotency-Key {} failed after the sale may have reached the cátedra: {}", clave, error);
+        try {
+            transaction.executeWithoutResult(status ->
+                ventaIdempotenciaRepository
+                    .findOneByClave(clave)
+                    .filter(ventaIdempotencia -> ventaIdempotencia.getEstado() == EstadoVentaIdempotencia.IN_PROGRESS)
+                    .ifPresent(ventaIdempotencia -> {
+                        ventaIdempotencia.setEstado(EstadoVentaIdempotencia.UNKNOWN);
+                        ventaIdempotencia.setError(error);
+                        ventaIdempotencia.setActualizado(Instant.now());
+                    })
+            );
+        } catch (RuntimeException failure) {
+            // The key stays owned until its lease expires.
+            LOG.warn("Could not record the failure of Idempotency-Key {}", clave, failure);
+        }
+    }
+
+    private Venta cargar(Long ventaId) {
+        return ventaRepository
+            .findOneWithUserById(ventaId)
+            .orElseThrow(() -> new IllegalStateException("Venta " + ventaId + " of an Idempotency-Key no longer exists"));
+    }
+
+    private static Long esperar(CompletableFuture<Long> ventaId) {
+        try {
+            return ventaId.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void verificar(String esperado, String hash) {
+        if (!esperado.equals(hash)) {
+            throw new InvalidRequestException("Idempotency-Key already used for a different sale", ENTITY_NAME, "idempotencykeyreused");
+        }
+    }
+
+    private static IdempotencyKeyInProgressException enCursoEnOtraInstancia(String clave) {
+        LOG.debug("Idempotency-Key {} is in progress on another instance", clave);
+        return new IdempotencyKeyInProgressException();
+    }
+
+    // The buyer is not serialized with the sale, so it is hashed separately.
+    private String hash(VentaRequestDTO ventaRequestDTO) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(ventaRequestDTO.getUserId()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(ventaRequestDTO));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the sale", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Forget the keys older than {@code application.idempotency.ttl}.
+     * <p>
+     * This is scheduled to get fired every day, at 02:00 (am).
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void removeExpiredKeys() {
+        Instant before = Instant.now().minus(properties.getTtl());
+        Integer deleted = transaction.execute(status -> ventaIdempotenciaRepository.deleteAllCreatedBefore(before));
+        LOG.debug("Deleted {} Idempotency-Keys created before {}", deleted, before);
+    }
+
+    /**
+     * The sale of an {@code Idempotency-Key}.
+     */
+    public static final class Resultado {
+
+        private final Venta venta;
+
+        private final boolean repetida;
+
+        private Resultado(Venta venta, boolean repetida) {
+            this.venta = venta;
+            this.repetida = repetida;
+        }
+
+        public Venta getVenta() {
+            return venta;
+        }
+
+        /**
+         * Whether the sale was created by an earlier request with the same key.
+         */
+        public boolean isRepetida() {
+            return repetida;
+        }
+    }
+
+    private static final class Completada implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String hash;
+
+        private final Long ventaId;
+
+        private Completada(String hash, Long ventaId) {
+            this.hash = hash;
+            this.ventaId = ventaId;
+        }
+    }
+
+    private static final class Intento {
+
+        private final String hash;
+
+        private final CompletableFuture<Long> ventaId = new CompletableFuture<>();
+
+        private Intento(String hash) {
+            this.hash = hash;
+        }
+    }
+}
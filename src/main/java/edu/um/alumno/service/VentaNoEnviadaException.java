@@ -0,0 +1,18 @@
+package edu.um.alumno.service;
+
+/**
+ * Thrown when a sale certainly was not recorded by the cátedra: it was not valid, the cátedra could not be reached, or it
+ * rejected the sale with a client error. Sending the same sale again cannot sell it twice.
+ */
+public class VentaNoEnviadaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public VentaNoEnviadaException(String message) {
+        super(message);
+    }
+
+    public VentaNoEnviadaException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
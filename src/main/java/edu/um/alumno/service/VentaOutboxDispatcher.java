@@ -0,0 +1,182 @@
+package edu.um.alumno.service;
+
+import edu.um.alumno.config.ApplicationProperties;
+import edu.um.alumno.domain.enumeration.EstadoVentaOutbox;
+import edu.um.alumno.service.dto.VentaOutboxDTO;
+import edu.um.alumno.service.dto.VentaRequestDTO;
+import edu.um.alumno.service.dto.VentaResponseDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Forwards the sales of the outbox to the cátedra backend.
+ * <p>
+ * A sale is handed to a bounded pool of workers as soon as it is accepted. When the pool is full, or after a failed
+ * attempt, it stays {@code PENDING} in the outbox and is picked up by the next poll once its retry is due. Each worker
+ * claims a sale before sending it, so a sale queued twice is only sent once.
+ */
+@Component
+public class VentaOutboxDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaOutboxDispatcher.class);
+
+    private static final String METRIC_PREFIX = "techmarket.ventas.outbox.";
+
+    private final VentaOutboxService ventaOutboxService;
+
+    private final VentaCatedraService ventaCatedraService;
+
+    private final ApplicationProperties.Outbox properties;
+
+    private final ThreadPoolTaskExecutor workers;
+
+    private final ThreadPoolTaskScheduler poller;
+
+    private final Counter confirmed;
+
+    private final Counter retried;
+
+    private final Counter failed;
+
+    public VentaOutboxDispatcher(
+        VentaOutboxService ventaOutboxService,
+        VentaCatedraService ventaCatedraService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.ventaOutboxService = ventaOutboxService;
+        this.ventaCatedraService = ventaCatedraService;
+        this.properties = applicationProperties.getOutbox();
+
+        this.workers = new ThreadPoolTaskExecutor();
+        this.workers.setCorePoolSize(properties.getWorkers());
+        this.workers.setMaxPoolSize(properties.getWorkers());
+        this.workers.setQueueCapacity(properties.getQueueCapacity());
+        this.workers.setThreadNamePrefix("venta-outbox-");
+        this.workers.setWaitForTasksToCompleteOnShutdown(true);
+        this.workers.setAwaitTerminationSeconds(30);
+        this.workers.initialize();
+
+        this.poller = new ThreadPoolTaskScheduler();
+        this.poller.setPoolSize(1);
+        this.poller.setThreadNamePrefix("venta-outbox-poller-");
+        this.poller.initialize();
+
+        this.confirmed = outcomeCounter(meterRegistry, "confirmed");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        Gauge.builder(METRIC_PREFIX + "queue", workers, executor -> executor.getThreadPoolExecutor().getQueue().size())
+            .description("Sales waiting for a free outbox worker")
+            .register(meterRegistry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC_PREFIX + "attempts")
+            .description("Attempts to forward an outbox sale to the cátedra, by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            LOG.info("Polling the sales outbox is disabled");
+            return;
+        }
+        LOG.info("Polling the sales outbox every {} with {} workers", properties.getPollInterval(), properties.getWorkers());
+        poller.scheduleWithFixedDelay(this::poll, properties.getPollInterval());
+    }
+
+    /**
+     * Accept a sale and start forwarding it to the cátedra in the background.
+     *
+     * @param ventaRequestDTO the sale.
+     * @return the status of the accepted sale, whose id is the handle to follow it.
+     */
+    public VentaOutboxDTO aceptar(VentaRequestDTO ventaRequestDTO) {
+        // The sale is committed when aceptar returns, so a worker can already claim it.
+        VentaOutboxDTO ventaOutboxDTO = ventaOutboxService.aceptar(ventaRequestDTO);
+        dispatch(ventaOutboxDTO.getId());
+        return ventaOutboxDTO;
+    }
+
+    private boolean dispatch(Long id) {
+        try {
+            workers.execute(() -> process(id));
+            return true;
+        } catch (TaskRejectedException e) {
+            LOG.debug("Outbox workers are busy, venta {} is left for the next poll", id);
+            return false;
+        }
+    }
+
+    private void poll() {
+        try {
+            for (Long id : ventaOutboxService.findDueIds()) {
+                if (!dispatch(id)) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Error polling the sales outbox", e);
+        }
+    }
+
+    private void process(Long id) {
+        Optional<VentaRequestDTO> claimed = ventaOutboxService.claim(id);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        VentaRequestDTO ventaRequestDTO = claimed.orElseThrow();
+        VentaResponseDTO response;
+        try {
+            response = ventaCatedraService.enviarVenta(ventaRequestDTO);
+        } catch (RuntimeException e) {
+            EstadoVentaOutbox estado = ventaOutboxService.registrarFallo(id, e.getMessage(), isRetryable(e));
+            (estado == EstadoVentaOutbox.FAILED ? failed : retried).increment();
+            return;
+        }
+        try {
+            ventaOutboxService.confirmar(id, ventaRequestDTO, response.getIdVenta());
+            confirmed.increment();
+        } catch (RuntimeException e) {
+            // The cátedra has the sale: sending it again would sell twice, so it needs a manual look instead.
+            LOG.error("Venta {} was accepted by the cátedra with ID {} but could not be saved", id, response.getIdVenta(), e);
+            String error = "Accepted by the cátedra with ID " + response.getIdVenta() + ": " + e.getMessage();
+            ventaOutboxService.registrarFallo(id, error, false);
+            failed.increment();
+        }
+    }
+
+    // Client errors other than timeouts and throttling mean the cátedra will reject the sale again.
+    private static boolean isRetryable(RuntimeException e) {
+        if (e instanceof HttpClientErrorException clientError) {
+            return (
+                clientError.getStatusCode() == HttpStatus.UNAUTHORIZED ||
+                clientError.getStatusCode() == HttpStatus.REQUEST_TIMEOUT ||
+                clientError.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS
+            );
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        LOG.info("Stopping sales outbox dispatcher");
+        poller.shutdown();
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,236 @@
+package edu.um.alumno.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.um.alumno.config.ApplicationProperties;
+import edu.um.alumno.domain.User;
+import edu.um.alumno.domain.VentaOutbox;
+import edu.um.alumno.domain.enumeration.EstadoVentaOutbox;
+import edu.um.alumno.repository.DispositivoRepository;
+import edu.um.alumno.repository.UserRepository;
+import edu.um.alumno.repository.VentaOutboxRepository;
+import edu.um.alumno.service.dto.VentaOutboxDTO;
+import edu.um.alumno.service.dto.VentaRequestDTO;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation for managing {@link edu.um.alumno.domain.VentaOutbox}.
+ * <p>
+ * Every method is a short local transaction; the call to the cátedra happens between them, in
+ * {@link VentaOutboxDispatcher}, so no connection is held while waiting on the upstream.
+ */
+@Service
+@Transactional
+public class VentaOutboxService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaOutboxService.class);
+
+    private static final String ENTITY_NAME = "venta";
+
+    private final VentaOutboxRepository ventaOutboxRepository;
+
+    private final UserRepository userRepository;
+
+    private final DispositivoRepository dispositivoRepository;
+
+    private final VentaService ventaService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Outbox properties;
+
+    public VentaOutboxService(
+        VentaOutboxRepository ventaOutboxRepository,
+        UserRepository userRepository,
+        DispositivoRepository dispositivoRepository,
+        VentaService ventaService,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.ventaOutboxRepository = ventaOutboxRepository;
+        this.userRepository = userRepository;
+        this.dispositivoRepository = dispositivoRepository;
+        this.ventaService = ventaService;
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getOutbox();
+    }
+
+    /**
+     * Validate a sale and store it as {@code PENDING}, to be forwarded to the cátedra later.
+     *
+     * @param ventaRequestDTO the sale to accept.
+     * @return the status of the accepted sale.
+     */
+    public VentaOutboxDTO aceptar(VentaRequestDTO ventaRequestDTO) {
+        LOG.debug("Request to accept Venta : {}", ventaRequestDTO);
+        User user = validar(ventaRequestDTO);
+        if (ventaRequestDTO.getFechaVenta() == null) {
+            ventaRequestDTO.setFechaVenta(ZonedDateTime.now());
+        }
+
+        Instant now = Instant.now();
+        VentaOutbox ventaOutbox = new VentaOutbox();
+        ventaOutbox.setEstado(EstadoVentaOutbox.PENDING);
+        ventaOutbox.setPayload(toJson(ventaRequestDTO));
+        ventaOutbox.setUser(user);
+        ventaOutbox.setIntentos(0);
+        ventaOutbox.setProximoIntento(now);
+        ventaOutbox.setCreado(now);
+        ventaOutbox = ventaOutboxRepository.save(ventaOutbox);
+        LOG.info("Venta accepted with handle: {}", ventaOutbox.getId());
+        return toDto(ventaOutbox);
+    }
+
+    private User validar(VentaRequestDTO ventaRequestDTO) {
+        if (ventaRequestDTO.getUserId() == null) {
+            throw new InvalidRequestException("The user is required", ENTITY_NAME, "usernull");
+        }
+        if (ventaRequestDTO.getIdDispositivo() == null) {
+            throw new InvalidRequestException("The device is required", ENTITY_NAME, "dispositivonull");
+        }
+        if (ventaRequestDTO.getPrecioFinal() == null || ventaRequestDTO.getPrecioFinal().compareTo(BigDecimal.ZERO) < 0) {
+            throw new InvalidRequestException("Invalid final price", ENTITY_NAME, "preciofinalinvalid");
+        }
+        if (!dispositivoRepository.existsById(ventaRequestDTO.getIdDispositivo())) {
+            throw new InvalidRequestException("Device not found", ENTITY_NAME, "dispositivonotfound");
+        }
+        return userRepository
+            .findById(ventaRequestDTO.getUserId())
+            .orElseThrow(() -> new InvalidRequestException("User not found", ENTITY_NAME, "usernotfound"));
+    }
+
+    /**
+     * Get the status of an accepted sale.
+     *
+     * @param id the handle returned when the sale was accepted.
+     * @return the status, if the handle exists.
+     */
+    @Transactional(readOnly = true)
+    public Optional<VentaOutboxDTO> findOne(Long id) {
+        LOG.debug("Request to get VentaOutbox : {}", id);
+        return ventaOutboxRepository.findById(id).map(this::toDto);
+    }
+
+    /**
+     * Get the ids of the pending sales whose next attempt is due.
+     *
+     * @return at most {@code application.outbox.batch-size} ids, oldest attempt first.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findDueIds() {
+        return ventaOutboxRepository.findDueIds(EstadoVentaOutbox.PENDING, Instant.now(), PageRequest.of(0, properties.getBatchSize()));
+    }
+
+    /**
+     * Claim a pending sale for the calling worker.
+     *
+     * @param id the id of the sale.
+     * @return the sale to send, with its buyer, or empty if it is not due or another worker owns it.
+     */
+    public Optional<VentaRequestDTO> claim(Long id) {
+        Instant now = Instant.now();
+        if (ventaOutboxRepository.claim(id, EstadoVentaOutbox.PENDING, now, now.plus(properties.getLease())) == 0) {
+            return Optional.empty();
+        }
+        return ventaOutboxRepository
+            .findById(id)
+            .map(ventaOutbox -> {
+                VentaRequestDTO ventaRequestDTO = fromJson(ventaOutbox.getPayload());
+                ventaRequestDTO.setUserId(ventaOutbox.getUser().getId());
+                return ventaRequestDTO;
+            });
+    }
+
+    /**
+     * Record that the cátedra accepted a sale, and save it as a {@link edu.um.alumno.domain.Venta}.
+     *
+     * @param id the id of the sale in the outbox.
+     * @param ventaRequestDTO the sale that was sent.
+     * @param idVenta the id assigned by the cátedra.
+     */
+    public void confirmar(Long id, VentaRequestDTO ventaRequestDTO, Long idVenta) {
+        VentaOutbox ventaOutbox = ventaOutboxRepository.findById(id).orElseThrow();
+        ventaService.registrarVenta(ventaRequestDTO, idVenta, ventaOutbox.getUser());
+        ventaOutbox.setEstado(EstadoVentaOutbox.CONFIRMED);
+        ventaOutbox.setVentaId(idVenta);
+        ventaOutbox.setIntentos(ventaOutbox.getIntentos() + 1);
+        ventaOutbox.setUltimoError(null);
+        ventaOutbox.setActualizado(Instant.now());
+        LOG.info("Venta {} confirmed by the cátedra with ID: {}", id, idVenta);
+    }
+
+    /**
+     * Record a failed attempt, and schedule the next one unless the error is final or the attempts are exhausted.
+     *
+     * @param id the id of the sale in the outbox.
+     * @param error the error of this attempt.
+     * @param retryable whether another attempt could succeed.
+     * @return the new state of the sale.
+     */
+    public EstadoVentaOutbox registrarFallo(Long id, String error, boolean retryable) {
+        VentaOutbox ventaOutbox = ventaOutboxRepository.findById(id).orElseThrow();
+        int intentos = ventaOutbox.getIntentos() + 1;
+        Instant now = Instant.now();
+        ventaOutbox.setIntentos(intentos);
+        ventaOutbox.setUltimoError(StringUtils.abbreviate(error, 1024));
+        ventaOutbox.setActualizado(now);
+        if (!retryable || intentos >= properties.getMaxAttempts()) {
+            ventaOutbox.setEstado(EstadoVentaOutbox.FAILED);
+            LOG.warn("Venta {} failed after {} attempts: {}", id, intentos, error);
+        } else {
+            ventaOutbox.setProximoIntento(now.plus(backoff(intentos)));
+            LOG.info("Venta {} attempt {} failed, retrying at {}", id, intentos, ventaOutbox.getProximoIntento());
+        }
+        return ventaOutbox.getEstado();
+    }
+
+    // Exponential backoff capped at max-backoff, randomized between half and all of it so retries do not align.
+    private Duration backoff(int intentos) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long max = properties.getMaxBackoff().toMillis();
+        long exponential = initial << Math.min(intentos - 1, 20);
+        long delay = Math.min(max, exponential > 0 ? exponential : max);
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+
+    private String toJson(VentaRequestDTO ventaRequestDTO) {
+        try {
+            return objectMapper.writeValueAsString(ventaRequestDTO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the sale", e);
+        }
+    }
+
+    private VentaRequestDTO fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, VentaRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read the sale", e);
+        }
+    }
+
+    private VentaOutboxDTO toDto(VentaOutbox ventaOutbox) {
+        VentaOutboxDTO ventaOutboxDTO = new VentaOutboxDTO();
+        ventaOutboxDTO.setId(ventaOutbox.getId());
+        ventaOutboxDTO.setEstado(ventaOutbox.getEstado());
+        ventaOutboxDTO.setIntentos(ventaOutbox.getIntentos());
+        ventaOutboxDTO.setProximoIntento(ventaOutbox.getEstado() == EstadoVentaOutbox.PENDING ? ventaOutbox.getProximoIntento() : null);
+        ventaOutboxDTO.setUltimoError(ventaOutbox.getUltimoError());
+        ventaOutboxDTO.setVentaId(ventaOutbox.getVentaId());
+        ventaOutboxDTO.setCreado(ventaOutbox.getCreado());
+        ventaOutboxDTO.setActualizado(ventaOutbox.getActualizado());
+        return ventaOutboxDTO;
+    }
+}
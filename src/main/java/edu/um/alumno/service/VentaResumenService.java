@@ -0,0 +1,299 @@
+package edu.um.alumno.service;
+
+import edu.um.alumno.config.ApplicationProperties;
+import edu.um.alumno.domain.Venta;
+import edu.um.alumno.domain.enumeration.Granularidad;
+import edu.um.alumno.repository.VentaImporte;
+import edu.um.alumno.repository.VentaRepository;
+import edu.um.alumno.repository.VentaResumenRepository;
+import edu.um.alumno.repository.VentaResumenRepository.Clave;
+import edu.um.alumno.repository.VentaResumenRepository.Importe;
+import edu.um.alumno.service.dto.VentaResumenDTO;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service maintaining the daily and monthly sales rollups of {@link VentaResumenRepository}.
+ * <p>
+ * {@link VentaService} adds every written {@link Venta} to its rollups, and subtracts it again before it is changed or
+ * deleted, in the same transaction as the sale. A changed sale moves between rollups in a single batch. The days and
+ * months are those of {@code application.stats.zone}.
+ */
+@Service
+@Transactional
+public class VentaResumenService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaResumenService.class);
+
+    private static final String ENTITY_NAME = "venta";
+
+    // Sales read per query while rebuilding.
+    private static final int BATCH_SIZE = 1000;
+
+    // Bounds the response of one stats request, about three years of days.
+    private static final int MAX_PERIODOS = 1100;
+
+    private final VentaResumenRepository ventaResumenRepository;
+
+    private final VentaRepository ventaRepository;
+
+    private final ZoneId zone;
+
+    private final TransactionTemplate transaction;
+
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+
+    private volatile Instant ultimaReconstruccion;
+
+    public VentaResumenService(
+        VentaResumenRepository ventaResumenRepository,
+        VentaRepository ventaRepository,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.ventaResumenRepository = ventaResumenRepository;
+        this.ventaRepository = ventaRepository;
+        this.zone = applicationProperties.getStats().getZone();
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Add a sale to its rollups.
+     *
+     * @param venta the sale, as written.
+     */
+    public void sumar(Venta venta) {
+        aplicar(venta, 1);
+    }
+
+    /**
+     * Add several sales to their rollups, writing each rollup row once.
+     *
+     * @param ventas the sales, as written.
+     */
+    public void sumar(Collection<Venta> ventas) {
+        Map<Clave, Importe> incrementos = new HashMap<>();
+        for (Venta venta : ventas) {
+            if (venta.getFechaVenta() != null) {
+                acumular(incrementos, venta.getFechaVenta(), venta.getPrecioFinal(), venta.getDispositivoId(), 1);
+            }
+        }
+        ventaResumenRepository.incrementar(incrementos);
+    }
+
+    /**
+     * Remove a sale from its rollups, before it is changed or deleted.
+     *
+     * @param venta the sale, as it was when it was added.
+     */
+    public void restar(Venta venta) {
+        aplicar(venta, -1);
+    }
+
+    /**
+     * Take a sale out of its rollups before it is changed, without writing them yet: pass the result to
+     * {@link #reemplazar(Map, Venta)} once the sale is changed.
+     *
+     * @param venta the sale, as it was when it was added.
+     * @return the amounts to subtract, by rollup.
+     */
+    public Map<Clave, Importe> quitar(Venta venta) {
+        Map<Clave, Importe> incrementos = new HashMap<>();
+        if (venta.getFechaVenta() != null) {
+            acumular(incrementos, venta.getFechaVenta(), venta.getPrecioFinal(), venta.getDispositivoId(), -1);
+        }
+        return incrementos;
+    }
+
+    /**
+     * Add a changed sale to its rollups together with the amounts {@link #quitar(Venta)} took out of the previous ones, in
+     * one batch: each row is written once, in the same order as in every other transaction.
+     *
+     * @param quitados the amounts taken out of the rollups of the sale before it changed.
+     * @param venta the sale, as written.
+     */
+    public void reemplazar(Map<Clave, Importe> quitados, Venta venta) {
+        if (venta.getFechaVenta() != null) {
+            acumular(quitados, venta.getFechaVenta(), venta.getPrecioFinal(), venta.getDispositivoId(), 1);
+        }
+        ventaResumenRepository.incrementar(quitados);
+    }
+
+    private void aplicar(Venta venta, int signo) {
+        if (venta.getFechaVenta() == null) {
+            return;
+        }
+        Map<Clave, Importe> incrementos = new HashMap<>();
+        acumular(incrementos, venta.getFechaVenta(), venta.getPrecioFinal(), venta.getDispositivoId(), signo);
+        ventaResumenRepository.incrementar(incrementos);
+    }
+
+    private void acumular(
+        Map<Clave, Importe> incrementos,
+        ZonedDateTime fechaVenta,
+        BigDecimal precioFinal,
+        Long dispositivoId,
+        int signo
+    ) {
+        LocalDate dia = fechaVenta.withZoneSameInstant(zone).toLocalDate();
+        BigDecimal importe = precioFinal == null ? BigDecimal.ZERO : precioFinal;
+        if (signo < 0) {
+            importe = importe.negate();
+        }
+        for (Granularidad granularidad : Granularidad.values()) {
+            LocalDate periodo = inicio(granularidad, dia);
+            sumar(incrementos, new Clave(granularidad, periodo, VentaResumenRepository.TODOS_LOS_DISPOSITIVOS), signo, importe);
+            if (dispositivoId != null) {
+                sumar(incrementos, new Clave(granularidad, periodo, dispositivoId), signo, importe);
+            }
+        }
+    }
+
+    private static void sumar(Map<Clave, Importe> incrementos, Clave clave, long cantidad, BigDecimal total) {
+        incrementos.computeIfAbsent(clave, key -> new Importe()).sumar(cantidad, total);
+    }
+
+    private static LocalDate inicio(Granularidad granularidad, LocalDate dia) {
+        return granularidad == Granularidad.MES ? dia.withDayOfMonth(1) : dia;
+    }
+
+    /**
+     * Get the sales of each day or month of a range, from the rollups.
+     *
+     * @param granularidad the length of the periods.
+     * @param desde the first day, inclusive, or {@code null} for the last 30 days or the last 12 months.
+     * @param hasta the last day, exclusive, or {@code null} for tomorrow.
+     * @return the periods that had sales, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<VentaResumenDTO> findAll(Granularidad granularidad, LocalDate desde, LocalDate hasta) {
+        LOG.debug("Request to get the {} rollups of Ventas between {} and {}", granularidad, desde, hasta);
+        LocalDate to = hasta == null ? LocalDate.now(zone).plusDays(1) : hasta;
+        LocalDate from;
+        if (desde != null) {
+            from = inicio(granularidad, desde);
+        } else if (granularidad == Granularidad.MES) {
+            from = to.minusDays(1).withDayOfMonth(1).minusMonths(11);
+        } else {
+            from = to.minusDays(30);
+        }
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("from must be before to", ENTITY_NAME, "rangeinvalid");
+        }
+        ChronoUnit unit = granularidad == Granularidad.MES ? ChronoUnit.MONTHS : ChronoUnit.DAYS;
+        if (unit.between(from, to) > MAX_PERIODOS) {
+            throw new InvalidRequestException("Too many periods, at most " + MAX_PERIODOS, ENTITY_NAME, "rangetoolarge");
+        }
+        return ventaResumenRepository.findAll(granularidad, from, to);
+    }
+
+    /**
+     * Build the rollups from the sales history when there are none yet, e.g. right after they were introduced.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onApplicationReady() {
+        if (ventaResumenRepository.isEmpty() && ventaRepository.count() > 0) {
+            LOG.info("Sales rollups are empty, building them from the sales history");
+            reconstruir();
+        }
+    }
+
+    /**
+     * Rebuild every rollup from the sales history, one month at a time.
+     * <p>
+     * Each month is deleted and counted again from its sales in a short transaction of its own, so the sales written
+     * meanwhile only wait for the month being rebuilt, and readers see every other month whole. A sale written in the
+     * month being rebuilt may be missed or counted twice depending on the isolation level: run it when sales are quiet.
+     *
+     * @return the number of sales read, or empty if a rebuild is already running.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OptionalLong reconstruir() {
+        if (!reconstruyendo.compareAndSet(false, true)) {
+            return OptionalLong.empty();
+        }
+        try {
+            long start = System.nanoTime();
+            Optional<ZonedDateTime> primera = ventaRepository.findPrimeraFechaVenta();
+            Optional<ZonedDateTime> ultima = ventaRepository.findUltimaFechaVenta();
+            long ventas = 0;
+            if (primera.isEmpty() || ultima.isEmpty()) {
+                transaction.executeWithoutResult(status -> ventaResumenRepository.deleteAll());
+            } else {
+                LocalDate desde = mes(primera.orElseThrow());
+                LocalDate hasta = mes(ultima.orElseThrow()).plusMonths(1);
+                // Rollups of months left without sales, e.g. after application.stats.zone changed.
+                transaction.executeWithoutResult(status -> ventaResumenRepository.deleteAllOutside(desde, hasta));
+                for (LocalDate mes = desde; mes.isBefore(hasta); mes = mes.plusMonths(1)) {
+                    LocalDate inicio = mes;
+                    ventas += transaction.execute(status -> reconstruir(inicio));
+                }
+            }
+            ultimaReconstruccion = Instant.now();
+            LOG.info("Rebuilt the sales rollups from {} ventas in {} ms", ventas, (System.nanoTime() - start) / 1_000_000);
+            return OptionalLong.of(ventas);
+        } finally {
+            reconstruyendo.set(false);
+        }
+    }
+
+    // Reads the sales of the month in batches by date and id, and writes its rollups once.
+    private long reconstruir(LocalDate mes) {
+        ventaResumenRepository.deleteAll(mes, mes.plusMonths(1));
+        ZonedDateTime hasta = mes.plusMonths(1).atStartOfDay(zone);
+        ZonedDateTime ultimaFecha = mes.atStartOfDay(zone);
+        Long ultimoId = Long.MIN_VALUE;
+        long ventas = 0;
+        Map<Clave, Importe> incrementos = new HashMap<>();
+        List<VentaImporte> batch;
+        do {
+            batch = ventaRepository.findAllImportesAfter(ultimaFecha, ultimoId, hasta, PageRequest.ofSize(BATCH_SIZE));
+            for (VentaImporte venta : batch) {
+                acumular(incrementos, venta.getFechaVenta(), venta.getPrecioFinal(), venta.getDispositivoId(), 1);
+            }
+            ventas += batch.size();
+            if (!batch.isEmpty()) {
+                ultimaFecha = batch.get(batch.size() - 1).getFechaVenta();
+                ultimoId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        ventaResumenRepository.incrementar(incrementos);
+        return ventas;
+    }
+
+    private LocalDate mes(ZonedDateTime fechaVenta) {
+        return fechaVenta.withZoneSameInstant(zone).toLocalDate().withDayOfMonth(1);
+    }
+
+    public boolean isReconstruyendo() {
+        return reconstruyendo.get();
+    }
+
+    public Instant getUltimaReconstruccion() {
+        return ultimaReconstruccion;
+    }
+}
@@ -1,39 +1,41 @@
 package edu.um.alumno.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.um.alumno.domain.User;
 import edu.um.alumno.domain.Venta;
 import edu.um.alumno.repository.UserRepository;
+import edu.um.alumno.repository.VentaBulkRepository;
 import edu.um.alumno.repository.VentaRepository;
+import edu.um.alumno.repository.VentaResumenRepository.Clave;
+import edu.um.alumno.repository.VentaResumenRepository.Importe;
 import edu.um.alumno.service.dto.VentaDTO;
 import edu.um.alumno.service.dto.VentaRequestDTO;
 import edu.um.alumno.service.dto.VentaResponseDTO;
 import edu.um.alumno.service.mapper.VentaMapper;
-import edu.um.alumno.web.rest.VentaResource;
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service Implementation for managing {@link edu.um.alumno.domain.Venta}.
@@ -44,18 +46,47 @@ public class VentaService {
 
     private static final Logger LOG = LoggerFactory.getLogger(VentaService.class);
 
+    // The default page size of the history, the one that is cached.
+    private static final int RECENT_VENTAS_SIZE = 20;
+
+    // Bounds used when a date filter is not given.
+    private static final ZonedDateTime SIN_DESDE = ZonedDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+
+    private static final ZonedDateTime SIN_HASTA = ZonedDateTime.of(9999, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
     private final VentaRepository ventaRepository;
     private final UserRepository userRepository;
 
+    private final VentaBulkRepository ventaBulkRepository;
+
     private final VentaMapper ventaMapper;
 
-    private static final RestTemplate restTemplate = new RestTemplate();
-    private static final String profesorBackendUrl = "http://192.168.194.254:8080/api/catedra/";
+    private final VentaCatedraService ventaCatedraService;
 
-    public VentaService(VentaRepository ventaRepository, VentaMapper ventaMapper, UserRepository userRepository) {
+    private final TransactionTemplate transaction;
+
+    private final CacheManager cacheManager;
+
+    private final VentaResumenService ventaResumenService;
+
+    public VentaService(
+        VentaRepository ventaRepository,
+        VentaMapper ventaMapper,
+        UserRepository userRepository,
+        VentaCatedraService ventaCatedraService,
+        PlatformTransactionManager transactionManager,
+        CacheManager cacheManager,
+        VentaResumenService ventaResumenService,
+        VentaBulkRepository ventaBulkRepository
+    ) {
         this.ventaRepository = ventaRepository;
         this.ventaMapper = ventaMapper;
         this.userRepository = userRepository;
+        this.ventaCatedraService = ventaCatedraService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.ventaResumenService = ventaResumenService;
+        this.ventaBulkRepository = ventaBulkRepository;
     }
 
     /**
@@ -69,6 +100,10 @@ public class VentaService {
             LOG.debug("Request to save Venta : {}", ventaDTO);
             Venta venta = ventaMapper.toEntity(ventaDTO);
             venta = ventaRepository.save(venta);
+            ventaResumenService.sumar(venta);
+            if (venta.getUser() != null) {
+                recentVentasCache().evict(venta.getUser().getId());
+            }
             LOG.info("Venta saved with ID: {}", venta.getId());
             return ventaMapper.toDto(venta);
         } catch (Exception e) {
@@ -91,8 +126,13 @@ public class VentaService {
                 LOG.warn("Venta with ID {} not found", ventaDTO.getId());
                 return null; // or throw an exception
             }
+            // Taken out before the save, which merges the new values into the managed instance.
+            Map<Clave, Importe> quitados = ventaResumenService.quitar(optionalVenta.orElseThrow());
             Venta venta = ventaMapper.toEntity(ventaDTO);
             venta = ventaRepository.save(venta);
+            ventaResumenService.reemplazar(quitados, venta);
+            // The buyer may have changed, so every history is dropped; updates are rare admin operations.
+            recentVentasCache().clear();
             LOG.info("Venta updated with ID: {}", venta.getId());
             return ventaMapper.toDto(venta);
         } catch (Exception e) {
@@ -113,7 +153,10 @@ public class VentaService {
         return ventaRepository
             .findById(ventaDTO.getId())
             .map(existingVenta -> {
+                Map<Clave, Importe> quitados = ventaResumenService.quitar(existingVenta);
                 ventaMapper.partialUpdate(existingVenta, ventaDTO);
+                ventaResumenService.reemplazar(quitados, existingVenta);
+                recentVentasCache().clear();
                 LOG.info("Venta updated with ID: {}", existingVenta.getId());
 
                 return existingVenta;
@@ -124,6 +167,8 @@ public class VentaService {
 
     /**
      * Get all the ventas.
+     * <p>
+     * Only the id of the buyer is selected, so no user is loaded.
      *
      * @param pageable the pagination information.
      * @return the list of entities.
@@ -131,7 +176,24 @@ public class VentaService {
     @Transactional(readOnly = true)
     public Page<VentaDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Ventas");
-        return ventaRepository.findAll(pageable).map(ventaMapper::toDto);
+        return ventaRepository.findAllAsDto(pageable);
+    }
+
+    /**
+     * Get the ventas that follow a given one, newest first, without counting them.
+     *
+     * @param fechaVenta the date of the last venta of the previous page, or {@code null} for the first page.
+     * @param id the id of the last venta of the previous page.
+     * @param size the number of rows of the page.
+     * @return the slice of DTOs.
+     */
+    @Transactional(readOnly = true)
+    public Slice<VentaDTO> findAllBefore(ZonedDateTime fechaVenta, Long id, int size) {
+        LOG.debug("Request to get Ventas before : {}, {}", fechaVenta, id);
+        List<VentaDTO> rows = fechaVenta == null
+            ? ventaRepository.findLatestAsDto(KeysetSlices.probe(size))
+            : ventaRepository.findAllAsDtoBefore(fechaVenta, id, KeysetSlices.probe(size));
+        return KeysetSlices.of(rows, size);
     }
 
     /**
@@ -159,7 +221,9 @@ public class VentaService {
     public void delete(Long id) {
         try {
             LOG.debug("Request to delete Venta : {}", id);
+            ventaRepository.findById(id).ifPresent(ventaResumenService::restar);
             ventaRepository.deleteById(id);
+            recentVentasCache().clear();
             LOG.info("Venta deleted with ID: {}", id);
         } catch (Exception e) {
             LOG.error("Error deleting Venta", e);
@@ -167,124 +231,139 @@ public class VentaService {
         }
     }
 
-    public List<VentaDTO> getVentasByUserId(Long userId) {
-        try {
-            LOG.debug("Request to get all Ventas for user : {}", userId);
-            List<Venta> ventas = ventaRepository.findByUserId(userId);
-            LOG.info("Found {} ventas for user ID: {}", ventas.size(), userId);
-
-            return ventas.stream().map(ventaMapper::toDto).collect(Collectors.toList());
-        } catch (Exception e) {
-            LOG.error("Error getting Ventas", e);
-            throw new RuntimeException("Error getting Ventas", e);
+    /**
+     * Get the sales history of a user, newest first, without counting it.
+     * <p>
+     * The first page of the default size, without date filters, is the one shown to the buyer, so it is cached per user
+     * until one of their sales is written.
+     *
+     * @param userId the id of the user.
+     * @param desde the earliest date, inclusive, or {@code null}.
+     * @param hasta the latest date, exclusive, or {@code null}.
+     * @param fechaVenta the date of the last venta of the previous page, or {@code null} for the first page.
+     * @param id the id of the last venta of the previous page.
+     * @param size the number of rows of the page.
+     * @return the slice of DTOs.
+     */
+    @Transactional(readOnly = true)
+    public Slice<VentaDTO> findAllByUser(
+        Long userId,
+        ZonedDateTime desde,
+        ZonedDateTime hasta,
+        ZonedDateTime fechaVenta,
+        Long id,
+        int size
+    ) {
+        LOG.debug("Request to get Ventas for user {} between {} and {} before : {}, {}", userId, desde, hasta, fechaVenta, id);
+        ZonedDateTime from = desde == null ? SIN_DESDE : desde;
+        ZonedDateTime to = hasta == null ? SIN_HASTA : hasta;
+        Pageable probe = KeysetSlices.probe(size);
+        List<VentaDTO> rows;
+        if (fechaVenta != null) {
+            rows = ventaRepository.findAllAsDtoByUserBefore(userId, from, fechaVenta, id, probe);
+        } else if (desde == null && hasta == null && size == RECENT_VENTAS_SIZE) {
+            rows = recentVentasCache().get(userId, () -> List.copyOf(ventaRepository.findLatestAsDtoByUser(userId, from, to, probe)));
+        } else {
+            rows = ventaRepository.findLatestAsDtoByUser(userId, from, to, probe);
         }
+        return KeysetSlices.of(rows, size);
+    }
+
+    // Evictions are deferred to the commit, so a concurrent read cannot cache the history again without the new sale.
+    private Cache recentVentasCache() {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(VentaRepository.RECENT_VENTAS_BY_USER_CACHE));
+        return new TransactionAwareCacheDecorator(cache);
     }
 
+    /**
+     * Process a sale: send it to the cátedra backend, then save it locally.
+     *
+     * @param ventaRequestDTO the sale.
+     * @return the persisted entity.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Venta procesarVenta(VentaRequestDTO ventaRequestDTO) {
-        try {
-            String token = getToken();
+        return procesarVenta(ventaRequestDTO, venta -> {});
+    }
 
+    /**
+     * Process a sale: send it to the cátedra backend, then save it locally.
+     * <p>
+     * The cátedra is called before any transaction is opened, so no database connection is held while it answers; the
+     * sale is then saved in a new transaction, together with whatever {@code alRegistrar} writes. A failure caused by a
+     * {@link VentaNoEnviadaException} means the cátedra certainly did not record the sale.
+     *
+     * @param ventaRequestDTO the sale.
+     * @param alRegistrar called with the sale in the transaction that saves it.
+     * @return the persisted entity.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Venta procesarVenta(VentaRequestDTO ventaRequestDTO, Consumer<Venta> alRegistrar) {
+        try {
             // Obtener el id del usuario autenticado
             Long userId = ventaRequestDTO.getUserId();
             LOG.debug("Processing venta for user ID: {}", userId);
 
             // Obtener el usuario desde el repositorio
-            User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-
-            // Crear los headers y agregar el token JWT
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(token);
-
-            // Crear la entidad HTTP con los headers y el cuerpo de la solicitud
-            HttpEntity<VentaRequestDTO> entity = new HttpEntity<>(ventaRequestDTO, headers);
-
-            // Enviar solicitud al backend del profesor
-            ResponseEntity<VentaResponseDTO> response = restTemplate.exchange(
-                profesorBackendUrl + "/vender",
-                HttpMethod.POST,
-                entity,
-                VentaResponseDTO.class
-            );
-
-            LOG.info("Venta processed with response: {}", response.getBody());
-
-            // Crear y guardar la venta en la base de datos
-            Venta venta = new Venta();
-
-            venta.setId(VentaResponseDTO.getIdVenta());
-            venta.setFechaVenta(ventaRequestDTO.getFechaVenta());
-            venta.setPrecioFinal(ventaRequestDTO.getPrecioFinal());
-            venta.setUser(user);
-
-            return ventaRepository.save(venta);
+            User user = userRepository.findById(userId).orElseThrow(() -> new VentaNoEnviadaException("User not found"));
+
+            VentaResponseDTO response;
+            try {
+                response = ventaCatedraService.enviarVenta(ventaRequestDTO);
+            } catch (RuntimeException e) {
+                // Classified here, before the local save, whose own failures never mean the sale was not sent.
+                if (VentaCatedraService.isNoRecibida(e)) {
+                    throw new VentaNoEnviadaException("The cátedra did not record the sale", e);
+                }
+                throw e;
+            }
+            return transaction.execute(status -> {
+                Venta venta = registrarVenta(ventaRequestDTO, response.getIdVenta(), user);
+                alRegistrar.accept(venta);
+                return venta;
+            });
         } catch (Exception e) {
             LOG.error("Error processing Venta", e);
             throw new RuntimeException("Error processing Venta", e);
         }
     }
 
-    public static Map<String, Object> getVentaById(Long id) {
-        try {
-            String token = getToken();
-
-            LOG.debug("Request to get Venta by ID from profesor backend: {}", id);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(token);
-
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                profesorBackendUrl + "/venta/" + id,
-                HttpMethod.GET,
-                entity,
-                new ParameterizedTypeReference<Map<String, Object>>() {}
-            );
-            LOG.info("Venta retrieved from profesor backend: {}", response.getBody());
-
-            return response.getBody();
-        } catch (Exception e) {
-            LOG.error("Error getting Venta by ID", e);
-            throw new RuntimeException("Error getting Venta by ID", e);
-        }
-    }
-
-    public static List<Map<String, Object>> getAllVentasAdmin() {
-        try {
-            String token = getToken();
-            LOG.debug("Request to get all Ventas from profesor backend as admin");
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(token);
-
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
-                profesorBackendUrl + "/ventas",
-                HttpMethod.GET,
-                entity,
-                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
-            );
-            LOG.info("All ventas retrieved from profesor backend: {}", response.getBody());
-
-            return response.getBody();
-        } catch (Exception e) {
-            LOG.error("Error getting all Ventas as admin", e);
-            throw new RuntimeException("Error getting all Ventas as admin", e);
-        }
+    /**
+     * Save locally a sale accepted by the cátedra backend.
+     *
+     * @param ventaRequestDTO the sale that was sent.
+     * @param idVenta the id assigned by the cátedra.
+     * @param user the buyer.
+     * @return the persisted entity.
+     */
+    public Venta registrarVenta(VentaRequestDTO ventaRequestDTO, Long idVenta, User user) {
+        // Crear y guardar la venta en la base de datos
+        Venta venta = new Venta();
+
+        venta.setId(idVenta);
+        venta.setFechaVenta(ventaRequestDTO.getFechaVenta());
+        venta.setPrecioFinal(ventaRequestDTO.getPrecioFinal());
+        venta.setDispositivoId(ventaRequestDTO.getIdDispositivo());
+        venta.setUser(user);
+
+        venta = ventaRepository.save(venta);
+        ventaResumenService.sumar(venta);
+        recentVentasCache().evict(user.getId());
+        return venta;
     }
 
-    private static String getToken() {
-        String token = null;
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            byte[] jsonData = Files.readAllBytes(Paths.get("apitoken.json"));
-            Map<String, String> tokenMap = objectMapper.readValue(jsonData, Map.class);
-            token = tokenMap.get("token");
-            LOG.debug("Token retrieved from apitoken.json");
-        } catch (IOException e) {
-            LOG.error("Error reading token from apitoken.json", e);
-
-            throw new RuntimeException("Error reading token from apitoken.json", e);
-        }
-        return token;
+    /**
+     * Save locally, in one set of JDBC batches, several sales accepted by the cátedra backend.
+     *
+     * @param ventas the sales, with the ids assigned by the cátedra and their buyer. Ids recorded already are skipped.
+     */
+    public void registrarVentas(List<Venta> ventas) {
+        Set<Long> existentes = ventaRepository.findExistingIds(ventas.stream().map(Venta::getId).toList());
+        List<Venta> nuevas = ventas.stream().filter(venta -> !existentes.contains(venta.getId())).toList();
+        ventaBulkRepository.insertAll(nuevas);
+        ventaResumenService.sumar(nuevas);
+        Cache cache = recentVentasCache();
+        nuevas.stream().map(venta -> venta.getUser().getId()).distinct().forEach(cache::evict);
+        LOG.info("Registered {} ventas, {} were already recorded", nuevas.size(), existentes.size());
     }
 }
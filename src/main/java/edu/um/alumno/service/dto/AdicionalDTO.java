@@ -28,6 +28,21 @@ public class AdicionalDTO implements Serializable {
 
     private Set<DispositivoDTO> dispositivos = new HashSet<>();
 
+    public AdicionalDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    /**
+     * Constructor for the read-only list projection of {@link edu.um.alumno.repository.AdicionalRepository}.
+     */
+    public AdicionalDTO(Long id, String nombre, String descripcion, BigDecimal precio, BigDecimal precioGratis) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.precio = precio;
+        this.precioGratis = precioGratis;
+    }
+
     public Long getId() {
         return id;
     }
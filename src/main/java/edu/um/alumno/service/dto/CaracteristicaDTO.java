@@ -20,6 +20,23 @@ public class CaracteristicaDTO implements Serializable {
 
     private DispositivoDTO dispositivo;
 
+    public CaracteristicaDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    /**
+     * Constructor for the read-only list projection of {@link edu.um.alumno.repository.CaracteristicaRepository}.
+     */
+    public CaracteristicaDTO(Long id, String nombre, String descripcion, Long dispositivoId) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        if (dispositivoId != null) {
+            this.dispositivo = new DispositivoDTO();
+            this.dispositivo.setId(dispositivoId);
+        }
+    }
+
     public Long getId() {
         return id;
     }
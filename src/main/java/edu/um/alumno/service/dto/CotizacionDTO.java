@@ -0,0 +1,83 @@
+package edu.um.alumno.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * The price of a configuration of a {@link edu.um.alumno.domain.Dispositivo}, see {@link CotizacionRequestDTO}.
+ */
+public class CotizacionDTO implements Serializable {
+
+    private Long dispositivoId;
+
+    private String moneda;
+
+    private BigDecimal precioBase;
+
+    private BigDecimal precioOpciones;
+
+    private BigDecimal precioAdicionales;
+
+    private BigDecimal precioFinal;
+
+    public Long getDispositivoId() {
+        return dispositivoId;
+    }
+
+    public void setDispositivoId(Long dispositivoId) {
+        this.dispositivoId = dispositivoId;
+    }
+
+    public String getMoneda() {
+        return moneda;
+    }
+
+    public void setMoneda(String moneda) {
+        this.moneda = moneda;
+    }
+
+    public BigDecimal getPrecioBase() {
+        return precioBase;
+    }
+
+    public void setPrecioBase(BigDecimal precioBase) {
+        this.precioBase = precioBase;
+    }
+
+    public BigDecimal getPrecioOpciones() {
+        return precioOpciones;
+    }
+
+    public void setPrecioOpciones(BigDecimal precioOpciones) {
+        this.precioOpciones = precioOpciones;
+    }
+
+    public BigDecimal getPrecioAdicionales() {
+        return precioAdicionales;
+    }
+
+    public void setPrecioAdicionales(BigDecimal precioAdicionales) {
+        this.precioAdicionales = precioAdicionales;
+    }
+
+    public BigDecimal getPrecioFinal() {
+        return precioFinal;
+    }
+
+    public void setPrecioFinal(BigDecimal precioFinal) {
+        this.precioFinal = precioFinal;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CotizacionDTO{" +
+            "dispositivoId=" + getDispositivoId() +
+            ", moneda='" + getMoneda() + "'" +
+            ", precioBase=" + getPrecioBase() +
+            ", precioOpciones=" + getPrecioOpciones() +
+            ", precioAdicionales=" + getPrecioAdicionales() +
+            ", precioFinal=" + getPrecioFinal() +
+            "}";
+    }
+}
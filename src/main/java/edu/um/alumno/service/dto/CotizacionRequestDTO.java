@@ -0,0 +1,53 @@
+package edu.um.alumno.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A configuration of a {@link edu.um.alumno.domain.Dispositivo} to price: at most one opción per personalización, and
+ * the adicionales to include.
+ */
+public class CotizacionRequestDTO implements Serializable {
+
+    // Sólo se usa en la cotización por lotes; en la individual el dispositivo viene en la ruta.
+    private Long dispositivoId;
+
+    private List<Long> opciones = new ArrayList<>();
+
+    private List<Long> adicionales = new ArrayList<>();
+
+    public Long getDispositivoId() {
+        return dispositivoId;
+    }
+
+    public void setDispositivoId(Long dispositivoId) {
+        this.dispositivoId = dispositivoId;
+    }
+
+    public List<Long> getOpciones() {
+        return opciones;
+    }
+
+    public void setOpciones(List<Long> opciones) {
+        this.opciones = opciones;
+    }
+
+    public List<Long> getAdicionales() {
+        return adicionales;
+    }
+
+    public void setAdicionales(List<Long> adicionales) {
+        this.adicionales = adicionales;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CotizacionRequestDTO{" +
+            "dispositivoId=" + getDispositivoId() +
+            ", opciones=" + getOpciones() +
+            ", adicionales=" + getAdicionales() +
+            "}";
+    }
+}
@@ -0,0 +1,94 @@
+package edu.um.alumno.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * Row counts of a bulk removal of {@link edu.um.alumno.domain.Dispositivo} graphs.
+ */
+public class DispositivoBulkDeleteResultDTO implements Serializable {
+
+    private int dispositivos;
+
+    private int caracteristicas;
+
+    private int personalizaciones;
+
+    private int opciones;
+
+    private int adicionales;
+
+    public DispositivoBulkDeleteResultDTO() {}
+
+    public DispositivoBulkDeleteResultDTO(int dispositivos, int caracteristicas, int personalizaciones, int opciones, int adicionales) {
+        this.dispositivos = dispositivos;
+        this.caracteristicas = caracteristicas;
+        this.personalizaciones = personalizaciones;
+        this.opciones = opciones;
+        this.adicionales = adicionales;
+    }
+
+    public int getDispositivos() {
+        return dispositivos;
+    }
+
+    public void setDispositivos(int dispositivos) {
+        this.dispositivos = dispositivos;
+    }
+
+    public int getCaracteristicas() {
+        return caracteristicas;
+    }
+
+    public void setCaracteristicas(int caracteristicas) {
+        this.caracteristicas = caracteristicas;
+    }
+
+    public int getPersonalizaciones() {
+        return personalizaciones;
+    }
+
+    public void setPersonalizaciones(int personalizaciones) {
+        this.personalizaciones = personalizaciones;
+    }
+
+    public int getOpciones() {
+        return opciones;
+    }
+
+    public void setOpciones(int opciones) {
+        this.opciones = opciones;
+    }
+
+    /**
+     * The links to adicionales removed; the adicionales themselves are shared by other devices and kept.
+     */
+    public int getAdicionales() {
+        return adicionales;
+    }
+
+    public void setAdicionales(int adicionales) {
+        this.adicionales = adicionales;
+    }
+
+    public DispositivoBulkDeleteResultDTO add(DispositivoBulkDeleteResultDTO other) {
+        return new DispositivoBulkDeleteResultDTO(
+            dispositivos + other.dispositivos,
+            caracteristicas + other.caracteristicas,
+            personalizaciones + other.personalizaciones,
+            opciones + other.opciones,
+            adicionales + other.adicionales
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DispositivoBulkDeleteResultDTO{" +
+            "dispositivos=" + dispositivos +
+            ", caracteristicas=" + caracteristicas +
+            ", personalizaciones=" + personalizaciones +
+            ", opciones=" + opciones +
+            ", adicionales=" + adicionales +
+            "}";
+    }
+}
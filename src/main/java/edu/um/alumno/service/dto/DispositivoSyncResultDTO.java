@@ -0,0 +1,89 @@
+package edu.um.alumno.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * Row counts of a bulk write of {@link edu.um.alumno.domain.Dispositivo} graphs received from the remote catalog.
+ */
+public class DispositivoSyncResultDTO implements Serializable {
+
+    private int inserted;
+
+    private int updated;
+
+    private int unchanged;
+
+    private int deleted;
+
+    public DispositivoSyncResultDTO() {}
+
+    public DispositivoSyncResultDTO(int inserted, int updated, int unchanged) {
+        this(inserted, updated, unchanged, 0);
+    }
+
+    public DispositivoSyncResultDTO(int inserted, int updated, int unchanged, int deleted) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+        this.deleted = deleted;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(int unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * The local devices deleted because the remote catalog no longer has them.
+     */
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(int deleted) {
+        this.deleted = deleted;
+    }
+
+    public boolean hasChanges() {
+        return inserted > 0 || updated > 0 || deleted > 0;
+    }
+
+    public DispositivoSyncResultDTO add(DispositivoSyncResultDTO other) {
+        return new DispositivoSyncResultDTO(
+            inserted + other.inserted,
+            updated + other.updated,
+            unchanged + other.unchanged,
+            deleted + other.deleted
+        );
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DispositivoSyncResultDTO{" +
+            "inserted=" + inserted +
+            ", updated=" + updated +
+            ", unchanged=" + unchanged +
+            ", deleted=" + deleted +
+            "}";
+    }
+}
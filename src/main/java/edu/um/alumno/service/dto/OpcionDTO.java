@@ -27,6 +27,25 @@ public class OpcionDTO implements Serializable {
 
     private PersonalizacionDTO personalizacion;
 
+    public OpcionDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    /**
+     * Constructor for the read-only list projection of {@link edu.um.alumno.repository.OpcionRepository}.
+     */
+    public OpcionDTO(Long id, String codigo, String nombre, String descripcion, BigDecimal precioAdicional, Long personalizacionId) {
+        this.id = id;
+        this.codigo = codigo;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.precioAdicional = precioAdicional;
+        if (personalizacionId != null) {
+            this.personalizacion = new PersonalizacionDTO();
+            this.personalizacion.setId(personalizacionId);
+        }
+    }
+
     public Long getId() {
         return id;
     }
@@ -23,6 +23,23 @@ public class PersonalizacionDTO implements Serializable {
 
     private Set<OpcionDTO> opciones;
 
+    public PersonalizacionDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    /**
+     * Constructor for the read-only list projection of {@link edu.um.alumno.repository.PersonalizacionRepository}.
+     */
+    public PersonalizacionDTO(Long id, String nombre, String descripcion, Long dispositivoId) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        if (dispositivoId != null) {
+            this.dispositivo = new DispositivoDTO();
+            this.dispositivo.setId(dispositivoId);
+        }
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,95 @@
+package edu.um.alumno.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * Outcome of one sale of {@code POST /api/ventas/vender/batch}, in the order of the request.
+ */
+public class VentaBatchResultDTO implements Serializable {
+
+    /**
+     * What happened to a sale of a batch.
+     */
+    public enum Estado {
+        /**
+         * Accepted by the cátedra and recorded.
+         */
+        CREATED,
+        /**
+         * Not sent to the cátedra, because it is not valid. Retrying it as is fails again.
+         */
+        REJECTED,
+        /**
+         * Sending or recording it failed, see the error. It may be retried unless the error says the cátedra has it.
+         */
+        FAILED,
+    }
+
+    private int index;
+
+    private Estado estado;
+
+    private Long ventaId;
+
+    private String error;
+
+    public VentaBatchResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public VentaBatchResultDTO(int index, Estado estado, Long ventaId, String error) {
+        this.index = index;
+        this.estado = estado;
+        this.ventaId = ventaId;
+        this.error = error;
+    }
+
+    /**
+     * The position of the sale in the request, from 0.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public void setEstado(Estado estado) {
+        this.estado = estado;
+    }
+
+    /**
+     * The id assigned by the cátedra, if it accepted the sale.
+     */
+    public Long getVentaId() {
+        return ventaId;
+    }
+
+    public void setVentaId(Long ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaBatchResultDTO{" +
+            "index=" + getIndex() +
+            ", estado=" + getEstado() +
+            ", ventaId=" + getVentaId() +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
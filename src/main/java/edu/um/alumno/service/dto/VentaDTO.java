@@ -19,8 +19,28 @@ public class VentaDTO implements Serializable {
 
     private BigDecimal precioFinal;
 
+    private Long dispositivoId;
+
     private UserDTO user;
 
+    public VentaDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    /**
+     * Constructor for the read-only list projection of {@link edu.um.alumno.repository.VentaRepository}.
+     */
+    public VentaDTO(Long id, ZonedDateTime fechaVenta, BigDecimal precioFinal, Long dispositivoId, Long userId) {
+        this.id = id;
+        this.fechaVenta = fechaVenta;
+        this.precioFinal = precioFinal;
+        this.dispositivoId = dispositivoId;
+        if (userId != null) {
+            this.user = new UserDTO();
+            this.user.setId(userId);
+        }
+    }
+
     public Long getId() {
         return id;
     }
@@ -45,6 +65,14 @@ public class VentaDTO implements Serializable {
         this.precioFinal = precioFinal;
     }
 
+    public Long getDispositivoId() {
+        return dispositivoId;
+    }
+
+    public void setDispositivoId(Long dispositivoId) {
+        this.dispositivoId = dispositivoId;
+    }
+
     public UserDTO getUser() {
         return user;
     }
@@ -81,6 +109,7 @@ public class VentaDTO implements Serializable {
             "id=" + getId() +
             ", fechaVenta='" + getFechaVenta() + "'" +
             ", precioFinal=" + getPrecioFinal() +
+            ", dispositivoId=" + getDispositivoId() +
             ", user=" + getUser() +
             "}";
     }
@@ -0,0 +1,106 @@
+package edu.um.alumno.service.dto;
+
+import edu.um.alumno.domain.enumeration.EstadoVentaOutbox;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Status of a sale submitted asynchronously, see {@link edu.um.alumno.domain.VentaOutbox}.
+ */
+public class VentaOutboxDTO implements Serializable {
+
+    private Long id;
+
+    private EstadoVentaOutbox estado;
+
+    private int intentos;
+
+    private Instant proximoIntento;
+
+    private String ultimoError;
+
+    private Long ventaId;
+
+    private Instant creado;
+
+    private Instant actualizado;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public EstadoVentaOutbox getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoVentaOutbox estado) {
+        this.estado = estado;
+    }
+
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+
+    public Instant getProximoIntento() {
+        return proximoIntento;
+    }
+
+    public void setProximoIntento(Instant proximoIntento) {
+        this.proximoIntento = proximoIntento;
+    }
+
+    public String getUltimoError() {
+        return ultimoError;
+    }
+
+    public void setUltimoError(String ultimoError) {
+        this.ultimoError = ultimoError;
+    }
+
+    public Long getVentaId() {
+        return ventaId;
+    }
+
+    public void setVentaId(Long ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public Instant getCreado() {
+        return creado;
+    }
+
+    public void setCreado(Instant creado) {
+        this.creado = creado;
+    }
+
+    public Instant getActualizado() {
+        return actualizado;
+    }
+
+    public void setActualizado(Instant actualizado) {
+        this.actualizado = actualizado;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaOutboxDTO{" +
+            "id=" + getId() +
+            ", estado='" + getEstado() + "'" +
+            ", intentos=" + getIntentos() +
+            ", proximoIntento='" + getProximoIntento() + "'" +
+            ", ultimoError='" + getUltimoError() + "'" +
+            ", ventaId=" + getVentaId() +
+            ", creado='" + getCreado() + "'" +
+            ", actualizado='" + getActualizado() + "'" +
+            "}";
+    }
+}
@@ -1,12 +1,15 @@
 package edu.um.alumno.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.List;
 
 public class VentaRequestDTO {
 
-    private static Long userId;
+    // Se recibe del cliente pero no se envía a la cátedra.
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private Long userId;
     private Long idDispositivo;
     private List<PersonalizacionDTO> personalizaciones;
     private List<AdicionalDTO> adicionales;
@@ -22,7 +25,7 @@ public class VentaRequestDTO {
         this.idDispositivo = idDispositivo;
     }
 
-    public static Long getUserId() {
+    public Long getUserId() {
         return userId;
     }
 
@@ -1,11 +1,19 @@
 package edu.um.alumno.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.ZonedDateTime;
 import java.util.List;
 
-public class VentaResponseDTO {
+/**
+ * A sale as returned by the cátedra backend, when it is created and when it is looked up.
+ * The list of sales only fills the id, the date and the final price.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class VentaResponseDTO implements Serializable {
 
-    private static Long idVenta;
+    private Long idVenta;
     private Long idDispositivo;
     private String codigo;
     private String nombre;
@@ -15,10 +23,12 @@ public class VentaResponseDTO {
     private List<CaracteristicaDTO> catacteristicas;
     private List<PersonalizacionDTO> personalizaciones;
     private List<AdicionalDTO> adicionales;
+    private BigDecimal precioFinal;
+    private ZonedDateTime fechaVenta;
 
     // Getters and Setters
 
-    public static Long getIdVenta() {
+    public Long getIdVenta() {
         return idVenta;
     }
 
@@ -26,15 +36,142 @@ public class VentaResponseDTO {
         this.idVenta = idVenta;
     }
 
-    public static class CaracteristicaDTO {
+    public Long getIdDispositivo() {
+        return idDispositivo;
+    }
+
+    public void setIdDispositivo(Long idDispositivo) {
+        this.idDispositivo = idDispositivo;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public void setDescripcion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public BigDecimal getPrecioBase() {
+        return precioBase;
+    }
+
+    public void setPrecioBase(BigDecimal precioBase) {
+        this.precioBase = precioBase;
+    }
+
+    public String getMoneda() {
+        return moneda;
+    }
+
+    public void setMoneda(String moneda) {
+        this.moneda = moneda;
+    }
+
+    public List<CaracteristicaDTO> getCatacteristicas() {
+        return catacteristicas;
+    }
+
+    public void setCatacteristicas(List<CaracteristicaDTO> catacteristicas) {
+        this.catacteristicas = catacteristicas;
+    }
+
+    public List<PersonalizacionDTO> getPersonalizaciones() {
+        return personalizaciones;
+    }
+
+    public void setPersonalizaciones(List<PersonalizacionDTO> personalizaciones) {
+        this.personalizaciones = personalizaciones;
+    }
+
+    public List<AdicionalDTO> getAdicionales() {
+        return adicionales;
+    }
+
+    public void setAdicionales(List<AdicionalDTO> adicionales) {
+        this.adicionales = adicionales;
+    }
+
+    public BigDecimal getPrecioFinal() {
+        return precioFinal;
+    }
+
+    public void setPrecioFinal(BigDecimal precioFinal) {
+        this.precioFinal = precioFinal;
+    }
+
+    public ZonedDateTime getFechaVenta() {
+        return fechaVenta;
+    }
+
+    public void setFechaVenta(ZonedDateTime fechaVenta) {
+        this.fechaVenta = fechaVenta;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaResponseDTO{" +
+            "idVenta=" + getIdVenta() +
+            ", idDispositivo=" + getIdDispositivo() +
+            ", codigo='" + getCodigo() + "'" +
+            ", precioFinal=" + getPrecioFinal() +
+            ", fechaVenta='" + getFechaVenta() + "'" +
+            "}";
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class CaracteristicaDTO implements Serializable {
 
         private Long id;
         private String nombre;
         private String descripcion;
+
         // Getters and Setters
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public void setNombre(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+
+        public void setDescripcion(String descripcion) {
+            this.descripcion = descripcion;
+        }
     }
 
-    public static class PersonalizacionDTO {
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PersonalizacionDTO implements Serializable {
 
         private Long id;
         private String nombre;
@@ -43,23 +180,131 @@ public class VentaResponseDTO {
 
         // Getters and Setters
 
-        public static class OpcionDTO {
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public void setNombre(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+
+        public void setDescripcion(String descripcion) {
+            this.descripcion = descripcion;
+        }
+
+        public OpcionDTO getOpcion() {
+            return opcion;
+        }
+
+        public void setOpcion(OpcionDTO opcion) {
+            this.opcion = opcion;
+        }
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        public static class OpcionDTO implements Serializable {
 
             private Long id;
             private String codigo;
             private String nombre;
             private String descripcion;
             private BigDecimal precioAdicional;
+
             // Getters and Setters
+
+            public Long getId() {
+                return id;
+            }
+
+            public void setId(Long id) {
+                this.id = id;
+            }
+
+            public String getCodigo() {
+                return codigo;
+            }
+
+            public void setCodigo(String codigo) {
+                this.codigo = codigo;
+            }
+
+            public String getNombre() {
+                return nombre;
+            }
+
+            public void setNombre(String nombre) {
+                this.nombre = nombre;
+            }
+
+            public String getDescripcion() {
+                return descripcion;
+            }
+
+            public void setDescripcion(String descripcion) {
+                this.descripcion = descripcion;
+            }
+
+            public BigDecimal getPrecioAdicional() {
+                return precioAdicional;
+            }
+
+            public void setPrecioAdicional(BigDecimal precioAdicional) {
+                this.precioAdicional = precioAdicional;
+            }
         }
     }
 
-    public static class AdicionalDTO {
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class AdicionalDTO implements Serializable {
 
         private Long id;
         private String nombre;
         private String descripcion;
         private BigDecimal precio;
+
         // Getters and Setters
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public void setNombre(String nombre) {
+            this.nombre = nombre;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+
+        public void setDescripcion(String descripcion) {
+            this.descripcion = descripcion;
+        }
+
+        public BigDecimal getPrecio() {
+            return precio;
+        }
+
+        public void setPrecio(BigDecimal precio) {
+            this.precio = precio;
+        }
     }
 }
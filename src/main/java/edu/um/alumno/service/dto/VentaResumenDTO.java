@@ -0,0 +1,78 @@
+package edu.um.alumno.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The sales of one day or month, read from the rollups of {@link edu.um.alumno.repository.VentaResumenRepository}.
+ */
+public class VentaResumenDTO implements Serializable {
+
+    private LocalDate periodo;
+
+    private long cantidad;
+
+    private BigDecimal total = BigDecimal.ZERO;
+
+    private Map<Long, Long> cantidadPorDispositivo = new TreeMap<>();
+
+    public VentaResumenDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public VentaResumenDTO(LocalDate periodo) {
+        this.periodo = periodo;
+    }
+
+    /**
+     * The first day of the period.
+     */
+    public LocalDate getPeriodo() {
+        return periodo;
+    }
+
+    public void setPeriodo(LocalDate periodo) {
+        this.periodo = periodo;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(long cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    /**
+     * The number of sales of each device, by device id. Sales recorded without a device only count in the total.
+     */
+    public Map<Long, Long> getCantidadPorDispositivo() {
+        return cantidadPorDispositivo;
+    }
+
+    public void setCantidadPorDispositivo(Map<Long, Long> cantidadPorDispositivo) {
+        this.cantidadPorDispositivo = cantidadPorDispositivo;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "VentaResumenDTO{" +
+            "periodo='" + getPeriodo() + "'" +
+            ", cantidad=" + getCantidad() +
+            ", total=" + getTotal() +
+            ", cantidadPorDispositivo=" + getCantidadPorDispositivo() +
+            "}";
+    }
+}
@@ -102,8 +102,19 @@ public interface DispositivoMapper extends EntityMapper<DispositivoDTO, Disposit
     @Mapping(target = "personalizaciones", source = "personalizaciones")
     @Mapping(target = "adicionales", source = "adicionales")
     @Mapping(target = "removeAdicionales", ignore = true)
+    @Mapping(target = "fingerprint", ignore = true)
     Dispositivo toEntity(DispositivoDTO dispositivoDTO);
 
+    @Override
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "caracteristicas", source = "caracteristicas")
+    @Mapping(target = "personalizaciones", source = "personalizaciones")
+    @Mapping(target = "adicionales", source = "adicionales")
+    @Mapping(target = "removeAdicionales", ignore = true)
+    @Mapping(target = "fingerprint", ignore = true)
+    void partialUpdate(@MappingTarget Dispositivo entity, DispositivoDTO dto);
+
     @Named("adicionalId")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
@@ -0,0 +1,274 @@
+package edu.um.alumno.web.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.um.alumno.service.CatalogReadModel;
+import edu.um.alumno.service.dto.DispositivoDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Serialized catalog responses, ready to be written as they are.
+ * <p>
+ * Every page and device of the current {@link CatalogReadModel.Snapshot} is serialized to JSON once, and compressed
+ * with gzip once, the first time it is requested. The entries belong to one snapshot version: when the read model is
+ * rebuilt after a write or a sync, the next request starts a new, empty generation. Each response carries a strong
+ * ETag computed from its content, so a client polling an unchanged page gets a {@code 304 (Not Modified)} even across
+ * versions.
+ */
+@Component
+public class CatalogResponseCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogResponseCache.class);
+
+    // Bounds the memory of a generation when clients ask for many different page sizes.
+    private static final int MAX_ENTRIES = 1024;
+
+    // Same threshold as server.compression: smaller bodies are not worth compressing.
+    private static final int MIN_GZIP_SIZE = 1024;
+
+    private static final String GZIP = "gzip";
+
+    private final CatalogReadModel catalogReadModel;
+
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<Generation> generation = new AtomicReference<>(new Generation(0));
+
+    public CatalogResponseCache(CatalogReadModel catalogReadModel, ObjectMapper objectMapper) {
+        this.catalogReadModel = catalogReadModel;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Get a page of devices, see {@link CatalogReadModel#supports(Pageable)} for the supported sorts.
+     *
+     * @param pageable the pagination information.
+     * @param request the current request, for content negotiation and conditional requests.
+     * @return the response, with the pagination headers.
+     */
+    public ResponseEntity<byte[]> page(Pageable pageable, HttpServletRequest request) {
+        CatalogReadModel.Snapshot snapshot = catalogReadModel.getSnapshot();
+        String key = pageable.isPaged()
+            ? "page:" + pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort()
+            : "page:unpaged:" + pageable.getSort();
+        Entry entry = get(snapshot, key, () -> {
+            Page<DispositivoDTO> page = snapshot.findAll(pageable);
+            return encode(page.getContent(), page.getTotalElements(), null);
+        });
+        Page<DispositivoDTO> page = new PageImpl<>(Collections.emptyList(), pageable, entry.total);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return respond(entry, headers, request);
+    }
+
+    /**
+     * Get the devices that follow a given id, see {@link KeysetCursor}.
+     *
+     * @param id the last id of the previous page, or {@code null} for the first page.
+     * @param size the number of devices of the page.
+     * @param request the current request, for content negotiation and conditional requests.
+     * @return the response, with the cursor of the next page.
+     */
+    public ResponseEntity<byte[]> after(Long id, int size, HttpServletRequest request) {
+        CatalogReadModel.Snapshot snapshot = catalogReadModel.getSnapshot();
+        Entry entry = get(snapshot, "after:" + id + ":" + size, () -> {
+            Slice<DispositivoDTO> slice = snapshot.findAfter(id, size);
+            List<DispositivoDTO> content = slice.getContent();
+            return encode(content, content.size(), slice.hasNext() ? content.get(content.size() - 1).getId() : null);
+        });
+        String nextCursor = entry.next == null ? null : KeysetCursor.encode(entry.next);
+        HttpHeaders headers = KeysetCursor.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), nextCursor);
+        return respond(entry, headers, request);
+    }
+
+    /**
+     * Get one device.
+     *
+     * @param id the id of the device.
+     * @param request the current request, for content negotiation and conditional requests.
+     * @return the response, or empty if the device does not exist.
+     */
+    public Optional<ResponseEntity<byte[]>> one(Long id, HttpServletRequest request) {
+        CatalogReadModel.Snapshot snapshot = catalogReadModel.getSnapshot();
+        Entry entry = get(snapshot, "one:" + id, () ->
+            snapshot.findOne(id).map(dispositivoDTO -> encode(dispositivoDTO, 1, null)).orElse(null)
+        );
+        return Optional.ofNullable(entry).map(found -> respond(found, new HttpHeaders(), request));
+    }
+
+    private Entry get(CatalogReadModel.Snapshot snapshot, String key, Supplier<Entry> loader) {
+        long version = snapshot.getVersion();
+        Generation current = generation.updateAndGet(existing -> existing.version >= version ? existing : new Generation(version));
+        if (current.version != version) {
+            // This request still holds an older snapshot: serve it without touching the newer generation.
+            return loader.get();
+        }
+        Entry entry = current.entries.get(key);
+        if (entry == null) {
+            entry = loader.get();
+            LOG.debug("Serialized catalog response {} for version {}", key, version);
+            if (entry != null && current.entries.size() < MAX_ENTRIES) {
+                Entry previous = current.entries.putIfAbsent(key, entry);
+                if (previous != null) {
+                    entry = previous;
+                }
+            }
+        }
+        return entry;
+    }
+
+    private Entry encode(Object body, long total, Long next) {
+        byte[] identity;
+        try {
+            identity = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the catalog", e);
+        }
+        byte[] gzip = identity.length < MIN_GZIP_SIZE ? null : gzip(identity);
+        return new Entry(identity, gzip, '"' + hash(identity) + '"', total, next);
+    }
+
+    private static byte[] gzip(byte[] identity) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(identity.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] identity) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(identity);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ResponseEntity<byte[]> respond(Entry entry, HttpHeaders headers, HttpServletRequest request) {
+        boolean gzip = entry.gzip != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        headers.setETag(gzip ? entry.gzipETag() : entry.eTag);
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        if (isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), entry)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        byte[] body = gzip ? entry.gzip : entry.identity;
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(body.length);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if ((GZIP.equalsIgnoreCase(name) || "*".equals(name)) && !isRefused(parts)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRefused(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Both encodings carry the same content, so a tag of either one validates the cached copy of the client.
+    private static boolean isNotModified(String ifNoneMatch, Entry entry) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if ("*".equals(candidate) || entry.eTag.equals(candidate) || entry.gzipETag().equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Generation {
+
+        private final long version;
+
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        private Generation(long version) {
+            this.version = version;
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] identity;
+
+        private final byte[] gzip;
+
+        private final String eTag;
+
+        private final long total;
+
+        // The last id of a keyset page that has a next one.
+        private final Long next;
+
+        private Entry(byte[] identity, byte[] gzip, String eTag, long total, Long next) {
+            this.identity = identity;
+            this.gzip = gzip;
+            this.eTag = eTag;
+            this.total = total;
+            this.next = next;
+        }
+
+        // A different representation needs a different strong tag, so the gzip variant gets a suffix.
+        private String gzipETag() {
+            return eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+        }
+    }
+}
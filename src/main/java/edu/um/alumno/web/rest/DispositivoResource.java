@@ -1,9 +1,14 @@
 package edu.um.alumno.web.rest;
 
 import edu.um.alumno.repository.DispositivoRepository;
+import edu.um.alumno.service.CatalogReadModel;
+import edu.um.alumno.service.CotizadorService;
 import edu.um.alumno.service.DispositivoService;
+import edu.um.alumno.service.dto.CotizacionDTO;
+import edu.um.alumno.service.dto.CotizacionRequestDTO;
 import edu.um.alumno.service.dto.DispositivoDTO;
 import edu.um.alumno.web.rest.errors.BadRequestAlertException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
@@ -17,8 +22,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -42,9 +49,20 @@ public class DispositivoResource {
 
     private final DispositivoRepository dispositivoRepository;
 
-    public DispositivoResource(DispositivoService dispositivoService, DispositivoRepository dispositivoRepository) {
+    private final CotizadorService cotizadorService;
+
+    private final CatalogResponseCache catalogResponseCache;
+
+    public DispositivoResource(
+        DispositivoService dispositivoService,
+        DispositivoRepository dispositivoRepository,
+        CotizadorService cotizadorService,
+        CatalogResponseCache catalogResponseCache
+    ) {
         this.dispositivoService = dispositivoService;
         this.dispositivoRepository = dispositivoRepository;
+        this.cotizadorService = cotizadorService;
+        this.catalogResponseCache = catalogResponseCache;
     }
 
     /**
@@ -149,14 +167,28 @@ public class DispositivoResource {
      *
      * @param pageable the pagination information.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of dispositivos in body.
+     * @param request the current request, for its {@code Accept-Encoding} and {@code If-None-Match} headers.
+     * @param cursor the cursor of a keyset page, empty for the first one, see {@link KeysetCursor}.
+     * When present, the page number, the sort and the total count are not used.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of dispositivos in body,
+     * or with status {@code 304 (Not Modified)} if the page did not change.
      */
     @GetMapping("")
-    public ResponseEntity<List<DispositivoDTO>> getAllDispositivos(
+    public ResponseEntity<?> getAllDispositivos(
         @org.springdoc.core.annotations.ParameterObject Pageable pageable,
-        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
+        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload,
+        @RequestParam(name = KeysetCursor.CURSOR_PARAMETER, required = false) String cursor,
+        HttpServletRequest request
     ) {
         LOG.debug("REST request to get a page of Dispositivos");
+        if (cursor != null) {
+            long[] after = KeysetCursor.decode(cursor, 1, ENTITY_NAME);
+            return catalogResponseCache.after(after == null ? null : after[0], pageable.getPageSize(), request);
+        }
+        if (CatalogReadModel.supports(pageable)) {
+            // The read model always holds the relationships, so eagerload makes no difference here.
+            return catalogResponseCache.page(pageable, request);
+        }
         Page<DispositivoDTO> page;
         if (eagerload) {
             page = dispositivoService.findAllWithEagerRelationships(pageable);
@@ -172,14 +204,48 @@ public class DispositivoResource {
      * {@code GET  /dispositivos/:id} : get the "id" dispositivo.
      *
      * @param id the id of the dispositivoDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the dispositivoDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request, for its {@code Accept-Encoding} and {@code If-None-Match} headers.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the dispositivoDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the dispositivo did not change.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<DispositivoDTO> getDispositivo(@PathVariable("id") Long id) {
+    public ResponseEntity<byte[]> getDispositivo(@PathVariable("id") Long id, HttpServletRequest request) {
         LOG.debug("REST request to get Dispositivo : {}", id);
-        Optional<DispositivoDTO> dispositivoDTO = dispositivoService.findOne(id);
+        Optional<ResponseEntity<byte[]>> response = catalogResponseCache.one(id, request);
         LOG.info("Dispositivo found with ID: {}", id);
-        return ResponseUtil.wrapOrNotFound(dispositivoDTO);
+        return response.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * {@code POST  /dispositivos/:id/cotizar} : price a configuration of the "id" dispositivo.
+     *
+     * @param id the id of the dispositivo.
+     * @param cotizacionRequestDTO the selected opciones and adicionales.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the quote,
+     * or with status {@code 400 (Bad Request)} if the configuration is not valid for the dispositivo,
+     * or with status {@code 404 (Not Found)} if the dispositivo does not exist.
+     */
+    @PostMapping("/{id}/cotizar")
+    public ResponseEntity<CotizacionDTO> cotizar(
+        @PathVariable("id") Long id,
+        @RequestBody CotizacionRequestDTO cotizacionRequestDTO
+    ) {
+        LOG.debug("REST request to quote Dispositivo {} : {}", id, cotizacionRequestDTO);
+        return ResponseUtil.wrapOrNotFound(cotizadorService.cotizar(id, cotizacionRequestDTO));
+    }
+
+    /**
+     * {@code POST  /dispositivos/cotizar} : price several configurations, each one with its {@code dispositivoId}.
+     *
+     * @param cotizacionRequestDTOs the configurations, at most {@code application.batch.max-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the quotes in the same order,
+     * or with status {@code 400 (Bad Request)} if the batch is empty or too large, a dispositivo does not exist or a
+     * configuration is not valid.
+     */
+    @PostMapping("/cotizar")
+    public ResponseEntity<List<CotizacionDTO>> cotizarLote(@RequestBody List<CotizacionRequestDTO> cotizacionRequestDTOs) {
+        LOG.debug("REST request to quote {} configurations", cotizacionRequestDTOs.size());
+        return ResponseEntity.ok().body(cotizadorService.cotizar(cotizacionRequestDTOs));
     }
 
     /**
@@ -0,0 +1,89 @@
+package edu.um.alumno.web.rest;
+
+import edu.um.alumno.web.rest.errors.BadRequestAlertException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Opaque cursors for the keyset ("seek") pagination of the list endpoints.
+ * <p>
+ * A cursor holds the sort key of the last row of a page, so the next page starts right after it through an index,
+ * whatever its depth, and without counting the rows. The list endpoints switch to this mode when the request has a
+ * {@code cursor} parameter, empty for the first page, and return the cursor of the next page in the
+ * {@value #NEXT_CURSOR_HEADER} header, absent on the last page.
+ */
+public final class KeysetCursor {
+
+    public static final String CURSOR_PARAMETER = "cursor";
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private KeysetCursor() {}
+
+    /**
+     * Encode the sort key of the last row of a page.
+     *
+     * @param keys the values of the sort key.
+     * @return the cursor.
+     */
+    public static String encode(long... keys) {
+        ByteBuffer buffer = ByteBuffer.allocate(keys.length * Long.BYTES);
+        for (long key : keys) {
+            buffer.putLong(key);
+        }
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    /**
+     * Decode a cursor received from a client.
+     *
+     * @param cursor the cursor, empty for the first page.
+     * @param length the number of values of the sort key.
+     * @param entityName the entity being listed, for the error.
+     * @return the values of the sort key, or {@code null} for the first page.
+     * @throws BadRequestAlertException if the cursor is not valid.
+     */
+    public static long[] decode(String cursor, int length, String entityName) {
+        if (cursor.isEmpty()) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = DECODER.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+        if (bytes.length != length * Long.BYTES) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = buffer.getLong();
+        }
+        return keys;
+    }
+
+    /**
+     * Generate the headers of a keyset page: the next cursor and a {@code next} link.
+     *
+     * @param uriBuilder the builder of the current request.
+     * @param nextCursor the cursor of the next page, or {@code null} on the last page.
+     * @return the headers.
+     */
+    public static HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, String nextCursor) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+            String next = uriBuilder.replaceQueryParam(CURSOR_PARAMETER, nextCursor).replaceQueryParam("page").toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
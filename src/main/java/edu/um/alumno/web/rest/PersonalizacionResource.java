@@ -16,6 +16,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -140,13 +141,24 @@ public class PersonalizacionResource {
      * {@code GET  /personalizacions} : get all the personalizacions.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of a keyset page, empty for the first one, see {@link KeysetCursor}.
+     * When present, the page number, the sort and the total count are not used.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of personalizacions in body.
      */
     @GetMapping("")
     public ResponseEntity<List<PersonalizacionDTO>> getAllPersonalizacions(
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetCursor.CURSOR_PARAMETER, required = false) String cursor
     ) {
         LOG.debug("REST request to get a page of Personalizacions");
+        if (cursor != null) {
+            long[] after = KeysetCursor.decode(cursor, 1, ENTITY_NAME);
+            Long id = after == null ? null : after[0];
+            Slice<PersonalizacionDTO> slice = personalizacionService.findAllAfter(id, pageable.getPageSize());
+            String next = slice.hasNext() ? KeysetCursor.encode(slice.getContent().get(slice.getNumberOfElements() - 1).getId()) : null;
+            HttpHeaders headers = KeysetCursor.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), next);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<PersonalizacionDTO> page = personalizacionService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
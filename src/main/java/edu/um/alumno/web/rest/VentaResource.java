@@ -1,17 +1,35 @@
 package edu.um.alumno.web.rest;
 
+import edu.um.alumno.config.ApplicationProperties;
 import edu.um.alumno.domain.Venta;
+import edu.um.alumno.domain.enumeration.Granularidad;
 import edu.um.alumno.repository.VentaRepository;
+import edu.um.alumno.service.VentaBatchService;
+import edu.um.alumno.service.VentaCatedraService;
+import edu.um.alumno.service.VentaExportService;
+import edu.um.alumno.service.VentaIdempotenciaService;
+import edu.um.alumno.service.VentaOutboxDispatcher;
+import edu.um.alumno.service.VentaOutboxService;
+import edu.um.alumno.service.VentaResumenService;
 import edu.um.alumno.service.VentaService;
+import edu.um.alumno.service.dto.VentaBatchResultDTO;
 import edu.um.alumno.service.dto.VentaDTO;
+import edu.um.alumno.service.dto.VentaOutboxDTO;
 import edu.um.alumno.service.dto.VentaRequestDTO;
+import edu.um.alumno.service.dto.VentaResponseDTO;
+import edu.um.alumno.service.dto.VentaResumenDTO;
 import edu.um.alumno.web.rest.errors.BadRequestAlertException;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -19,9 +37,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -38,6 +60,10 @@ public class VentaResource {
 
     private static final String ENTITY_NAME = "venta";
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -45,9 +71,44 @@ public class VentaResource {
 
     private final VentaRepository ventaRepository;
 
-    public VentaResource(VentaService ventaService, VentaRepository ventaRepository) {
+    private final VentaOutboxService ventaOutboxService;
+
+    private final VentaOutboxDispatcher ventaOutboxDispatcher;
+
+    private final VentaResumenService ventaResumenService;
+
+    private final VentaCatedraService ventaCatedraService;
+
+    private final VentaIdempotenciaService ventaIdempotenciaService;
+
+    private final VentaBatchService ventaBatchService;
+
+    private final VentaExportService ventaExportService;
+
+    private final ApplicationProperties.Export exportProperties;
+
+    public VentaResource(
+        VentaService ventaService,
+        VentaRepository ventaRepository,
+        VentaOutboxService ventaOutboxService,
+        VentaOutboxDispatcher ventaOutboxDispatcher,
+        VentaResumenService ventaResumenService,
+        VentaCatedraService ventaCatedraService,
+        VentaIdempotenciaService ventaIdempotenciaService,
+        VentaBatchService ventaBatchService,
+        VentaExportService ventaExportService,
+        ApplicationProperties applicationProperties
+    ) {
         this.ventaService = ventaService;
         this.ventaRepository = ventaRepository;
+        this.ventaOutboxService = ventaOutboxService;
+        this.ventaOutboxDispatcher = ventaOutboxDispatcher;
+        this.ventaResumenService = ventaResumenService;
+        this.ventaCatedraService = ventaCatedraService;
+        this.ventaIdempotenciaService = ventaIdempotenciaService;
+        this.ventaBatchService = ventaBatchService;
+        this.ventaExportService = ventaExportService;
+        this.exportProperties = applicationProperties.getExport();
     }
 
     /**
@@ -152,11 +213,24 @@ public class VentaResource {
      * {@code GET  /ventas} : get all the ventas.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of a keyset page, empty for the first one, see {@link KeysetCursor}.
+     * When present, the page number, the sort and the total count are not used.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of ventas in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<VentaDTO>> getAllVentas(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<VentaDTO>> getAllVentas(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetCursor.CURSOR_PARAMETER, required = false) String cursor
+    ) {
         LOG.debug("REST request to get a page of Ventas");
+        if (cursor != null) {
+            long[] before = KeysetCursor.decode(cursor, 3, ENTITY_NAME);
+            Long id = before == null ? null : before[2];
+            Slice<VentaDTO> slice = ventaService.findAllBefore(fechaVenta(before), id, pageable.getPageSize());
+            String next = nextCursor(slice);
+            HttpHeaders headers = KeysetCursor.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), next);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         Page<VentaDTO> page = ventaService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         LOG.info("Returning {} ventas", page.getContent().size());
@@ -193,33 +267,226 @@ public class VentaResource {
             .build();
     }
 
+    /**
+     * {@code POST  /ventas/vender} : Sell through the cátedra and record the sale.
+     * <p>
+     * With an {@code Idempotency-Key} header, a retry of the same sale with the same key returns the sale recorded by
+     * the first request, with the header {@code Idempotent-Replayed: true}, instead of selling again.
+     *
+     * @param idempotencyKey the optional key identifying the sale across retries, at most 128 characters.
+     * @param ventaRequestDTO the sale to process.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the sale, or with status {@code 400 (Bad Request)}
+     * if the key is not valid or was used for a different sale, or with status {@code 409 (Conflict)} if the key is being processed
+     * by another instance, or with status {@code 502 (Bad Gateway)} and the stored error if an earlier attempt with the key may have
+     * sold through the cátedra.
+     */
     @PostMapping("/vender")
-    public Venta crearVenta(@RequestBody VentaRequestDTO ventaRequestDTO) {
-        LOG.debug("REST request to create Venta : {}", ventaRequestDTO);
-        return ventaService.procesarVenta(ventaRequestDTO);
+    public ResponseEntity<Venta> crearVenta(
+        @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+        @RequestBody VentaRequestDTO ventaRequestDTO
+    ) {
+        LOG.debug("REST request to create Venta : {}, Idempotency-Key : {}", ventaRequestDTO, idempotencyKey);
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(ventaService.procesarVenta(ventaRequestDTO));
+        }
+        VentaIdempotenciaService.Resultado resultado = ventaIdempotenciaService.vender(idempotencyKey, ventaRequestDTO);
+        return ResponseEntity.ok().header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(resultado.isRepetida())).body(resultado.getVenta());
+    }
+
+    /**
+     * {@code POST  /ventas/vender/batch} : Sell several sales through the cátedra and record the accepted ones.
+     *
+     * @param ventas the sales to process, at most {@code application.batch.max-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each sale, in the order of the
+     * request, or with status {@code 400 (Bad Request)} if the batch is empty or too large.
+     */
+    @PostMapping("/vender/batch")
+    public ResponseEntity<List<VentaBatchResultDTO>> crearVentas(@RequestBody List<VentaRequestDTO> ventas) {
+        LOG.debug("REST request to create a batch of {} Ventas", ventas.size());
+        return ResponseEntity.ok(ventaBatchService.vender(ventas));
+    }
+
+    /**
+     * {@code POST  /ventas/vender/async} : Accept a sale and forward it to the cátedra in the background.
+     *
+     * @param ventaRequestDTO the sale to process.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and with body the status of the sale, whose id is the
+     * handle to poll at the {@code Location} header, or with status {@code 400 (Bad Request)} if the sale is not valid.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/vender/async")
+    public ResponseEntity<VentaOutboxDTO> crearVentaAsync(@RequestBody VentaRequestDTO ventaRequestDTO) throws URISyntaxException {
+        LOG.debug("REST request to accept Venta : {}", ventaRequestDTO);
+        VentaOutboxDTO ventaOutboxDTO = ventaOutboxDispatcher.aceptar(ventaRequestDTO);
+        return ResponseEntity.accepted()
+            .location(new URI("/api/ventas/vender/async/" + ventaOutboxDTO.getId()))
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(ventaOutboxDTO);
+    }
+
+    /**
+     * {@code GET  /ventas/vender/async/:id} : get the status of a sale accepted by {@code POST /ventas/vender/async}.
+     *
+     * @param id the handle of the sale.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the status of the sale,
+     * or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/vender/async/{id}")
+    public ResponseEntity<VentaOutboxDTO> getVentaAsync(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get the status of Venta : {}", id);
+        return ResponseUtil.wrapOrNotFound(ventaOutboxService.findOne(id));
     }
 
+    /**
+     * {@code GET  /ventas/profesor/:id} : get a sale of the cátedra backend.
+     *
+     * @param id the id assigned by the cátedra.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the sale, or with status {@code 404 (Not Found)}.
+     */
     @GetMapping("/profesor/{id}")
-    public ResponseEntity<Map<String, Object>> getVentaFromProfesor(@PathVariable("id") Long id) {
+    public ResponseEntity<VentaResponseDTO> getVentaFromProfesor(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Venta from profesor backend : {}", id);
-        Map<String, Object> ventaInfo = ventaService.getVentaById(id);
+        Optional<VentaResponseDTO> venta = ventaCatedraService.findOne(id);
         LOG.info("Returning venta from profesor backend with ID: {}", id);
-        return ResponseEntity.ok().body(ventaInfo);
+        return ResponseUtil.wrapOrNotFound(venta);
     }
 
+    /**
+     * {@code GET  /ventas/admin} : get all the sales of the cátedra backend.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the sales in body, at most
+     * {@code application.catedra.ventas-ttl} old.
+     */
     @GetMapping("/admin")
-    public ResponseEntity<List<Map<String, Object>>> getVentaFromAdmin() {
+    public ResponseEntity<List<VentaResponseDTO>> getVentaFromAdmin() {
         LOG.debug("REST request to get all Ventas from profesor backend");
-        List<Map<String, Object>> ventasInfo = ventaService.getAllVentasAdmin();
-        LOG.info("Returning all ventas from profesor backend");
-        return ResponseEntity.ok().body(ventasInfo);
+        List<VentaResponseDTO> ventas = ventaCatedraService.findAll();
+        LOG.info("Returning {} ventas from profesor backend", ventas.size());
+        return ResponseEntity.ok().body(ventas);
+    }
+
+    /**
+     * {@code GET  /ventas/stats} : get the number and amount of the sales of each day or month, from the rollups.
+     *
+     * @param from the first day, inclusive; defaults to 30 days or 12 months before {@code to}.
+     * @param to the last day, exclusive; defaults to tomorrow.
+     * @param granularity {@code day} or {@code month}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the periods that had sales in body, oldest first,
+     * or with status {@code 400 (Bad Request)} if the range or the granularity is not valid.
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
+    public ResponseEntity<List<VentaResumenDTO>> getVentaStats(
+        @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(name = "granularity", defaultValue = "day") String granularity
+    ) {
+        LOG.debug("REST request to get the {} stats of Ventas between {} and {}", granularity, from, to);
+        List<VentaResumenDTO> periodos = ventaResumenService.findAll(granularidad(granularity), from, to);
+        return ResponseEntity.ok().body(periodos);
+    }
+
+    /**
+     * {@code GET  /ventas/export} : stream the sales of a date range, oldest first, for the accounting export.
+     * <p>
+     * The sales are written on an async thread, which may run for up to {@code application.export.timeout}.
+     *
+     * @param format {@code ndjson}, one JSON venta per line, or {@code csv}.
+     * @param desde the earliest date of the sales, inclusive.
+     * @param hasta the latest date of the sales, exclusive.
+     * @param userId the buyer of the sales, if only the sales of one user are exported.
+     * @param response the response the ventas are written to as they are read, with status {@code 200 (OK)}.
+     * @return the task that writes the ventas, or status {@code 400 (Bad Request)} if the date range or the format is not
+     * valid.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
+    public WebAsyncTask<Void> exportVentas(
+        @RequestParam(name = "format", defaultValue = "ndjson") String format,
+        @RequestParam(name = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime desde,
+        @RequestParam(name = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime hasta,
+        @RequestParam(name = "userId", required = false) Long userId,
+        HttpServletResponse response
+    ) {
+        LOG.debug("REST request to export the Ventas of user {} between {} and {} as {}", userId, desde, hasta, format);
+        if (desde != null && hasta != null && !desde.isBefore(hasta)) {
+            throw new BadRequestAlertException("desde must be before hasta", ENTITY_NAME, "rangeinvalid");
+        }
+        VentaExportService.Formato formato = formato(format);
+        response.setContentType(formato.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ventas." + formato.getExtension() + "\"");
+        // Unlike a StreamingResponseBody, the task carries its own timeout instead of spring.mvc.async.request-timeout.
+        return new WebAsyncTask<>(exportProperties.getTimeout().toMillis(), () -> {
+            ventaExportService.exportar(formato, desde, hasta, userId, response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
+    private static VentaExportService.Formato formato(String format) {
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson" -> VentaExportService.Formato.NDJSON;
+            case "csv" -> VentaExportService.Formato.CSV;
+            default -> throw new BadRequestAlertException("format must be ndjson or csv", ENTITY_NAME, "formatinvalid");
+        };
+    }
+
+    private static Granularidad granularidad(String granularity) {
+        return switch (granularity.toLowerCase(Locale.ROOT)) {
+            case "day", "dia" -> Granularidad.DIA;
+            case "month", "mes" -> Granularidad.MES;
+            default -> throw new BadRequestAlertException("granularity must be day or month", ENTITY_NAME, "granularityinvalid");
+        };
     }
 
+    /**
+     * {@code GET  /ventas/usuario/:userId} : get the sales history of a user, newest first.
+     *
+     * @param userId the id of the user.
+     * @param desde the earliest date of the sales, inclusive.
+     * @param hasta the latest date of the sales, exclusive.
+     * @param cursor the cursor of the next page, see {@link KeysetCursor}.
+     * @param pageable the pagination information; only the size is used.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of ventas in body,
+     * or with status {@code 400 (Bad Request)} if the date range or the cursor is not valid.
+     */
     @GetMapping("/usuario/{userId}")
-    public ResponseEntity<List<VentaDTO>> getVentasByUserId(@PathVariable("userId") Long userId) {
-        LOG.debug("REST request to get all Ventas for user : {}", userId);
-        List<VentaDTO> ventas = ventaService.getVentasByUserId(userId);
-        LOG.info("Returning {} ventas for user ID: {}", ventas.size(), userId);
-        return ResponseEntity.ok().body(ventas);
+    public ResponseEntity<List<VentaDTO>> getVentasByUserId(
+        @PathVariable("userId") Long userId,
+        @RequestParam(name = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime desde,
+        @RequestParam(name = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime hasta,
+        @RequestParam(name = KeysetCursor.CURSOR_PARAMETER, required = false) String cursor,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of Ventas for user : {}", userId);
+        if (desde != null && hasta != null && !desde.isBefore(hasta)) {
+            throw new BadRequestAlertException("desde must be before hasta", ENTITY_NAME, "rangeinvalid");
+        }
+        long[] before = cursor == null ? null : KeysetCursor.decode(cursor, 3, ENTITY_NAME);
+        Slice<VentaDTO> slice = ventaService.findAllByUser(
+            userId,
+            desde,
+            hasta,
+            fechaVenta(before),
+            before == null ? null : before[2],
+            pageable.getPageSize()
+        );
+        LOG.info("Returning {} ventas for user ID: {}", slice.getNumberOfElements(), userId);
+        HttpHeaders headers = KeysetCursor.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), nextCursor(slice));
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    // Venta cursors hold the date of the last sale, as epoch seconds and nanoseconds, and its id.
+    private static ZonedDateTime fechaVenta(long[] cursor) {
+        return cursor == null ? null : ZonedDateTime.ofInstant(Instant.ofEpochSecond(cursor[0], cursor[1]), ZoneOffset.UTC);
+    }
+
+    private static String nextCursor(Slice<VentaDTO> slice) {
+        if (!slice.hasNext()) {
+            return null;
+        }
+        VentaDTO last = slice.getContent().get(slice.getNumberOfElements() - 1);
+        Instant fechaVenta = last.getFechaVenta().toInstant();
+        return KeysetCursor.encode(fechaVenta.getEpochSecond(), fechaVenta.getNano(), last.getId());
     }
 }
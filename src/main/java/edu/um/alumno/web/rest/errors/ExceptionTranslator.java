@@ -2,6 +2,9 @@ package edu.um.alumno.web.rest.errors;
 
 import static org.springframework.core.annotation.AnnotatedElementUtils.findMergedAnnotation;
 
+import edu.um.alumno.service.IdempotencyKeyFailedException;
+import edu.um.alumno.service.IdempotencyKeyInProgressException;
+import edu.um.alumno.service.InvalidRequestException;
 import jakarta.servlet.http.HttpServletRequest;
 import java.net.URI;
 import java.util.Arrays;
@@ -63,6 +66,11 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
         return handleExceptionInternal((Exception) ex, pdCause, buildHeaders(ex), HttpStatusCode.valueOf(pdCause.getStatus()), request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Object> handleInvalidRequestException(InvalidRequestException ex, NativeWebRequest request) {
+        return handleAnyException(new BadRequestAlertException(ex.getMessage(), ex.getEntityName(), ex.getErrorKey()), request);
+    }
+
     @Nullable
     @Override
     protected ResponseEntity<Object> handleExceptionInternal(
@@ -211,6 +219,8 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler {
         if (err instanceof AccessDeniedException) return HttpStatus.FORBIDDEN;
         if (err instanceof ConcurrencyFailureException) return HttpStatus.CONFLICT;
         if (err instanceof BadCredentialsException) return HttpStatus.UNAUTHORIZED;
+        if (err instanceof IdempotencyKeyInProgressException) return HttpStatus.CONFLICT;
+        if (err instanceof IdempotencyKeyFailedException) return HttpStatus.BAD_GATEWAY;
         return null;
     }
 
@@ -0,0 +1,129 @@
+package edu.um.alumno.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edu.um.alumno.IntegrationTest;
+import edu.um.alumno.service.DispositivoService;
+import edu.um.alumno.service.dto.AdicionalDTO;
+import edu.um.alumno.service.dto.CaracteristicaDTO;
+import edu.um.alumno.service.dto.DispositivoDTO;
+import edu.um.alumno.service.dto.OpcionDTO;
+import edu.um.alumno.service.dto.PersonalizacionDTO;
+import edu.um.alumno.service.mapper.DispositivoMapper;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the eager loading of {@link DispositivoRepositoryWithBagRelationshipsImpl}.
+ */
+@IntegrationTest
+@Transactional
+class DispositivoRepositoryIT {
+
+    private static final int DISPOSITIVOS = 60;
+
+    // The page, its count, and one query for each of adicionales, caracteristicas and personalizaciones with opciones.
+    private static final long STATEMENTS_PER_PAGE = 5;
+
+    @Autowired
+    private DispositivoRepository dispositivoRepository;
+
+    @Autowired
+    private DispositivoService dispositivoService;
+
+    @Autowired
+    private DispositivoMapper dispositivoMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void initTest() {
+        dispositivoService.upsertSynced(LongStream.rangeClosed(1, DISPOSITIVOS).mapToObj(DispositivoRepositoryIT::dispositivo).toList());
+        sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+    }
+
+    @Test
+    void fetchesPageWithConstantStatements() {
+        assertThat(statementsToMap(10)).isEqualTo(STATEMENTS_PER_PAGE);
+        assertThat(statementsToMap(50)).isEqualTo(STATEMENTS_PER_PAGE);
+    }
+
+    // Maps a page of devices with all their children, read from the database, and returns the statements it took.
+    private long statementsToMap(int size) {
+        entityManager.clear();
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        List<DispositivoDTO> page = dispositivoRepository
+            .findAllWithEagerRelationships(PageRequest.of(0, size, Sort.by("nombre")))
+            .map(dispositivoMapper::toDto)
+            .getContent();
+
+        assertThat(page).hasSize(size);
+        assertThat(page).allSatisfy(dispositivo -> {
+            assertThat(dispositivo.getCaracteristicas()).hasSize(2);
+            assertThat(dispositivo.getPersonalizaciones()).hasSize(2).allSatisfy(p -> assertThat(p.getOpciones()).hasSize(2));
+            assertThat(dispositivo.getAdicionales()).hasSize(2);
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static DispositivoDTO dispositivo(long id) {
+        DispositivoDTO dispositivo = new DispositivoDTO();
+        dispositivo.setId(id);
+        dispositivo.setCodigo("D" + id);
+        dispositivo.setNombre(String.format("Dispositivo %03d", id));
+        dispositivo.setDescripcion("Descripción " + id);
+        dispositivo.setPrecioBase(BigDecimal.valueOf(100));
+        dispositivo.setMoneda("USD");
+        dispositivo.setCaracteristicas(Set.of(caracteristica(id * 10 + 1), caracteristica(id * 10 + 2)));
+        dispositivo.setPersonalizaciones(Set.of(personalizacion(id * 10 + 1), personalizacion(id * 10 + 2)));
+        dispositivo.setAdicionales(Set.of(adicional(1), adicional(2)));
+        return dispositivo;
+    }
+
+    private static CaracteristicaDTO caracteristica(long id) {
+        CaracteristicaDTO caracteristica = new CaracteristicaDTO();
+        caracteristica.setId(id);
+        caracteristica.setNombre("Caracteristica " + id);
+        caracteristica.setDescripcion("Descripción " + id);
+        return caracteristica;
+    }
+
+    private static PersonalizacionDTO personalizacion(long id) {
+        PersonalizacionDTO personalizacion = new PersonalizacionDTO();
+        personalizacion.setId(id);
+        personalizacion.setNombre("Personalizacion " + id);
+        personalizacion.setDescripcion("Descripción " + id);
+        personalizacion.setOpciones(Set.of(opcion(id * 10 + 1), opcion(id * 10 + 2)));
+        return personalizacion;
+    }
+
+    private static OpcionDTO opcion(long id) {
+        OpcionDTO opcion = new OpcionDTO();
+        opcion.setId(id);
+        opcion.setCodigo("O" + id);
+        opcion.setNombre("Opcion " + id);
+        opcion.setDescripcion("Descripción " + id);
+        opcion.setPrecioAdicional(BigDecimal.TEN);
+        return opcion;
+    }
+
+    private static AdicionalDTO adicional(long id) {
+        return new AdicionalDTO(id, "Adicional " + id, "Descripción " + id, BigDecimal.ONE, BigDecimal.valueOf(-1));
+    }
+}
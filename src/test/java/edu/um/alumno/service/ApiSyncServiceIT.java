@@ -0,0 +1,340 @@
+package edu.um.alumno.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.um.alumno.IntegrationTest;
+import edu.um.alumno.repository.DispositivoRepository;
+import edu.um.alumno.service.dto.DispositivoSyncResultDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Integration tests for {@link ApiSyncService}, against a stub of the cátedra catalog.
+ */
+@IntegrationTest
+class ApiSyncServiceIT {
+
+    private static final int CHUNK_SIZE = 2;
+
+    private static final int LARGE_CATALOG = 50_000;
+
+    // Well under the heap the whole catalog would take as DTOs, but above the ids kept to find the dropped devices.
+    private static final long MAX_RETAINED_BYTES = 8L * 1024 * 1024;
+
+    // ApiSyncService remembers the last catalog it applied, so each test syncs devices of its own.
+
+    private static final CatedraStub catedra = CatedraStub.start();
+
+    @DynamicPropertySource
+    static void catedraProperties(DynamicPropertyRegistry registry) {
+        registry.add("professor.api.url", catedra::baseUrl);
+        registry.add("application.sync.chunk-size", () -> CHUNK_SIZE);
+    }
+
+    @MockBean
+    private ApiTokenService apiTokenService;
+
+    @Autowired
+    private ApiSyncService apiSyncService;
+
+    @Autowired
+    private DispositivoService dispositivoService;
+
+    @Autowired
+    private DispositivoRepository dispositivoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void initTest() {
+        given(apiTokenService.getToken()).willReturn("token");
+        catedra.reset();
+    }
+
+    @AfterEach
+    void cleanup() {
+        dispositivoService.deleteAll(dispositivoService.findFingerprints().keySet());
+    }
+
+    @AfterAll
+    static void stopCatedra() {
+        catedra.server.stop(0);
+    }
+
+    @Test
+    void syncsCatalogInChunks() {
+        catedra.respond(200, "\"chunks-1\"", catalog(1, 2, 3, 4, 5));
+
+        apiSyncService.syncDataWithRetry();
+
+        assertThat(dispositivoService.findFingerprints()).containsOnlyKeys(1L, 2L, 3L, 4L, 5L);
+        assertThat(apiSyncService.getLastResult()).satisfies(result -> assertResult(result, 5, 0, 0, 0));
+
+        // Device 2 changes its price and device 5 is dropped from the catalog.
+        catedra.respond(200, "\"chunks-2\"", "[" + device(1, "100.00") + "," + device(2, "250.00") + "," + devices(3, 4) + "]");
+
+        apiSyncService.syncDataWithRetry();
+
+        assertThat(dispositivoService.findFingerprints()).containsOnlyKeys(1L, 2L, 3L, 4L);
+        assertThat(apiSyncService.getLastResult()).satisfies(result -> assertResult(result, 0, 1, 3, 1));
+    }
+
+    @Test
+    void writesRepeatedDeviceOnce() {
+        // Device 41 is repeated in the first chunk, and again in the second one: the last occurrence wins.
+        catedra.respond(
+            200,
+            "\"repeated\"",
+            "[" + device(41, "100.00") + "," + device(41, "150.00") + "," + device(42, "100.00") + "," + device(41, "175.00") + "]"
+        );
+
+        apiSyncService.syncDataWithRetry();
+
+        assertThat(dispositivoService.findFingerprints()).containsOnlyKeys(41L, 42L);
+        assertThat(apiSyncService.getLastResult()).satisfies(result -> assertResult(result, 2, 1, 0, 0));
+        assertThat(dispositivoRepository.findById(41L)).hasValueSatisfying(dispositivo ->
+            assertThat(dispositivo.getPrecioBase()).isEqualByComparingTo("175.00")
+        );
+    }
+
+    @Test
+    void keepsDevicesWhenCatalogIsTruncated() {
+        catedra.respond(200, "\"truncated-1\"", catalog(11, 12, 13));
+        apiSyncService.syncDataWithRetry();
+        DispositivoSyncResultDTO applied = apiSyncService.getLastResult();
+
+        // Without the end of the array the devices 12 and 13 would look dropped.
+        catedra.respond(200, "\"truncated-2\"", "[" + device(11, "100.00") + ",");
+
+        assertThatThrownBy(apiSyncService::syncDataWithRetry).hasRootCauseInstanceOf(IOException.class);
+        assertThat(dispositivoService.findFingerprints()).containsOnlyKeys(11L, 12L, 13L);
+        assertThat(apiSyncService.getLastResult()).isSameAs(applied);
+    }
+
+    @Test
+    void keepsDevicesWhenCatalogHasInvalidElements() {
+        catedra.respond(200, "\"invalid-1\"", catalog(21, 22, 23));
+        apiSyncService.syncDataWithRetry();
+        DispositivoSyncResultDTO applied = apiSyncService.getLastResult();
+
+        catedra.respond(200, "\"invalid-2\"", "[" + device(21, "100.00") + ", 42, " + device(22, "100.00") + "]");
+
+        assertThatThrownBy(apiSyncService::syncDataWithRetry).hasRootCauseInstanceOf(IOException.class);
+        assertThat(dispositivoService.findFingerprints()).containsOnlyKeys(21L, 22L, 23L);
+        assertThat(apiSyncService.getLastResult()).isSameAs(applied);
+    }
+
+    @Test
+    void skipsCatalogNotModified() {
+        catedra.respond(200, "\"not-modified\"", catalog(31, 32, 33));
+        apiSyncService.syncDataWithRetry();
+        DispositivoSyncResultDTO applied = apiSyncService.getLastResult();
+        double skipped = skippedSyncs();
+
+        catedra.respond(304, "\"not-modified\"", null);
+        apiSyncService.syncDataWithRetry();
+
+        assertThat(catedra.ifNoneMatch).isEqualTo("\"not-modified\"");
+        assertThat(skippedSyncs()).isEqualTo(skipped + 1);
+        assertThat(apiSyncService.getLastResult()).isSameAs(applied);
+        assertThat(dispositivoService.findFingerprints()).containsOnlyKeys(31L, 32L, 33L);
+    }
+
+    @Test
+    void readsLargeCatalogInBoundedHeap() {
+        catedra.respondGenerated(200, "\"large\"", LARGE_CATALOG);
+        AtomicInteger chunks = new AtomicInteger();
+        HeapSampler heap = new HeapSampler();
+
+        // Only the reading is measured: the devices stored by the in-memory database would grow the heap on their own.
+        DispositivoSyncResultDTO result = restTemplate.execute("/catedra/dispositivos", HttpMethod.GET, null, response ->
+            apiSyncService.readDevicesInChunks(response.getBody(), (chunk, localFingerprints) -> {
+                if (chunks.incrementAndGet() % 5_000 == 0) {
+                    heap.sample();
+                }
+                return new DispositivoSyncResultDTO(chunk.size(), 0, 0);
+            })
+        );
+
+        assertThat(result).satisfies(read -> assertResult(read, LARGE_CATALOG, 0, 0, 0));
+        assertThat(chunks).hasValue(LARGE_CATALOG / CHUNK_SIZE);
+        assertThat(heap.maxRetained - heap.baseline).isLessThan(MAX_RETAINED_BYTES);
+    }
+
+    private double skippedSyncs() {
+        return meterRegistry.get("techmarket.sync.runs").tag("outcome", "skipped").counter().count();
+    }
+
+    private static void assertResult(DispositivoSyncResultDTO result, int inserted, int updated, int unchanged, int deleted) {
+        assertThat(result.getInserted()).as("inserted").isEqualTo(inserted);
+        assertThat(result.getUpdated()).as("updated").isEqualTo(updated);
+        assertThat(result.getUnchanged()).as("unchanged").isEqualTo(unchanged);
+        assertThat(result.getDeleted()).as("deleted").isEqualTo(deleted);
+    }
+
+    private static String catalog(int... ids) {
+        return "[" + devices(ids) + "]";
+    }
+
+    private static String devices(int... ids) {
+        return IntStream.of(ids).mapToObj(id -> device(id, "100.00")).collect(Collectors.joining(","));
+    }
+
+    private static String device(int id, String precioBase) {
+        return (
+            "{\"id\":" +
+            id +
+            ",\"codigo\":\"D" +
+            id +
+            "\",\"nombre\":\"Dispositivo " +
+            id +
+            "\",\"descripcion\":\"Descripción " +
+            id +
+            "\",\"precioBase\":" +
+            precioBase +
+            ",\"moneda\":\"USD\",\"caracteristicas\":[],\"personalizaciones\":[],\"adicionales\":[]}"
+        );
+    }
+
+    /**
+     * Measures the heap still in use after a collection, at the points chosen by the test.
+     */
+    private static final class HeapSampler {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        private final long baseline;
+
+        private long maxRetained;
+
+        private HeapSampler() {
+            this.baseline = retainedHeap();
+        }
+
+        private void sample() {
+            maxRetained = Math.max(maxRetained, retainedHeap());
+        }
+
+        private long retainedHeap() {
+            System.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    /**
+     * Serves {@code GET /api/catedra/dispositivos} with the response set by the test, and records the conditional header.
+     * A generated catalog is written device by device while the client reads it, without being held in memory.
+     */
+    private static final class CatedraStub {
+
+        private final HttpServer server;
+
+        private volatile int status;
+
+        private volatile String eTag;
+
+        private volatile String body;
+
+        private volatile int generated;
+
+        private volatile String ifNoneMatch;
+
+        private CatedraStub(HttpServer server) {
+            this.server = server;
+        }
+
+        static CatedraStub start() {
+            try {
+                CatedraStub stub = new CatedraStub(HttpServer.create(new InetSocketAddress("localhost", 0), 0));
+                stub.server.createContext("/api/catedra/dispositivos", stub::handle);
+                stub.server.start();
+                return stub;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        String baseUrl() {
+            return "http://localhost:" + server.getAddress().getPort() + "/api";
+        }
+
+        void reset() {
+            respond(500, null, null);
+            ifNoneMatch = null;
+        }
+
+        void respond(int status, String eTag, String body) {
+            this.status = status;
+            this.eTag = eTag;
+            this.body = body;
+            this.generated = 0;
+        }
+
+        void respondGenerated(int status, String eTag, int devices) {
+            respond(status, eTag, null);
+            this.generated = devices;
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (eTag != null) {
+                exchange.getResponseHeaders().set("ETag", eTag);
+            }
+            if (generated > 0) {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, 0);
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                    out.write('[');
+                    for (int id = 1; id <= generated; id++) {
+                        if (id > 1) {
+                            out.write(',');
+                        }
+                        out.write(device(id, "100.00"));
+                    }
+                    out.write(']');
+                }
+                return;
+            }
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package edu.um.alumno.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import edu.um.alumno.IntegrationTest;
+import edu.um.alumno.repository.CaracteristicaRepository;
+import edu.um.alumno.service.dto.CaracteristicaDTO;
+import edu.um.alumno.service.mapper.CaracteristicaMapper;
+import jakarta.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the DTO projection of {@link CaracteristicaService#findAll()}, compared with loading the
+ * entities and mapping them.
+ */
+@IntegrationTest
+class CaracteristicaServiceIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CaracteristicaServiceIT.class);
+
+    private static final int CARACTERISTICAS = 10_000;
+
+    private static final int RUNS = 3;
+
+    @Autowired
+    private CaracteristicaService caracteristicaService;
+
+    @Autowired
+    private CaracteristicaRepository caracteristicaRepository;
+
+    @Autowired
+    private CaracteristicaMapper caracteristicaMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void initTest() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update(
+                "insert into dispositivo (id, codigo, nombre, descripcion, precio_base, moneda) " +
+                "values (1, 'D1', 'Dispositivo 1', 'Descripción 1', 100, 'USD')"
+            );
+            jdbcTemplate.update(
+                "insert into caracteristica (id, nombre, descripcion, dispositivo_id) " +
+                "select x, concat('Caracteristica ', x), concat('Descripción ', x), 1 from system_range(1, ?)",
+                CARACTERISTICAS
+            );
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from caracteristica");
+            jdbcTemplate.update("delete from dispositivo where id = 1");
+        });
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void findAllSelectsDtosWithoutLoadingEntities() {
+        List<CaracteristicaDTO> projected = readOnlyTransaction.execute(status -> {
+            List<CaracteristicaDTO> result = caracteristicaService.findAll();
+            assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+            return result;
+        });
+
+        assertThat(projected).hasSize(CARACTERISTICAS);
+        assertThat(sortedById(projected)).usingRecursiveComparison().isEqualTo(sortedById(findAllAsEntities()));
+    }
+
+    @Test
+    void findAllAllocatesLessThanEntities() {
+        long projected = minAllocatedBytes("DTOs", () -> readOnlyTransaction.execute(status -> caracteristicaService.findAll()));
+        long entities = minAllocatedBytes("entities", this::findAllAsEntities);
+
+        assertThat(projected).isLessThan(entities);
+    }
+
+    // The path the projection replaced: managed entities mapped to DTOs.
+    private List<CaracteristicaDTO> findAllAsEntities() {
+        return readOnlyTransaction.execute(status -> caracteristicaRepository.findAll().stream().map(caracteristicaMapper::toDto).toList());
+    }
+
+    // The least allocated by a run of the given query on this thread, once warmed up. The times are only logged.
+    private static long minAllocatedBytes(String path, Supplier<List<CaracteristicaDTO>> query) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertThat(query.get()).hasSize(CARACTERISTICAS);
+        long min = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = threads.getCurrentThreadAllocatedBytes();
+            long nanos = System.nanoTime();
+            query.get();
+            long allocated = threads.getCurrentThreadAllocatedBytes() - start;
+            long millis = (System.nanoTime() - nanos) / 1_000_000;
+            LOG.info("{} caracteristicas as {}: {} bytes, {} ms", CARACTERISTICAS, path, allocated, millis);
+            min = Math.min(min, allocated);
+        }
+        return min;
+    }
+
+    private static List<CaracteristicaDTO> sortedById(List<CaracteristicaDTO> caracteristicas) {
+        return caracteristicas.stream().sorted(Comparator.comparing(CaracteristicaDTO::getId)).toList();
+    }
+}
@@ -0,0 +1,138 @@
+package edu.um.alumno.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Serves {@code POST /api/catedra/vender} for the tests that sell through the cátedra, answering each sale with the
+ * response chosen by the test, and records the sales it received.
+ */
+final class CatedraVentasStub {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final List<JsonNode> recibidas = new CopyOnWriteArrayList<>();
+
+    private volatile Function<JsonNode, Respuesta> respuestas = venta -> rechazar(500);
+
+    private CatedraVentasStub(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    static CatedraVentasStub start() {
+        try {
+            // Concurrent sales are answered concurrently, as by the cátedra.
+            CatedraVentasStub stub = new CatedraVentasStub(
+                HttpServer.create(new InetSocketAddress("localhost", 0), 0),
+                Executors.newCachedThreadPool()
+            );
+            stub.server.createContext("/api/catedra/vender", stub::handle);
+            stub.server.setExecutor(stub.executor);
+            stub.server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/api";
+    }
+
+    /**
+     * Answer every following sale with the response chosen for its body.
+     */
+    void responder(Function<JsonNode, Respuesta> respuestas) {
+        this.respuestas = respuestas;
+        recibidas.clear();
+    }
+
+    /**
+     * The bodies of the sales received since the last {@link #responder}, in order of arrival.
+     */
+    List<JsonNode> recibidas() {
+        return recibidas;
+    }
+
+    static Respuesta aceptar(long idVenta) {
+        return new Respuesta(200, idVenta, Duration.ZERO);
+    }
+
+    static Respuesta rechazar(int status) {
+        return new Respuesta(status, null, Duration.ZERO);
+    }
+
+    // Accepted, but answered after the delay: a client that stops waiting before cannot know the sale was recorded.
+    static Respuesta demorar(long idVenta, Duration demora) {
+        return new Respuesta(200, idVenta, demora);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        JsonNode venta;
+        try (InputStream in = exchange.getRequestBody()) {
+            venta = OBJECT_MAPPER.readTree(in);
+        }
+        recibidas.add(venta);
+        Respuesta respuesta = respuestas.apply(venta);
+        try {
+            Thread.sleep(respuesta.demora.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (respuesta.idVenta == null) {
+            exchange.sendResponseHeaders(respuesta.status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = ("{\"idVenta\":" + respuesta.idVenta + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(respuesta.status, bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            // The client stopped waiting.
+        }
+    }
+
+    /**
+     * The answer to one sale.
+     */
+    static final class Respuesta {
+
+        private final int status;
+
+        private final Long idVenta;
+
+        private final Duration demora;
+
+        private Respuesta(int status, Long idVenta, Duration demora) {
+            this.status = status;
+            this.idVenta = idVenta;
+            this.demora = demora;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package edu.um.alumno.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import edu.um.alumno.config.ApplicationProperties;
+import edu.um.alumno.repository.AdicionalPrecio;
+import edu.um.alumno.repository.AdicionalRepository;
+import edu.um.alumno.repository.DispositivoPrecio;
+import edu.um.alumno.repository.DispositivoRepository;
+import edu.um.alumno.repository.OpcionPrecio;
+import edu.um.alumno.repository.OpcionRepository;
+import edu.um.alumno.service.dto.CotizacionDTO;
+import edu.um.alumno.service.dto.CotizacionRequestDTO;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit tests for the price rules of {@link CotizadorService}.
+ */
+class CotizadorServiceTest {
+
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private static final int MAX_SIZE = 3;
+
+    private final List<DispositivoPrecio> dispositivos = new ArrayList<>();
+
+    private final List<OpcionPrecio> opciones = new ArrayList<>();
+
+    private final List<AdicionalPrecio> adicionales = new ArrayList<>();
+
+    private CotizadorService cotizadorService;
+
+    @BeforeEach
+    void initTest() {
+        DispositivoRepository dispositivoRepository = mock(DispositivoRepository.class);
+        OpcionRepository opcionRepository = mock(OpcionRepository.class);
+        AdicionalRepository adicionalRepository = mock(AdicionalRepository.class);
+        given(dispositivoRepository.findAllPrecios()).willReturn(dispositivos);
+        given(opcionRepository.findAllPrecios()).willReturn(opciones);
+        given(adicionalRepository.findAllPrecios()).willReturn(adicionales);
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getBatch().setMaxSize(MAX_SIZE);
+        cotizadorService = new CotizadorService(
+            dispositivoRepository,
+            opcionRepository,
+            adicionalRepository,
+            applicationProperties,
+            mock(PlatformTransactionManager.class),
+            Runnable::run
+        );
+
+        dispositivo(1, "1000.00");
+        opcion(1, 10, 101, "100.00");
+        opcion(1, 10, 102, "150.00");
+        opcion(1, 20, 201, "50.00");
+    }
+
+    @Test
+    void addsOneOpcionPerPersonalizacion() {
+        CotizacionDTO cotizacion = cotizar(List.of(102L, 201L), List.of());
+
+        assertThat(cotizacion.getPrecioBase()).isEqualByComparingTo("1000.00");
+        assertThat(cotizacion.getPrecioOpciones()).isEqualByComparingTo("200.00");
+        assertThat(cotizacion.getPrecioFinal()).isEqualByComparingTo("1200.00");
+        assertThat(cotizacion.getMoneda()).isEqualTo("USD");
+    }
+
+    @Test
+    void rejectsTwoOpcionesOfSamePersonalizacion() {
+        assertThatThrownBy(() -> cotizar(List.of(101L, 201L, 102L), List.of())).isInstanceOfSatisfying(InvalidRequestException.class, e ->
+            assertThat(e.getErrorKey()).isEqualTo("opcionrepetida")
+        );
+    }
+
+    @Test
+    void rejectsOpcionOfAnotherDevice() {
+        dispositivo(2, "500.00");
+        opcion(2, 30, 301, "10.00");
+
+        assertThatThrownBy(() -> cotizar(List.of(301L), List.of())).isInstanceOfSatisfying(InvalidRequestException.class, e ->
+            assertThat(e.getErrorKey()).isEqualTo("opcioninvalid")
+        );
+    }
+
+    @Test
+    void chargesAdicionalUpToPrecioGratis() {
+        // The base price plus the opciones is 1100.00: exactly the threshold is still charged.
+        adicional(1, 501, "80.00", "1100.00");
+
+        CotizacionDTO cotizacion = cotizar(List.of(101L), List.of(501L));
+
+        assertThat(cotizacion.getPrecioAdicionales()).isEqualByComparingTo("80.00");
+        assertThat(cotizacion.getPrecioFinal()).isEqualByComparingTo("1180.00");
+    }
+
+    @Test
+    void givesAdicionalAbovePrecioGratis() {
+        // The base price plus the opciones is 1100.01; adicionales do not count towards the threshold.
+        dispositivo(1, "1000.01");
+        adicional(1, 501, "80.00", "1100.00");
+        adicional(1, 502, "20.00", null);
+
+        CotizacionDTO cotizacion = cotizar(List.of(101L), List.of(501L, 502L));
+
+        assertThat(cotizacion.getPrecioAdicionales()).isEqualByComparingTo("20.00");
+        assertThat(cotizacion.getPrecioFinal()).isEqualByComparingTo("1120.01");
+    }
+
+    @Test
+    void neverGivesAdicionalWithNegativePrecioGratis() {
+        adicional(1, 501, "80.00", "-1");
+
+        CotizacionDTO cotizacion = cotizar(List.of(102L, 201L), List.of(501L));
+
+        assertThat(cotizacion.getPrecioAdicionales()).isEqualByComparingTo("80.00");
+        assertThat(cotizacion.getPrecioFinal()).isEqualByComparingTo("1280.00");
+    }
+
+    @Test
+    void roundsPricesToCents() {
+        dispositivo(1, "999.995");
+        opciones.clear();
+        opcion(1, 10, 101, "0.004");
+        opcion(1, 20, 201, "0.125");
+        adicional(1, 501, "9.999", null);
+
+        CotizacionDTO cotizacion = cotizar(List.of(101L, 201L), List.of(501L));
+
+        assertThat(cotizacion.getPrecioBase()).isEqualTo(new BigDecimal("1000.00"));
+        assertThat(cotizacion.getPrecioOpciones()).isEqualTo(new BigDecimal("0.13"));
+        assertThat(cotizacion.getPrecioAdicionales()).isEqualTo(new BigDecimal("10.00"));
+        assertThat(cotizacion.getPrecioFinal()).isEqualTo(new BigDecimal("1010.13"));
+    }
+
+    @Test
+    void quotesBatchInOrder() {
+        dispositivo(2, "500.00");
+
+        List<CotizacionDTO> cotizaciones = cotizadorService.cotizar(List.of(request(2L, List.of()), request(1L, List.of(101L))));
+
+        assertThat(cotizaciones).extracting(CotizacionDTO::getDispositivoId).containsExactly(2L, 1L);
+        assertThat(cotizaciones).extracting(CotizacionDTO::getPrecioFinal).usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(new BigDecimal("500.00"), new BigDecimal("1100.00"));
+    }
+
+    @Test
+    void rejectsBatchLargerThanMaxSize() {
+        List<CotizacionRequestDTO> requests = Collections.nCopies(MAX_SIZE + 1, request(1L, List.of()));
+
+        assertThatThrownBy(() -> cotizadorService.cotizar(requests)).isInstanceOfSatisfying(InvalidRequestException.class, e ->
+            assertThat(e.getErrorKey()).isEqualTo("batchsizeinvalid")
+        );
+        assertThatThrownBy(() -> cotizadorService.cotizar(List.of())).isInstanceOfSatisfying(InvalidRequestException.class, e ->
+            assertThat(e.getErrorKey()).isEqualTo("batchsizeinvalid")
+        );
+    }
+
+    private CotizacionDTO cotizar(List<Long> opcionIds, List<Long> adicionalIds) {
+        return cotizadorService.cotizar(1L, request(null, opcionIds, adicionalIds)).orElseThrow();
+    }
+
+    private static CotizacionRequestDTO request(Long dispositivoId, List<Long> opcionIds) {
+        return request(dispositivoId, opcionIds, List.of());
+    }
+
+    private static CotizacionRequestDTO request(Long dispositivoId, List<Long> opcionIds, List<Long> adicionalIds) {
+        CotizacionRequestDTO request = new CotizacionRequestDTO();
+        request.setDispositivoId(dispositivoId);
+        request.setOpciones(opcionIds);
+        request.setAdicionales(adicionalIds);
+        return request;
+    }
+
+    private void dispositivo(long id, String precioBase) {
+        dispositivos.removeIf(dispositivo -> dispositivo.getId() == id);
+        Map<String, Object> dispositivo = new HashMap<>();
+        dispositivo.put("id", id);
+        dispositivo.put("precioBase", new BigDecimal(precioBase));
+        dispositivo.put("moneda", "USD");
+        dispositivos.add(PROJECTIONS.createProjection(DispositivoPrecio.class, dispositivo));
+    }
+
+    private void opcion(long dispositivoId, long personalizacionId, long id, String precioAdicional) {
+        Map<String, Object> opcion = new HashMap<>();
+        opcion.put("dispositivoId", dispositivoId);
+        opcion.put("personalizacionId", personalizacionId);
+        opcion.put("id", id);
+        opcion.put("precioAdicional", new BigDecimal(precioAdicional));
+        opciones.add(PROJECTIONS.createProjection(OpcionPrecio.class, opcion));
+    }
+
+    private void adicional(long dispositivoId, long id, String precio, String precioGratis) {
+        Map<String, Object> adicional = new HashMap<>();
+        adicional.put("dispositivoId", dispositivoId);
+        adicional.put("id", id);
+        adicional.put("precio", new BigDecimal(precio));
+        adicional.put("precioGratis", precioGratis == null ? null : new BigDecimal(precioGratis));
+        adicionales.add(PROJECTIONS.createProjection(AdicionalPrecio.class, adicional));
+    }
+}
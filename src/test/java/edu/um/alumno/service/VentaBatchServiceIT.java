@@ -0,0 +1,182 @@
+package edu.um.alumno.service;
+
+import static edu.um.alumno.service.CatedraVentasStub.aceptar;
+import static edu.um.alumno.service.CatedraVentasStub.rechazar;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+import edu.um.alumno.IntegrationTest;
+import edu.um.alumno.domain.User;
+import edu.um.alumno.domain.Venta;
+import edu.um.alumno.repository.VentaBulkRepository;
+import edu.um.alumno.service.dto.VentaBatchResultDTO;
+import edu.um.alumno.service.dto.VentaBatchResultDTO.Estado;
+import edu.um.alumno.service.dto.VentaRequestDTO;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link VentaBatchService} and {@link VentaBulkRepository}, against a stub of the cátedra sales.
+ */
+@IntegrationTest
+class VentaBatchServiceIT {
+
+    private static final long DISPOSITIVO_ID = 902;
+
+    private static final long VENTA_EXISTENTE = 30_001;
+
+    private static final long VENTA_NUEVA = 30_002;
+
+    private static final CatedraVentasStub catedra = CatedraVentasStub.start();
+
+    @DynamicPropertySource
+    static void catedraProperties(DynamicPropertyRegistry registry) {
+        registry.add("professor.api.url", catedra::baseUrl);
+    }
+
+    @MockBean
+    private ApiTokenService apiTokenService;
+
+    @Autowired
+    private VentaBatchService ventaBatchService;
+
+    @Autowired
+    private VentaBulkRepository ventaBulkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void initTest() {
+        given(apiTokenService.getToken()).willReturn("token");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update(
+                "insert into dispositivo (id, codigo, nombre, descripcion, precio_base, moneda) " +
+                "values (?, 'D902', 'Dispositivo 902', 'Descripción 902', 100, 'USD')",
+                DISPOSITIVO_ID
+            );
+            // Recorded before the batch, so it is not in the rollups.
+            jdbcTemplate.update(
+                "insert into venta (id, fecha_venta, precio_final, dispositivo_id, user_id) " +
+                "values (?, '2024-03-01 12:00:00', 999.00, ?, 1)",
+                VENTA_EXISTENTE,
+                DISPOSITIVO_ID
+            );
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from venta");
+            jdbcTemplate.update("delete from venta_resumen");
+            jdbcTemplate.update("delete from dispositivo where id = ?", DISPOSITIVO_ID);
+        });
+    }
+
+    @AfterAll
+    static void stopCatedra() {
+        catedra.stop();
+    }
+
+    @Test
+    void returnsOutcomeOfEachSaleInOrder() {
+        // The cátedra answers by price: it accepts 100.00, fails on 200.00 and returns an id recorded already for 300.00.
+        catedra.responder(venta ->
+            switch (venta.get("precioFinal").decimalValue().intValue()) {
+                case 100 -> aceptar(VENTA_NUEVA);
+                case 300 -> aceptar(VENTA_EXISTENTE);
+                default -> rechazar(503);
+            }
+        );
+
+        List<VentaBatchResultDTO> resultados = ventaBatchService.vender(
+            List.of(venta(1L, "100.00"), venta(999_999L, "150.00"), venta(1L, "200.00"), venta(2L, "300.00"))
+        );
+
+        assertThat(resultados).extracting(VentaBatchResultDTO::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(resultados)
+            .extracting(VentaBatchResultDTO::getEstado)
+            .containsExactly(Estado.CREATED, Estado.REJECTED, Estado.FAILED, Estado.CREATED);
+        assertThat(resultados).extracting(VentaBatchResultDTO::getVentaId).containsExactly(VENTA_NUEVA, null, null, VENTA_EXISTENTE);
+        assertThat(resultados.get(1).getError()).isEqualTo("User not found");
+        assertThat(resultados.get(2).getError()).contains("503");
+        // The rejected sale is not sent.
+        assertThat(catedra.recibidas()).hasSize(3);
+
+        assertThat(venta(VENTA_NUEVA)).containsEntry("USER_ID", 1L).containsEntry("DISPOSITIVO_ID", DISPOSITIVO_ID);
+        assertThat((BigDecimal) venta(VENTA_NUEVA).get("PRECIO_FINAL")).isEqualByComparingTo("100.00");
+        assertThat(venta(VENTA_EXISTENTE)).containsEntry("USER_ID", 1L);
+        assertThat((BigDecimal) venta(VENTA_EXISTENTE).get("PRECIO_FINAL")).isEqualByComparingTo("999.00");
+
+        // Only the new sale is added to the rollups, in total and for its device.
+        for (String granularidad : List.of("DIA", "MES")) {
+            for (long dispositivoId : List.of(0L, DISPOSITIVO_ID)) {
+                Map<String, Object> resumen = jdbcTemplate.queryForMap(
+                    "select cantidad, total from venta_resumen where granularidad = ? and dispositivo_id = ?",
+                    granularidad,
+                    dispositivoId
+                );
+                assertThat(resumen).containsEntry("CANTIDAD", 1L);
+                assertThat((BigDecimal) resumen.get("TOTAL")).isEqualByComparingTo("100.00");
+            }
+        }
+    }
+
+    @Test
+    void skipsExistingIds() {
+        User user = new User();
+        user.setId(2L);
+        Venta existente = venta(VENTA_EXISTENTE, "1.00", user);
+        Venta nueva = venta(VENTA_NUEVA, "2.00", user);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            ventaBulkRepository.insertAll(List.of(existente, nueva))
+        );
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from venta", Long.class)).isEqualTo(2);
+        assertThat(venta(VENTA_EXISTENTE)).containsEntry("USER_ID", 1L);
+        assertThat((BigDecimal) venta(VENTA_EXISTENTE).get("PRECIO_FINAL")).isEqualByComparingTo("999.00");
+        assertThat(venta(VENTA_NUEVA)).containsEntry("USER_ID", 2L);
+        assertThat((BigDecimal) venta(VENTA_NUEVA).get("PRECIO_FINAL")).isEqualByComparingTo("2.00");
+    }
+
+    private Map<String, Object> venta(long id) {
+        return jdbcTemplate.queryForMap("select precio_final, dispositivo_id, user_id from venta where id = ?", id);
+    }
+
+    private static VentaRequestDTO venta(Long userId, String precioFinal) {
+        VentaRequestDTO venta = new VentaRequestDTO();
+        venta.setUserId(userId);
+        venta.setIdDispositivo(DISPOSITIVO_ID);
+        venta.setPrecioFinal(new BigDecimal(precioFinal));
+        venta.setFechaVenta(ZonedDateTime.parse("2024-01-15T12:00:00Z"));
+        return venta;
+    }
+
+    private static Venta venta(long id, String precioFinal, User user) {
+        Venta venta = new Venta();
+        venta.setId(id);
+        venta.setFechaVenta(ZonedDateTime.parse("2024-01-15T12:00:00Z"));
+        venta.setPrecioFinal(new BigDecimal(precioFinal));
+        venta.setDispositivoId(DISPOSITIVO_ID);
+        venta.setUser(user);
+        return venta;
+    }
+}
@@ -0,0 +1,181 @@
+package edu.um.alumno.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.um.alumno.IntegrationTest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link VentaExportService}.
+ */
+@IntegrationTest
+@Transactional
+class VentaExportServiceIT {
+
+    private static final ZonedDateTime ENERO = ZonedDateTime.parse("2024-01-01T00:00:00Z");
+
+    private static final ZonedDateTime FEBRERO = ZonedDateTime.parse("2024-02-01T00:00:00Z");
+
+    private static final int MILLON = 1_000_000;
+
+    // Half of what a million sales take once read into memory.
+    private static final long MAX_RETAINED_BYTES = 128L * 1024 * 1024;
+
+    @Autowired
+    private VentaExportService ventaExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void initTest() {
+        insertVenta(101, "2024-01-01 10:00:00", "10.00", 1, 7L);
+        insertVenta(102, "2024-01-02 10:00:00", "20.50", 2, 8L);
+        insertVenta(103, "2024-01-03 10:00:00", "30.00", 1, null);
+        insertVenta(104, "2024-02-01 10:00:00", "40.00", 1, 7L);
+    }
+
+    @Test
+    void exportsCsvOfUserAndRange() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long ventas = ventaExportService.exportar(VentaExportService.Formato.CSV, ENERO, FEBRERO, 1L, out);
+
+        assertThat(ventas).isEqualTo(2);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).first().isEqualTo("id,fechaVenta,precioFinal,dispositivoId,userId");
+        assertThat(lines.subList(1, lines.size()))
+            .map(line -> line.split(",", -1))
+            .satisfiesExactly(
+                venta -> assertCsvRow(venta, "101", "2024-01-01T10:00:00Z", "10.00", "7", "1"),
+                venta -> assertCsvRow(venta, "103", "2024-01-03T10:00:00Z", "30.00", "", "1")
+            );
+    }
+
+    @Test
+    void exportsNdjsonOfRange() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long ventas = ventaExportService.exportar(VentaExportService.Formato.NDJSON, ENERO, FEBRERO, null, out);
+
+        assertThat(ventas).isEqualTo(3);
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        List<JsonNode> lines = body.lines().map(this::readTree).toList();
+        assertThat(lines).extracting(venta -> venta.get("id").asLong()).containsExactly(101L, 102L, 103L);
+        assertThat(lines).extracting(venta -> venta.get("user").get("id").asLong()).containsExactly(1L, 2L, 1L);
+        assertThat(lines)
+            .extracting(venta -> venta.get("precioFinal").decimalValue())
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactly(new BigDecimal("10.00"), new BigDecimal("20.50"), new BigDecimal("30.00"));
+        assertThat(lines.get(0).get("fechaVenta").asText()).satisfies(fecha ->
+            assertThat(ZonedDateTime.parse(fecha).toInstant()).isEqualTo(Instant.parse("2024-01-01T10:00:00Z"))
+        );
+    }
+
+    @Test
+    void exportsMillionVentasInBoundedHeap() {
+        jdbcTemplate.update(
+            "insert into venta (fecha_venta, precio_final, user_id, dispositivo_id) " +
+            "select dateadd('SECOND', x, timestamp '2023-01-01 00:00:00'), 100.00, mod(x, 2) + 1, mod(x, 50) " +
+            "from system_range(1, ?)",
+            MILLON
+        );
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream(100_000);
+
+        long ventas = ventaExportService.exportar(VentaExportService.Formato.CSV, null, ENERO, null, out);
+
+        assertThat(ventas).isEqualTo(MILLON);
+        assertThat(out.lines).isEqualTo(MILLON + 1);
+        assertThat(out.maxRetained - out.baseline).isLessThan(MAX_RETAINED_BYTES);
+    }
+
+    private void insertVenta(long id, String fechaVenta, String precioFinal, long userId, Long dispositivoId) {
+        jdbcTemplate.update(
+            "insert into venta (id, fecha_venta, precio_final, user_id, dispositivo_id) " +
+            "values (?, timestamp '" +
+            fechaVenta +
+            "', ?, ?, ?)",
+            id,
+            new BigDecimal(precioFinal),
+            userId,
+            dispositivoId
+        );
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void assertCsvRow(String[] row, String id, String fechaVenta, String precioFinal, String dispositivoId, String userId) {
+        assertThat(row).hasSize(5);
+        assertThat(row[0]).isEqualTo(id);
+        assertThat(ZonedDateTime.parse(row[1]).toInstant()).isEqualTo(Instant.parse(fechaVenta));
+        assertThat(row[2]).isEqualTo(precioFinal);
+        assertThat(row[3]).isEqualTo(dispositivoId);
+        assertThat(row[4]).isEqualTo(userId);
+    }
+
+    /**
+     * Discards what is written, and measures the heap still in use after a collection every given number of lines.
+     */
+    private static final class HeapSamplingOutputStream extends OutputStream {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        private final long sampleEvery;
+
+        private final long baseline;
+
+        private long maxRetained;
+
+        private long lines;
+
+        private HeapSamplingOutputStream(long sampleEvery) {
+            this.sampleEvery = sampleEvery;
+            this.baseline = retainedHeap();
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % sampleEvery == 0) {
+                maxRetained = Math.max(maxRetained, retainedHeap());
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        private long retainedHeap() {
+            System.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package edu.um.alumno.service;
+
+import static edu.um.alumno.service.CatedraVentasStub.aceptar;
+import static edu.um.alumno.service.CatedraVentasStub.demorar;
+import static edu.um.alumno.service.CatedraVentasStub.rechazar;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+import edu.um.alumno.IntegrationTest;
+import edu.um.alumno.domain.enumeration.EstadoVentaIdempotencia;
+import edu.um.alumno.repository.VentaIdempotenciaRepository;
+import edu.um.alumno.service.dto.VentaRequestDTO;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Integration tests for {@link VentaIdempotenciaService}, against a stub of the cátedra sales.
+ */
+@IntegrationTest
+class VentaIdempotenciaServiceIT {
+
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(500);
+
+    private static final CatedraVentasStub catedra = CatedraVentasStub.start();
+
+    @DynamicPropertySource
+    static void catedraProperties(DynamicPropertyRegistry registry) {
+        registry.add("professor.api.url", catedra::baseUrl);
+        registry.add("application.catedra.read-timeout", READ_TIMEOUT::toString);
+    }
+
+    @MockBean
+    private ApiTokenService apiTokenService;
+
+    @Autowired
+    private VentaIdempotenciaService ventaIdempotenciaService;
+
+    @Autowired
+    private VentaIdempotenciaRepository ventaIdempotenciaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void initTest() {
+        given(apiTokenService.getToken()).willReturn("token");
+    }
+
+    @AfterEach
+    void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from venta_idempotencia");
+            jdbcTemplate.update("delete from venta");
+            jdbcTemplate.update("delete from venta_resumen");
+        });
+    }
+
+    @AfterAll
+    static void stopCatedra() {
+        catedra.stop();
+    }
+
+    @Test
+    void replaysCompletedSale() {
+        catedra.responder(venta -> aceptar(9001));
+
+        VentaIdempotenciaService.Resultado primera = ventaIdempotenciaService.vender("replay", venta("100.00"));
+        VentaIdempotenciaService.Resultado repetida = ventaIdempotenciaService.vender("replay", venta("100.00"));
+
+        assertThat(primera.isRepetida()).isFalse();
+        assertThat(primera.getVenta().getId()).isEqualTo(9001L);
+        assertThat(repetida.isRepetida()).isTrue();
+        assertThat(repetida.getVenta().getId()).isEqualTo(9001L);
+        assertThat(catedra.recibidas()).hasSize(1);
+    }
+
+    @Test
+    void rejectsKeyReusedForDifferentSale() {
+        catedra.responder(venta -> aceptar(9002));
+        ventaIdempotenciaService.vender("reused", venta("100.00"));
+
+        assertThatThrownBy(() -> ventaIdempotenciaService.vender("reused", venta("250.00")))
+            .isInstanceOfSatisfying(InvalidRequestException.class, e ->
+                assertThat(e.getErrorKey()).isEqualTo("idempotencykeyreused")
+            );
+        assertThat(catedra.recibidas()).hasSize(1);
+    }
+
+    @Test
+    void keepsKeyAfterTimeout() {
+        // The cátedra records the sale, but answers after the client stopped waiting.
+        catedra.responder(venta -> demorar(9003, READ_TIMEOUT.multipliedBy(3)));
+
+        assertThatThrownBy(() -> ventaIdempotenciaService.vender("timeout", venta("100.00"))).isInstanceOf(RuntimeException.class);
+        assertThat(ventaIdempotenciaRepository.findOneByClave("timeout")).hasValueSatisfying(clave -> {
+            assertThat(clave.getEstado()).isEqualTo(EstadoVentaIdempotencia.UNKNOWN);
+            assertThat(clave.getError()).contains("SocketTimeoutException");
+        });
+
+        catedra.responder(venta -> aceptar(9004));
+
+        assertThatThrownBy(() -> ventaIdempotenciaService.vender("timeout", venta("100.00")))
+            .isInstanceOf(IdempotencyKeyFailedException.class)
+            .hasMessageContaining("SocketTimeoutException");
+        assertThat(catedra.recibidas()).isEmpty();
+    }
+
+    @Test
+    void releasesKeyWhenRejected() {
+        catedra.responder(venta -> rechazar(400));
+
+        assertThatThrownBy(() -> ventaIdempotenciaService.vender("rejected", venta("100.00"))).hasRootCauseInstanceOf(
+            HttpClientErrorException.BadRequest.class
+        );
+        assertThat(ventaIdempotenciaRepository.findOneByClave("rejected")).isEmpty();
+
+        catedra.responder(venta -> aceptar(9005));
+        VentaIdempotenciaService.Resultado resultado = ventaIdempotenciaService.vender("rejected", venta("100.00"));
+
+        assertThat(resultado.isRepetida()).isFalse();
+        assertThat(resultado.getVenta().getId()).isEqualTo(9005L);
+        assertThat(catedra.recibidas()).hasSize(1);
+    }
+
+    private static VentaRequestDTO venta(String precioFinal) {
+        VentaRequestDTO venta = new VentaRequestDTO();
+        venta.setUserId(1L);
+        venta.setIdDispositivo(1L);
+        venta.setPrecioFinal(new BigDecimal(precioFinal));
+        venta.setFechaVenta(ZonedDateTime.parse("2024-01-01T10:00:00Z"));
+        return venta;
+    }
+}
@@ -0,0 +1,180 @@
+package edu.um.alumno.service;
+
+import static edu.um.alumno.service.CatedraVentasStub.aceptar;
+import static edu.um.alumno.service.CatedraVentasStub.rechazar;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.BDDMockito.given;
+
+import edu.um.alumno.IntegrationTest;
+import edu.um.alumno.domain.enumeration.EstadoVentaOutbox;
+import edu.um.alumno.service.dto.VentaOutboxDTO;
+import edu.um.alumno.service.dto.VentaRequestDTO;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link VentaOutboxDispatcher}, against a stub of the cátedra sales.
+ */
+@IntegrationTest
+class VentaOutboxDispatcherIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VentaOutboxDispatcherIT.class);
+
+    private static final long DISPOSITIVO_ID = 901;
+
+    // More than the workers and their queue hold, so part of them is left to the polls.
+    private static final int VENTAS = 300;
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(200);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final CatedraVentasStub catedra = CatedraVentasStub.start();
+
+    @DynamicPropertySource
+    static void catedraProperties(DynamicPropertyRegistry registry) {
+        registry.add("professor.api.url", catedra::baseUrl);
+        registry.add("application.outbox.enabled", () -> true);
+        registry.add("application.outbox.poll-interval", () -> "100ms");
+        registry.add("application.outbox.initial-backoff", INITIAL_BACKOFF::toString);
+        registry.add("application.outbox.max-backoff", () -> "1s");
+        registry.add("application.outbox.max-attempts", () -> MAX_ATTEMPTS);
+    }
+
+    @MockBean
+    private ApiTokenService apiTokenService;
+
+    @Autowired
+    private VentaOutboxDispatcher ventaOutboxDispatcher;
+
+    @Autowired
+    private VentaOutboxService ventaOutboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void initTest() {
+        given(apiTokenService.getToken()).willReturn("token");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            jdbcTemplate.update(
+                "insert into dispositivo (id, codigo, nombre, descripcion, precio_base, moneda) " +
+                "values (?, 'D901', 'Dispositivo 901', 'Descripción 901', 100, 'USD')",
+                DISPOSITIVO_ID
+            )
+        );
+    }
+
+    @AfterEach
+    void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from venta_outbox");
+            jdbcTemplate.update("delete from venta");
+            jdbcTemplate.update("delete from venta_resumen");
+            jdbcTemplate.update("delete from dispositivo where id = ?", DISPOSITIVO_ID);
+        });
+    }
+
+    @AfterAll
+    static void stopCatedra() {
+        catedra.stop();
+    }
+
+    @Test
+    void confirmsSales() {
+        AtomicLong idVenta = new AtomicLong(20_000);
+        catedra.responder(venta -> aceptar(idVenta.incrementAndGet()));
+
+        long start = System.nanoTime();
+        List<Long> handles = new ArrayList<>(VENTAS);
+        for (int i = 0; i < VENTAS; i++) {
+            handles.add(ventaOutboxDispatcher.aceptar(venta()).getId());
+        }
+        await().atMost(Duration.ofSeconds(60)).until(() -> confirmadas() == VENTAS);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        LOG.info("{} outbox sales confirmed in {} ms, {} per second", VENTAS, millis, VENTAS * 1000L / Math.max(millis, 1));
+
+        assertThat(catedra.recibidas()).hasSize(VENTAS);
+        assertThat(handles).map(this::outbox).extracting(VentaOutboxDTO::getIntentos).containsOnly(1);
+        assertThat(handles).map(this::outbox).extracting(VentaOutboxDTO::getVentaId).doesNotHaveDuplicates().doesNotContainNull();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from venta", Long.class)).isEqualTo(VENTAS);
+    }
+
+    @Test
+    void retriesWithBackoff() {
+        AtomicInteger intentos = new AtomicInteger();
+        List<Long> llegadas = new CopyOnWriteArrayList<>();
+        catedra.responder(venta -> {
+            llegadas.add(System.nanoTime());
+            return intentos.incrementAndGet() < MAX_ATTEMPTS ? rechazar(503) : aceptar(20_900);
+        });
+
+        Long handle = ventaOutboxDispatcher.aceptar(venta()).getId();
+        await().atMost(Duration.ofSeconds(30)).until(() -> outbox(handle).getEstado() == EstadoVentaOutbox.CONFIRMED);
+
+        VentaOutboxDTO confirmada = outbox(handle);
+        assertThat(confirmada.getIntentos()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(confirmada.getVentaId()).isEqualTo(20_900L);
+        assertThat(confirmada.getUltimoError()).isNull();
+        assertThat(llegadas).hasSize(MAX_ATTEMPTS);
+        // Each retry waits between half and all of a backoff that doubles, from the initial one.
+        for (int intento = 1; intento < MAX_ATTEMPTS; intento++) {
+            Duration espera = Duration.ofNanos(llegadas.get(intento) - llegadas.get(intento - 1));
+            assertThat(espera).isGreaterThanOrEqualTo(INITIAL_BACKOFF.multipliedBy(1L << (intento - 1)).dividedBy(2));
+        }
+    }
+
+    @Test
+    void failsOnClientError() {
+        catedra.responder(venta -> rechazar(422));
+
+        Long handle = ventaOutboxDispatcher.aceptar(venta()).getId();
+        await().atMost(Duration.ofSeconds(30)).until(() -> outbox(handle).getEstado() == EstadoVentaOutbox.FAILED);
+
+        VentaOutboxDTO fallida = outbox(handle);
+        assertThat(fallida.getIntentos()).isEqualTo(1);
+        assertThat(fallida.getUltimoError()).contains("422");
+        assertThat(fallida.getVentaId()).isNull();
+        assertThat(catedra.recibidas()).hasSize(1);
+    }
+
+    private long confirmadas() {
+        return jdbcTemplate.queryForObject("select count(*) from venta_outbox where estado = 'CONFIRMED'", Long.class);
+    }
+
+    private VentaOutboxDTO outbox(Long handle) {
+        return ventaOutboxService.findOne(handle).orElseThrow();
+    }
+
+    private static VentaRequestDTO venta() {
+        VentaRequestDTO venta = new VentaRequestDTO();
+        venta.setUserId(1L);
+        venta.setIdDispositivo(DISPOSITIVO_ID);
+        venta.setPrecioFinal(new BigDecimal("100.00"));
+        venta.setFechaVenta(ZonedDateTime.parse("2024-01-01T10:00:00Z"));
+        return venta;
+    }
+}